@@ -0,0 +1,416 @@
+package com.project.DiseaseDiagnosis;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Class Automaton is the compiled form of the finite state machine built by FiniteStateAutomata.
+ * Transitions are stored in one flat goto table indexed by (state, symbol class) with the failure
+ * links already folded in, so it is a true DFA: every input symbol costs exactly one table lookup.
+ * The goto table and the keywords recognized in every state are stored off the heap, in one direct
+ * (or memory mapped, see AutomatonFile) buffer, so the heap used by an automaton does not grow with the
+ * number of states; only the keyword strings stay on the heap. The buffers count against
+ * -XX:MaxDirectMemorySize.
+ * Byte input (e.g. a nucleotide automaton scanning raw ASCII DNA) is scanned directly, without
+ * decoding it into characters.
+ * <p>
+ * An Automaton is immutable: all tables are created by FiniteStateAutomata.compile and never change
+ * afterwards, and all scan state (current state, counts) belongs to the caller. One instance can be
+ * shared by any number of threads without locking.
+ */
+public final class Automaton {
+
+    /**
+     * Symbol class of line terminators. They are skipped without changing state, so keywords
+     * can span lines of the input file.
+     */
+    static final int SKIP = -1;
+
+    /**
+     * Bit set in every transition into a state that reports keywords. States are multiples of the row size,
+     * so the bit is free, and the outputs of the other states are never read.
+     */
+    static final int MATCH = 1;
+
+    private final String[] keywords;
+
+    /**
+     * lengths stores the number of symbols matched for every keyword (the strand tag is not matched)
+     */
+    private final int[] lengths;
+    private final int maxKeywordLength;
+
+    /**
+     * fingerprint identifies the keyword list in index order, i.e. the meaning of a count array
+     */
+    private final String fingerprint;
+
+    /**
+     * classes maps input symbols to columns of the goto table. Symbols that do not appear
+     * in any keyword share the last column, which always leads back to the start state.
+     */
+    private final int[] classes;
+    private final int otherClass;
+
+    /**
+     * table has one row of rowBytes bytes per state, followed by the outputs (indices into keywords), all ints
+     * in little endian order. Row s holds the new state for every symbol class (see MATCH), then the byte
+     * offsets of the first output of s and behind its last output. A state is the byte offset of its row, so the start
+     * state is 0 and a transition is a single read at state + 4 * symbol class.
+     */
+    private final ByteBuffer table;
+    private final int rowBytes;
+    private final int outputColumn;
+    private final int stateCount;
+
+    Automaton(String[] keywords, int[] classes, int otherClass, ByteBuffer table, int rowBytes, int stateCount) {
+        this.keywords = keywords;
+        this.classes = classes;
+        this.otherClass = otherClass;
+        this.table = table;
+        this.rowBytes = rowBytes;
+        this.outputColumn = Integer.BYTES * (otherClass + 1);
+        this.stateCount = stateCount;
+        this.lengths = new int[keywords.length];
+        int max = 0;
+        for (int k = 0; k < keywords.length; k++) {
+            lengths[k] = Nucleotides.motif(keywords[k]).length();
+            max = Math.max(max, lengths[k]);
+        }
+        this.maxKeywordLength = max;
+        this.fingerprint = AutomatonCache.hash(keywords);
+    }
+
+    /**
+     * scan runs the DFA over text[from, to) starting in the given state and adds every keyword
+     * occurrence that ends inside the range to counts (indexed like getKeyword). It allocates nothing.
+     *
+     * @return the state after the last symbol, to be passed to the next call for the following range
+     */
+    public int scan(CharSequence text, int from, int to, int state, long[] counts) {
+        for (int i = from; i < to; i++) {
+            int symbolClass = classOf(text.charAt(i));
+            if (symbolClass == SKIP) {
+                continue;
+            }
+            int next = table.getInt(state + (symbolClass << 2));
+            state = next & ~MATCH;
+            if (next != state) {
+                for (int k = table.getInt(state + outputColumn), end = table.getInt(state + outputColumn + 4); k < end; k += 4) {
+                    counts[table.getInt(k)]++;
+                }
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Same as scan(CharSequence, ...) for a character buffer filled by a Reader.
+     */
+    public int scan(char[] text, int from, int to, int state, long[] counts) {
+        for (int i = from; i < to; i++) {
+            int symbolClass = classOf(text[i]);
+            if (symbolClass == SKIP) {
+                continue;
+            }
+            int next = table.getInt(state + (symbolClass << 2));
+            state = next & ~MATCH;
+            if (next != state) {
+                for (int k = table.getInt(state + outputColumn), end = table.getInt(state + outputColumn + 4); k < end; k += 4) {
+                    counts[table.getInt(k)]++;
+                }
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Same as scan(CharSequence, ...) for raw bytes, e.g. a buffer filled from an InputStream.
+     */
+    public int scan(byte[] data, int from, int to, int state, long[] counts) {
+        for (int i = from; i < to; i++) {
+            int symbolClass = classes[data[i] & 0xFF];
+            if (symbolClass == SKIP) {
+                continue;
+            }
+            int next = table.getInt(state + (symbolClass << 2));
+            state = next & ~MATCH;
+            if (next != state) {
+                for (int k = table.getInt(state + outputColumn), end = table.getInt(state + outputColumn + 4); k < end; k += 4) {
+                    counts[table.getInt(k)]++;
+                }
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Same as scan(CharSequence, ...) for the bytes buffer[from, to). Absolute gets are used, so the
+     * position of the buffer is not changed and one buffer can be scanned by several threads.
+     */
+    public int scan(ByteBuffer buffer, int from, int to, int state, long[] counts) {
+        for (int i = from; i < to; i++) {
+            int symbolClass = classes[buffer.get(i) & 0xFF];
+            if (symbolClass == SKIP) {
+                continue;
+            }
+            int next = table.getInt(state + (symbolClass << 2));
+            state = next & ~MATCH;
+            if (next != state) {
+                for (int k = table.getInt(state + outputColumn), end = table.getInt(state + outputColumn + 4); k < end; k += 4) {
+                    counts[table.getInt(k)]++;
+                }
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Same as scan(byte[], ...), but every keyword occurrence is reported to the listener together with its
+     * position. The scan starts in the listener's state and position and stores them back at the end.
+     */
+    public void scan(byte[] data, int from, int to, MatchListener listener) {
+        int state = listener.state;
+        long position = listener.position;
+        for (int i = from; i < to; i++) {
+            int symbolClass = classes[data[i] & 0xFF];
+            if (symbolClass == SKIP) {
+                continue;
+            }
+            int next = table.getInt(state + (symbolClass << 2));
+            state = next & ~MATCH;
+            if (next != state) {
+                for (int k = table.getInt(state + outputColumn), end = table.getInt(state + outputColumn + 4); k < end; k += 4) {
+                    listener.onMatch(table.getInt(k), position);
+                }
+            }
+            position++;
+        }
+        listener.state = state;
+        listener.position = position;
+    }
+
+    /**
+     * Same as scan(byte[], ..., MatchListener), but whenever the DFA is in the start state, the scan jumps to the
+     * next position where the prefilter (built for this automaton) finds a possible keyword start. No occurrence
+     * starts at a skipped position, so the scan continues in the start state without missing one, and the
+     * prefilter never skips a line terminator, so positions still count symbols only. After a candidate, the
+     * prefilter is asked again only shifts symbols later, because candidates come in clusters around line ends.
+     */
+    public void scan(byte[] data, int from, int to, Prefilter prefilter, MatchListener listener) {
+        int state = listener.state;
+        long position = listener.position;
+        int shifts = prefilter.getShifts();
+        int i = from, resume = from;
+        while (i < to) {
+            if (state == 0 && i >= resume) {
+                int next = prefilter.next(data, i, to);
+                position += next - i;
+                i = next;
+                if (i == to) {
+                    break;
+                }
+                resume = i + shifts;
+            }
+            int symbolClass = classes[data[i++] & 0xFF];
+            if (symbolClass == SKIP) {
+                continue;
+            }
+            int next = table.getInt(state + (symbolClass << 2));
+            state = next & ~MATCH;
+            if (next != state) {
+                for (int k = table.getInt(state + outputColumn), end = table.getInt(state + outputColumn + 4); k < end; k += 4) {
+                    listener.onMatch(table.getInt(k), position);
+                }
+            }
+            position++;
+        }
+        listener.state = state;
+        listener.position = position;
+    }
+
+    /**
+     * Same as scan(byte[], ..., MatchListener) for the bytes buffer[from, to).
+     */
+    public void scan(ByteBuffer buffer, int from, int to, MatchListener listener) {
+        int state = listener.state;
+        long position = listener.position;
+        for (int i = from; i < to; i++) {
+            int symbolClass = classes[buffer.get(i) & 0xFF];
+            if (symbolClass == SKIP) {
+                continue;
+            }
+            int next = table.getInt(state + (symbolClass << 2));
+            state = next & ~MATCH;
+            if (next != state) {
+                for (int k = table.getInt(state + outputColumn), end = table.getInt(state + outputColumn + 4); k < end; k += 4) {
+                    listener.onMatch(table.getInt(k), position);
+                }
+            }
+            position++;
+        }
+        listener.state = state;
+        listener.position = position;
+    }
+
+    /**
+     * advance runs the DFA over text[from, to) without counting keywords. It is used to bring a
+     * block into the correct state over a region whose matches are counted elsewhere.
+     */
+    public int advance(CharSequence text, int from, int to, int state) {
+        for (int i = from; i < to; i++) {
+            int symbolClass = classOf(text.charAt(i));
+            if (symbolClass != SKIP) {
+                state = table.getInt(state + (symbolClass << 2)) & ~MATCH;
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Same as advance(CharSequence, ...) for the bytes buffer[from, to).
+     */
+    public int advance(ByteBuffer buffer, int from, int to, int state) {
+        for (int i = from; i < to; i++) {
+            int symbolClass = classes[buffer.get(i) & 0xFF];
+            if (symbolClass != SKIP) {
+                state = table.getInt(state + (symbolClass << 2)) & ~MATCH;
+            }
+        }
+        return state;
+    }
+
+    /**
+     * isSkipped
+     *
+     * @return true if the byte is a line terminator, which the automaton skips
+     */
+    public boolean isSkipped(byte symbol) {
+        return classes[symbol & 0xFF] == SKIP;
+    }
+
+    private int classOf(char symbol) {
+        return symbol < classes.length ? classes[symbol] : otherClass;
+    }
+
+    /**
+     * newCounts
+     *
+     * @return an empty count array for scan, one slot per keyword
+     */
+    public long[] newCounts() {
+        return new long[keywords.length];
+    }
+
+    /**
+     * toCountMap converts a count array filled by scan into a map (keyword -> count) that
+     * contains only the keywords which were found at least once.
+     */
+    public Map<String, Long> toCountMap(long[] counts) {
+        Map<String, Long> countMap = new LinkedHashMap<>();
+        for (int k = 0; k < keywords.length; k++) {
+            if (counts[k] > 0) {
+                countMap.put(keywords[k], counts[k]);
+            }
+        }
+        return countMap;
+    }
+
+    public int getKeywordCount() {
+        return keywords.length;
+    }
+
+    public String getKeyword(int index) {
+        return keywords[index];
+    }
+
+    /**
+     * getKeywordLength
+     *
+     * @return number of symbols of an occurrence of the keyword
+     */
+    public int getKeywordLength(int index) {
+        return lengths[index];
+    }
+
+    /**
+     * isStranded
+     *
+     * @return true if some keyword is matched on the reverse strand (see Nucleotides.REVERSE_STRAND)
+     */
+    public boolean isStranded() {
+        for (String keyword : keywords) {
+            if (Nucleotides.isReverseStrand(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getMaxKeywordLength() {
+        return maxKeywordLength;
+    }
+
+    public int getStateCount() {
+        return stateCount;
+    }
+
+    /**
+     * getTransitionCount
+     *
+     * @return number of transitions in the table (one per state and symbol class)
+     */
+    public long getTransitionCount() {
+        return (long) stateCount * (otherClass + 1);
+    }
+
+    /**
+     * getTableBytes
+     *
+     * @return size of the off-heap table in bytes
+     */
+    public long getTableBytes() {
+        return table.capacity();
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /* tables are exposed only inside the package, for AutomatonFile and Prefilter */
+
+    int[] getClasses() {
+        return classes;
+    }
+
+    int getOtherClass() {
+        return otherClass;
+    }
+
+    ByteBuffer getTable() {
+        return table;
+    }
+
+    int getRowBytes() {
+        return rowBytes;
+    }
+
+    /**
+     * stateIndex
+     *
+     * @return number of the state (0 ... getStateCount() - 1), for tables indexed by state
+     */
+    int stateIndex(int state) {
+        return state / rowBytes;
+    }
+
+    /**
+     * transition
+     *
+     * @return the state after a symbol of the class in the given state
+     */
+    int transition(int state, int symbolClass) {
+        return table.getInt(state + Integer.BYTES * symbolClass) & ~MATCH;
+    }
+}
@@ -0,0 +1,236 @@
+package com.project.DiseaseDiagnosis;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class AutomatonCache keeps compiled automata in memory, so a keyword set is compiled only once. Entries are
+ * keyed by the fingerprint of the normalized keyword list (trimmed, upper case, without empty and duplicate
+ * keywords), which does not depend on the order, so the same panel sent in a different order or case reuses the
+ * same automaton. The automaton keeps the keywords in the order of the list it was compiled for, which is the
+ * order of its report rows; a panel sent in a different order is reported in that first order. At most
+ * capacity automata are kept; the least recently used one is evicted first. The prefilter of a cached automaton
+ * (see Prefilter.of) is created on first use and kept with it, so it is not built again by every scan.
+ */
+public final class AutomatonCache {
+
+    static final int DEFAULT_CAPACITY = 64;
+
+    private final int capacity;
+    private final Map<String, Automaton> automata;
+
+    /**
+     * prefilters stores the prefilter of every cached automaton that was asked for one (empty if it has none),
+     * guarded by automata
+     */
+    private final Map<Automaton, Optional<Prefilter>> prefilters = new IdentityHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public AutomatonCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public AutomatonCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive!");
+        }
+        this.capacity = capacity;
+        this.automata = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Automaton> eldest) {
+                if (size() > AutomatonCache.this.capacity) {
+                    prefilters.remove(eldest.getValue());
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * get returns the compiled automaton for the keyword set, compiling it on a cache miss. Compilation runs
+     * outside the lock, so a miss never blocks lookups of other keyword sets.
+     */
+    public Automaton get(String[] keywords) {
+        String[] normalized = normalize(keywords);
+        String fingerprint = fingerprint(normalized);
+        synchronized (automata) {
+            Automaton automaton = automata.get(fingerprint);
+            if (automaton != null) {
+                hits.incrementAndGet();
+                return automaton;
+            }
+        }
+        misses.incrementAndGet();
+        Automaton automaton = Main.preprocessingStage(normalized);
+        synchronized (automata) {
+            Automaton cached = automata.putIfAbsent(fingerprint, automaton);
+            return cached != null ? cached : automaton;
+        }
+    }
+
+    /**
+     * put adds an automaton that was compiled elsewhere (e.g. loaded by AutomatonFile) to the cache
+     */
+    public void put(Automaton automaton) {
+        String[] keywords = new String[automaton.getKeywordCount()];
+        for (int k = 0; k < keywords.length; k++) {
+            keywords[k] = automaton.getKeyword(k);
+        }
+        String fingerprint = fingerprint(normalize(keywords));
+        synchronized (automata) {
+            Automaton replaced = automata.put(fingerprint, automaton);
+            if (replaced != null && replaced != automaton) {
+                prefilters.remove(replaced);
+            }
+        }
+    }
+
+    /**
+     * prefilter returns the prefilter of the automaton; it is created only once while the automaton is cached.
+     * The prefilter is created outside the lock, like a missing automaton in get.
+     *
+     * @return the prefilter, null if there is none (see Prefilter.of)
+     */
+    public Prefilter prefilter(Automaton automaton) {
+        synchronized (automata) {
+            Optional<Prefilter> prefilter = prefilters.get(automaton);
+            if (prefilter != null) {
+                return prefilter.orElse(null);
+            }
+        }
+        Prefilter prefilter = Prefilter.of(automaton);
+        synchronized (automata) {
+            /* automata that are not (or no longer) cached do not keep their prefilter */
+            if (automata.containsValue(automaton)) {
+                Optional<Prefilter> cached = prefilters.putIfAbsent(automaton, Optional.ofNullable(prefilter));
+                if (cached != null) {
+                    return cached.orElse(null);
+                }
+            }
+        }
+        return prefilter;
+    }
+
+    /**
+     * contains
+     *
+     * @return true if the automaton for the keyword set is already compiled
+     */
+    public boolean contains(String[] keywords) {
+        String fingerprint = fingerprint(normalize(keywords));
+        synchronized (automata) {
+            return automata.containsKey(fingerprint);
+        }
+    }
+
+    /**
+     * normalize trims keywords and converts them to upper case and removes empty and duplicate keywords; the first
+     * occurrence of a keyword keeps its place
+     */
+    static String[] normalize(String[] keywords) {
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String keyword : keywords) {
+            if (keyword != null && !keyword.trim().isEmpty()) {
+                normalized.add(keyword.trim().toUpperCase(Locale.ROOT));
+            }
+        }
+        return normalized.toArray(new String[0]);
+    }
+
+    /**
+     * fingerprint
+     *
+     * @return hex SHA-256 hash of the normalized keyword list in sorted order, the same for every order
+     */
+    static String fingerprint(String[] normalized) {
+        String[] sorted = normalized.clone();
+        Arrays.sort(sorted);
+        return hash(sorted);
+    }
+
+    /**
+     * hash
+     *
+     * @return hex SHA-256 hash of the keyword list in its order
+     */
+    static String hash(String[] keywords) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(String.join(",", keywords).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public int size() {
+        synchronized (automata) {
+            return automata.size();
+        }
+    }
+
+    /**
+     * getStateCount
+     *
+     * @return total number of states of all cached automata
+     */
+    public long getStateCount() {
+        synchronized (automata) {
+            return automata.values().stream().mapToLong(Automaton::getStateCount).sum();
+        }
+    }
+
+    /**
+     * getTransitionCount
+     *
+     * @return total number of transitions of all cached automata
+     */
+    public long getTransitionCount() {
+        synchronized (automata) {
+            return automata.values().stream().mapToLong(Automaton::getTransitionCount).sum();
+        }
+    }
+
+    /**
+     * getTableBytes
+     *
+     * @return total size of the off-heap tables of all cached automata
+     */
+    public long getTableBytes() {
+        synchronized (automata) {
+            return automata.values().stream().mapToLong(Automaton::getTableBytes).sum();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+}
@@ -0,0 +1,174 @@
+package com.project.DiseaseDiagnosis;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Class AutomatonFile reads and writes compiled automata in a binary file, so a service instance can load a
+ * large keyword set without constructing the automaton. The file is little endian:
+ * <pre>
+ * header   magic "ACDF", version, class count, other class, row bytes, state count, table bytes,
+ *          keyword count (8 ints), CRC32 of the file with this field set to 0 (long), padded to TABLE_OFFSET bytes
+ * payload  table (see Automaton), classes (ints),
+ *          keywords (length in bytes + UTF-8 bytes, per keyword)
+ * </pre>
+ * The file is loaded through memory mapping, and the automaton scans the table directly in the mapping, so
+ * loading does not copy the table, the heap holds only the classes and the keywords, and all JVMs on a host
+ * share the same page cache copy. A file is never rewritten in place: write replaces it atomically, so a running
+ * service that has the previous file mapped keeps scanning the previous automaton.
+ */
+public final class AutomatonFile {
+
+    static final int MAGIC = 0x46444341;      // "ACDF" in little endian
+    static final int VERSION = 3;
+    static final int CHECKSUM_OFFSET = 8 * Integer.BYTES;
+    static final int HEADER_SIZE = CHECKSUM_OFFSET + Long.BYTES;
+
+    /**
+     * TABLE_OFFSET aligns the table in the file, so the rows are aligned in the mapping as well
+     */
+    static final int TABLE_OFFSET = 64;
+
+    private AutomatonFile() {
+    }
+
+    /**
+     * Build step: compiles the keywords from the keywords file and writes the automaton file.
+     * Usage: AutomatonFile keywordsFile automatonFile
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: AutomatonFile <keywords file> <automaton file>");
+            System.exit(-1);
+        }
+        String[] keywords = Main.readInputKeywords(Path.of(args[0]).toFile());
+        Automaton automaton = Main.preprocessingStage(AutomatonCache.normalize(keywords));
+        write(automaton, Path.of(args[1]));
+        System.out.println("Automaton with " + automaton.getStateCount() + " states written to " + args[1]);
+    }
+
+    /**
+     * write stores the automaton in a file, replacing the file if it exists. The automaton is written into a
+     * temporary file in the same directory, which then is moved over the file atomically.
+     */
+    public static void write(Automaton automaton, Path file) throws IOException {
+        byte[][] keywords = new byte[automaton.getKeywordCount()][];
+        int keywordBytes = 0;
+        for (int k = 0; k < keywords.length; k++) {
+            keywords[k] = automaton.getKeyword(k).getBytes(StandardCharsets.UTF_8);
+            keywordBytes += Integer.BYTES + keywords[k].length;
+        }
+        int[] classes = automaton.getClasses();
+        ByteBuffer table = automaton.getTable().duplicate().clear();
+        int tableBytes = table.capacity();
+
+        Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.READ)) {
+                MappedByteBuffer tableRegion = channel.map(FileChannel.MapMode.READ_WRITE, TABLE_OFFSET, tableBytes);
+                tableRegion.put(table);
+                MappedByteBuffer rest = channel.map(FileChannel.MapMode.READ_WRITE, TABLE_OFFSET + (long) tableBytes,
+                        (long) Integer.BYTES * classes.length + keywordBytes);
+                rest.order(ByteOrder.LITTLE_ENDIAN);
+                rest.asIntBuffer().put(classes);
+                rest.position(Integer.BYTES * classes.length);
+                for (byte[] keyword : keywords) {
+                    rest.putInt(keyword.length).put(keyword);
+                }
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, TABLE_OFFSET);
+                header.order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(classes.length).putInt(automaton.getOtherClass())
+                        .putInt(automaton.getRowBytes()).putInt(automaton.getStateCount()).putInt(tableBytes)
+                        .putInt(keywords.length).putLong(0);
+                header.putLong(CHECKSUM_OFFSET, checksum(header, tableRegion, rest));
+                tableRegion.force();
+                rest.force();
+                header.force();
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * load maps the file and creates the automaton stored in it
+     *
+     * @throws IOException if the file is not an automaton file, has an unsupported version or is corrupted
+     */
+    public static Automaton load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < TABLE_OFFSET) {
+                throw new IOException(file + " is not an automaton file!");
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, TABLE_OFFSET);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC) {
+                throw new IOException(file + " is not an automaton file!");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Automaton file " + file + " has unsupported version " + version + "!");
+            }
+            int classCount = header.getInt();
+            int otherClass = header.getInt();
+            int rowBytes = header.getInt();
+            int stateCount = header.getInt();
+            int tableBytes = header.getInt();
+            int keywordCount = header.getInt();
+            long checksum = header.getLong(CHECKSUM_OFFSET);
+            long restBytes = channel.size() - TABLE_OFFSET - tableBytes;
+            if (tableBytes < 0 || restBytes < 0 || restBytes > Integer.MAX_VALUE
+                    || (long) stateCount * rowBytes > tableBytes) {
+                throw new IOException("Automaton file " + file + " is corrupted!");
+            }
+            MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, TABLE_OFFSET, tableBytes);
+            MappedByteBuffer rest = channel.map(FileChannel.MapMode.READ_ONLY, TABLE_OFFSET + (long) tableBytes, restBytes);
+            if (checksum != checksum(header, table, rest)) {
+                throw new IOException("Automaton file " + file + " is corrupted (checksum mismatch)!");
+            }
+
+            try {
+                rest.order(ByteOrder.LITTLE_ENDIAN);
+                int[] classes = new int[classCount];
+                rest.asIntBuffer().get(classes);
+                rest.position(Integer.BYTES * classCount);
+                String[] keywords = new String[keywordCount];
+                for (int k = 0; k < keywordCount; k++) {
+                    byte[] keyword = new byte[rest.getInt()];
+                    rest.get(keyword);
+                    keywords[k] = new String(keyword, StandardCharsets.UTF_8);
+                }
+                return new Automaton(keywords, classes, otherClass, table.order(ByteOrder.LITTLE_ENDIAN), rowBytes,
+                        stateCount);
+            } catch (RuntimeException e) {
+                throw new IOException("Automaton file " + file + " is corrupted!", e);
+            }
+        }
+    }
+
+    /**
+     * checksum
+     *
+     * @return CRC32 of the whole file (header, table and rest) with the checksum field read as 0, computed without
+     * changing the buffer positions
+     */
+    private static long checksum(ByteBuffer header, ByteBuffer table, ByteBuffer rest) {
+        CRC32 crc = new CRC32();
+        crc.update(header.duplicate().clear().limit(CHECKSUM_OFFSET));
+        crc.update(new byte[Long.BYTES]);
+        crc.update(header.duplicate().clear().position(HEADER_SIZE));
+        crc.update(table.duplicate().clear());
+        crc.update(rest.duplicate().clear());
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,180 @@
+package com.project.DiseaseDiagnosis;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Class BatchDiagnosis diagnoses many samples (DNA Sequences) of one batch with a single automaton, which is
+ * compiled once for the whole batch. Samples are read one after another from a SampleSource and staged in
+ * temporary files by the calling thread, while already staged samples are scanned on a shared, bounded pool of
+ * workers, so reading the next sample overlaps with scanning the previous ones.
+ * <p>
+ * At most maxInFlight samples of a batch are staged or scanned at the same time: when the limit is reached,
+ * the caller waits for the next result before it reads more input (back-pressure), so neither the disk nor
+ * the pool queue grows with the size of the batch. Results are passed to the consumer as soon as a sample
+ * is done, in completion order.
+ */
+public final class BatchDiagnosis {
+
+    static final int DEFAULT_WORKERS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * WORKERS is shared by all batches, so the number of scanning threads does not grow with the number of batches
+     */
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(DEFAULT_WORKERS, runnable -> {
+        Thread thread = new Thread(runnable, "batch-diagnosis");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Main main;
+    private final Automaton automaton;
+    private final int maxInFlight;
+
+    /**
+     * stagingDirectory holds the staged samples, null for the default temporary-file directory
+     */
+    private final File stagingDirectory;
+
+    public BatchDiagnosis(Main main, Automaton automaton) {
+        this(main, automaton, 2 * DEFAULT_WORKERS);
+    }
+
+    /**
+     * @param maxInFlight maximal number of samples of the batch that are staged but not yet reported
+     */
+    public BatchDiagnosis(Main main, Automaton automaton, int maxInFlight) {
+        this(main, automaton, maxInFlight, null);
+    }
+
+    BatchDiagnosis(Main main, Automaton automaton, int maxInFlight, File stagingDirectory) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Number of samples in flight must be positive!");
+        }
+        this.main = main;
+        this.automaton = automaton;
+        this.maxInFlight = maxInFlight;
+        this.stagingDirectory = stagingDirectory;
+    }
+
+    /**
+     * Interface SampleSource supplies the samples of a batch one by one
+     */
+    public interface SampleSource {
+
+        /**
+         * next
+         *
+         * @return the next sample, null if there are no samples left
+         */
+        Sample next() throws IOException;
+    }
+
+    /**
+     * Class Sample is one sample of a batch: its name and a stream with its DNA Sequence. The stream is read
+     * to its end, but not closed.
+     */
+    public static final class Sample {
+
+        private final String name;
+        private final InputStream inputStream;
+
+        public Sample(String name, InputStream inputStream) {
+            this.name = name;
+            this.inputStream = inputStream;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * run diagnoses all samples of the source and passes the result of every sample to the consumer on the
+     * calling thread. A sample that cannot be diagnosed (e.g. an empty file) is reported with an error
+     * and does not stop the batch.
+     *
+     * @return number of samples diagnosed
+     */
+    public int run(SampleSource samples, Consumer<SampleResult> consumer) throws IOException, InterruptedException {
+        CompletionService<SampleResult> completionService = new ExecutorCompletionService<>(WORKERS);
+        int inFlight = 0, total = 0;
+        try {
+            Sample sample;
+            while ((sample = samples.next()) != null) {
+                while (inFlight >= maxInFlight) {
+                    consumer.accept(getResult(completionService.take()));
+                    inFlight--;
+                }
+                Future<SampleResult> done;
+                while ((done = completionService.poll()) != null) {
+                    consumer.accept(getResult(done));
+                    inFlight--;
+                }
+                File staged = stage(sample);
+                String name = sample.getName();
+                completionService.submit(() -> diagnose(name, staged));
+                inFlight++;
+                total++;
+            }
+            while (inFlight > 0) {
+                consumer.accept(getResult(completionService.take()));
+                inFlight--;
+            }
+        } finally {
+            /* on failure the remaining samples are still scanned and delete their files, results are dropped */
+            for (; inFlight > 0; inFlight--) {
+                completionService.take();
+            }
+        }
+        return total;
+    }
+
+    private File stage(Sample sample) throws IOException {
+        File staged = File.createTempFile("sample", ".txt", stagingDirectory);
+        long startTime = System.nanoTime();
+        try {
+            Files.copy(sample.inputStream, staged.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(staged.toPath());
+            throw e;
+        }
+        main.getMetrics().record(DiagnosisMetrics.FILE_STAGING, startTime);
+        return staged;
+    }
+
+    private SampleResult diagnose(String name, File staged) throws IOException {
+        try {
+            return new SampleResult(name, main.diagnose(staged, automaton), null);
+        } catch (IOException | RuntimeException e) {
+            return new SampleResult(name, null, e.getMessage());
+        } finally {
+            Files.deleteIfExists(staged.toPath());
+        }
+    }
+
+    private static SampleResult getResult(Future<SampleResult> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
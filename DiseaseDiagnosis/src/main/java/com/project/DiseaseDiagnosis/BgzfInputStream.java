@@ -0,0 +1,200 @@
+package com.project.DiseaseDiagnosis;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Class BgzfInputStream decompresses a BGZF file (blocked gzip, as written by bgzip and samtools) with several
+ * threads. BGZF is a series of independent gzip members of at most 64 KB, and the size of every block is stored
+ * in its header, so blocks are read one after another from the compressed stream and inflated in parallel on
+ * the pool. At most readAhead blocks are in flight, and the bytes are returned in the original order.
+ */
+public final class BgzfInputStream extends InputStream {
+
+    static final int HEADER_SIZE = 18;          // gzip header with the 6 byte BC extra field
+    static final int TRAILER_SIZE = 8;          // CRC32 and ISIZE
+    static final int MAX_BLOCK_SIZE = 1 << 16;
+
+    private final DataInputStream input;
+    private final ExecutorService pool;
+    private final int readAhead;
+    private final Queue<Future<byte[]>> blocks = new ArrayDeque<>();
+    private boolean endOfInput;
+
+    private byte[] block = new byte[0];
+    private int blockPosition;
+
+    /**
+     * @param readAhead maximal number of blocks read and inflated ahead of the reader
+     */
+    public BgzfInputStream(InputStream input, ExecutorService pool, int readAhead) {
+        this.input = new DataInputStream(input);
+        this.pool = pool;
+        this.readAhead = readAhead;
+    }
+
+    /**
+     * isBgzf
+     *
+     * @return true if header (at least HEADER_SIZE bytes) is the header of a BGZF block
+     */
+    static boolean isBgzf(byte[] header, int length) {
+        return length >= HEADER_SIZE && (header[0] & 0xFF) == 0x1f && (header[1] & 0xFF) == 0x8b
+                && header[2] == 8 && (header[3] & 4) != 0 && header[12] == 'B' && header[13] == 'C';
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (blockPosition == block.length) {
+            if (!nextBlock()) {
+                return -1;
+            }
+        }
+        int length = Math.min(len, block.length - blockPosition);
+        System.arraycopy(block, blockPosition, buffer, off, length);
+        blockPosition += length;
+        return length;
+    }
+
+    /**
+     * nextBlock tops up the blocks in flight and waits for the next one
+     *
+     * @return false at the end of the stream
+     */
+    private boolean nextBlock() throws IOException {
+        while (!endOfInput && blocks.size() < readAhead) {
+            byte[] compressed = readBlock();
+            if (compressed == null) {
+                endOfInput = true;
+            } else {
+                blocks.add(pool.submit((Callable<byte[]>) () -> inflate(compressed)));
+            }
+        }
+        Future<byte[]> next = blocks.poll();
+        if (next == null) {
+            return false;
+        }
+        try {
+            block = next.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Decompression was interrupted!");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            // ForkJoinPool wraps checked exceptions of a Callable in a RuntimeException
+            if (cause instanceof RuntimeException && cause.getCause() instanceof IOException) {
+                cause = cause.getCause();
+            }
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+        blockPosition = 0;
+        return true;
+    }
+
+    /**
+     * readBlock
+     *
+     * @return the whole next block (header, deflate data and trailer), null at the end of the stream
+     */
+    private byte[] readBlock() throws IOException {
+        int first = input.read();
+        if (first == -1) {
+            return null;
+        }
+        byte[] header = new byte[HEADER_SIZE];
+        header[0] = (byte) first;
+        input.readFully(header, 1, HEADER_SIZE - 1);
+        if (!isBgzf(header, HEADER_SIZE)) {
+            throw new ZipException("Not a BGZF block!");
+        }
+        int blockSize = ((header[16] & 0xFF) | (header[17] & 0xFF) << 8) + 1;
+        if (blockSize < HEADER_SIZE + TRAILER_SIZE) {
+            throw new ZipException("Invalid BGZF block size " + blockSize + "!");
+        }
+        byte[] compressed = new byte[blockSize];
+        System.arraycopy(header, 0, compressed, 0, HEADER_SIZE);
+        try {
+            input.readFully(compressed, HEADER_SIZE, blockSize - HEADER_SIZE);
+        } catch (EOFException e) {
+            throw new ZipException("Truncated BGZF block!");
+        }
+        return compressed;
+    }
+
+    /**
+     * inflate decompresses one block and checks its CRC32 and size
+     */
+    static byte[] inflate(byte[] compressed) throws IOException {
+        int trailer = compressed.length - TRAILER_SIZE;
+        long crc = littleEndianInt(compressed, trailer) & 0xFFFFFFFFL;
+        int size = littleEndianInt(compressed, trailer + 4);
+        if (size < 0 || size > MAX_BLOCK_SIZE) {
+            throw new ZipException("Invalid BGZF block data size " + size + "!");
+        }
+        byte[] data = new byte[size];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed, HEADER_SIZE, trailer - HEADER_SIZE);
+            int inflated = 0;
+            while (inflated < size && !inflater.finished()) {
+                int length = inflater.inflate(data, inflated, size - inflated);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += length;
+            }
+            if (inflated != size) {
+                throw new ZipException("Corrupted BGZF block: size mismatch!");
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException("Corrupted BGZF block: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(data, 0, size);
+        if (checksum.getValue() != crc) {
+            throw new ZipException("Corrupted BGZF block: checksum mismatch!");
+        }
+        return data;
+    }
+
+    private static int littleEndianInt(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8 | (data[offset + 2] & 0xFF) << 16
+                | (data[offset + 3] & 0xFF) << 24;
+    }
+
+    /**
+     * close cancels the blocks in flight and closes the compressed stream
+     */
+    @Override
+    public void close() throws IOException {
+        for (Future<byte[]> pending : blocks) {
+            pending.cancel(true);
+        }
+        blocks.clear();
+        input.close();
+    }
+}
@@ -0,0 +1,30 @@
+package com.project.DiseaseDiagnosis;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Enum Classification is the Disease Diagnosis result for one disease: the range of NucleotideRepeatDiseaseRanges
+ * into which the number of repeats falls
+ */
+public enum Classification {
+
+    NORMAL_RANGE("NormalRange"),
+    PRE_MUTATED_RANGE("Pre-mutedRange"),
+    DISEASE_AFFECTED("DiseaseAffected");
+
+    private final String label;
+
+    Classification(String label) {
+        this.label = label;
+    }
+
+    /**
+     * getLabel
+     *
+     * @return name of the range, as written in reports and JSON
+     */
+    @JsonValue
+    public String getLabel() {
+        return label;
+    }
+}
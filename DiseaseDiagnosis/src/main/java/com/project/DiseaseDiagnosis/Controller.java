@@ -1,30 +1,641 @@
 package com.project.DiseaseDiagnosis;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletResponse;
 import java.io.*;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
 
 @CrossOrigin(maxAge = 3600)
 @RestController
 public class Controller {
 private static final Logger logger = LoggerFactory.getLogger(Controller.class);
 
+    private static final String NDJSON = "application/x-ndjson";
+
+    /**
+     * automatonCache is shared by all requests, so repeated requests with the same keywords skip DFA construction
+     */
+    private final AutomatonCache automatonCache = new AutomatonCache();
+
+    /**
+     * metrics records the stages of every request; every Main, scanner and job of the controller records into it
+     */
+    private final DiagnosisMetrics metrics = DiagnosisMetrics.GLOBAL;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * dictionaries publishes the default keywords and the disease ranges, reloaded when their files change
+     */
+    private final DictionaryRegistry dictionaries;
+
+    /**
+     * scanJobs runs the diagnoses submitted to /jobs in the background
+     */
+    private final ScanJobs scanJobs;
+
+    /**
+     * resultCache stores the reports of /upload by content, so a sample uploaded again is not scanned again
+     */
+    private final ResultCache resultCache;
+
+    /**
+     * sequenceIndexes stores the indexes of samples uploaded to /indexes, so new keyword panels are matched
+     * against a sample without scanning it again
+     */
+    private final SequenceIndexes sequenceIndexes;
+
+    /**
+     * panelBatcher merges the keyword panels of concurrent /diagnosis/panels requests for the same sample into one scan
+     */
+    private final PanelBatcher panelBatcher;
+
+    /**
+     * The automaton precompiled by the build (see AutomatonFile) is loaded into the cache at startup, so the
+     * default keywords are served without constructing the automaton. The dictionaries are loaded once here from the
+     * classpath or, if dictionary.keywords or dictionary.ranges is set, from that file and, unless dictionary.watch
+     * is false, reloaded in the background whenever their files change. The reports of
+     * /upload are cached in memory and, if results.cache.directory is set, on disk. Keyword panels of concurrent
+     * requests for the same sample are merged for panels.batch-window-ms.
+     */
+    public Controller(@Value("${automaton.precompiled:}") String precompiledAutomaton,
+                      @Value("${dictionary.keywords:}") String keywordsFile,
+                      @Value("${dictionary.ranges:}") String rangesFile,
+                      @Value("${dictionary.watch:true}") boolean watchDictionaries,
+                      @Value("${results.cache.capacity:256}") int resultCacheCapacity,
+                      @Value("${results.cache.directory:}") String resultCacheDirectory,
+                      @Value("${results.cache.disk-bytes:1073741824}") long resultCacheDiskBytes,
+                      @Value("${index.directory:target/indexes}") String indexDirectory,
+                      @Value("${index.max-bases:0}") long indexMaxBases,
+                      @Value("${panels.batch-window-ms:20}") long panelWindowMillis,
+                      ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        metrics.bindCache(automatonCache);
+        metrics.bindPool(ParallelScanner.POOL);
+        if (!precompiledAutomaton.isEmpty() && Files.isRegularFile(Path.of(precompiledAutomaton))) {
+            Automaton automaton = AutomatonFile.load(Path.of(precompiledAutomaton));
+            automatonCache.put(automaton);
+            logger.info(String.format("Precompiled automaton with %d states loaded from '%s'.",
+                    automaton.getStateCount(), precompiledAutomaton));
+        }
+        dictionaries = new DictionaryRegistry(keywordsFile.isEmpty() ? null : Path.of(keywordsFile),
+                rangesFile.isEmpty() ? null : Path.of(rangesFile), automatonCache);
+        Dictionary dictionary = dictionaries.load();
+        logger.info(String.format("Dictionary version %d loaded from '%s' and '%s'.", dictionary.getVersion(),
+                keywordsFile.isEmpty() ? "classpath:" + DictionaryRegistry.DEFAULT_KEYWORDS : keywordsFile,
+                rangesFile.isEmpty() ? "classpath:" + DictionaryRegistry.DEFAULT_RANGES : rangesFile));
+        if (watchDictionaries) {
+            dictionaries.watch();
+        }
+        metrics.bindDictionaries(dictionaries);
+        scanJobs = new ScanJobs(automatonCache, dictionaries, metrics);
+        resultCache = new ResultCache(resultCacheCapacity,
+                resultCacheDirectory.isEmpty() ? null : Path.of(resultCacheDirectory), resultCacheDiskBytes);
+        metrics.bindResultCache(resultCache);
+        sequenceIndexes = new SequenceIndexes(Path.of(indexDirectory), SequenceIndexes.DEFAULT_CAPACITY,
+                indexMaxBases > 0 ? indexMaxBases : SequenceIndexes.defaultMaxBases());
+        panelBatcher = new PanelBatcher(automatonCache, panelWindowMillis);
+        metrics.bindPanelBatcher(panelBatcher);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        try {
+            scanJobs.close();
+        } finally {
+            dictionaries.close();
+        }
+    }
+
+    /**
+     * uploadFile returns the diagnosis report of the uploaded DNA Sequence as text. The engine is chosen by the
+     * planner (see EnginePlanner) unless one is requested; engine=compare runs and reports all engines.
+     * The upload is hashed while it is staged: if the same content was already diagnosed with the same keywords,
+     * disease ranges, the cached diagnosis (see ResultCache) is returned without scanning, whichever engine found
+     * it, except for compare. Only the diagnosis part of the report is cached, not the times, memory or the engine's reason.
+     */
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public String uploadFile(@RequestParam MultipartFile file) throws IOException, InterruptedException {
+    public String uploadFile(@RequestParam MultipartFile file,
+                             @RequestParam(required = false) Integer blockSize,
+                             @RequestParam(required = false) Integer parallelism,
+                             @RequestParam(required = false) String keywords,
+                             @RequestParam(defaultValue = "false") boolean bothStrands,
+                             @RequestParam(defaultValue = EnginePlanner.AUTO) String engine) throws IOException, InterruptedException {
+        EnginePlanner.checkEngine(engine);
         logger.info(String.format("File name '%s' uploaded successfully.", file.getOriginalFilename()));
-        InputStream initialStream = file.getInputStream();
-        byte[] buffer = new byte[initialStream.available()];
-        initialStream.read(buffer);
-        Main main = new Main();
-        File targetFile = new File("src/main/resources/static/dna.txt");
-        try (OutputStream outStream = new FileOutputStream(targetFile)) {
-            outStream.write(buffer);
-        }
-        String data = main.mainFunc(targetFile);
-        return data;
+        Main main = main();
+        MessageDigest content = ResultCache.newDigest();
+        File targetFile = stage(file, content);
+        try {
+            String[] keywordSet = loadKeywords(keywords, bothStrands);
+            if (engine.equals(EnginePlanner.COMPARE)) {
+                return main.mainFunc(targetFile, keywordSet, parallelScanner(blockSize, parallelism), engine);
+            }
+            long startTime = System.nanoTime();
+            String rangesFingerprint = dictionaries.current().getRanges().getFingerprint();
+            String key = ResultCache.key(content, AutomatonCache.fingerprint(AutomatonCache.normalize(keywordSet)),
+                    rangesFingerprint);
+            String cached = resultCache.get(key);
+            long nanoTime = metrics.record(DiagnosisMetrics.RESULT_CACHE_LOOKUP, startTime);
+            if (cached != null) {
+                return cached + "Result taken from cache in " + nanoTime / 1000000.0 + " ms." + "\n";
+            }
+            AtomicReference<String> diagnosis = new AtomicReference<>();
+            String data = main.mainFunc(targetFile, keywordSet, parallelScanner(blockSize, parallelism), engine, diagnosis::set);
+            /* a diagnosis with ranges reloaded during the scan is not cached under the old key */
+            if (rangesFingerprint.equals(dictionaries.current().getRanges().getFingerprint())) {
+                resultCache.put(key, diagnosis.get());
+            }
+            return data;
+        } finally {
+            delete(targetFile);
+        }
+    }
+
+    /**
+     * diagnosis returns the typed diagnosis result (see DiagnosisResult) of the uploaded DNA Sequence as JSON.
+     * FASTA, FASTQ and gzip or BGZF compressed uploads are diagnosed record by record. With mismatches > 0,
+     * keywords are also found with that many substituted bases (see MismatchMatcher). Exact matches are found with
+     * one engine, chosen by the planner (see EnginePlanner) unless engine is sequential, parallel or vector; the
+     * result reports the engine and the reason for it. engine=compare runs all engines, for diagnostics.
+     */
+    @PostMapping(value = "/diagnosis", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public DiagnosisResult diagnosis(@RequestParam MultipartFile file,
+                                     @RequestParam(required = false) Integer blockSize,
+                                     @RequestParam(required = false) Integer parallelism,
+                                     @RequestParam(required = false) String keywords,
+                                     @RequestParam(defaultValue = "false") boolean bothStrands,
+                                     @RequestParam(defaultValue = "0") int mismatches,
+                                     @RequestParam(defaultValue = EnginePlanner.AUTO) String engine) throws IOException, InterruptedException {
+        EnginePlanner.checkEngine(engine);
+        logger.info(String.format("File name '%s' uploaded for diagnosis.", file.getOriginalFilename()));
+        File targetFile = stage(file);
+        try {
+            Main main = main();
+            String[] keywordSet = loadKeywords(keywords, bothStrands);
+            return main.diagnose(targetFile, keywordSet, parallelScanner(blockSize, parallelism), mismatches, engine);
+        } finally {
+            delete(targetFile);
+        }
+    }
+
+    /**
+     * diagnosisPanels returns the typed diagnosis result of the uploaded DNA Sequence for every keyword panel of the
+     * request, by panel name. Panels are separated by ';', and a panel is its name, ':' and its keywords, e.g.
+     * tenantA:CAG,CTG;tenantB:GCN (without a name, a panel is named by its number). The sequence is scanned once for
+     * all panels, together with the panels of concurrent requests for the same content (see PanelBatcher).
+     */
+    @PostMapping(value = "/diagnosis/panels", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Map<String, DiagnosisResult> diagnosisPanels(@RequestParam MultipartFile file,
+                                                        @RequestParam String panels,
+                                                        @RequestParam(required = false) Integer blockSize,
+                                                        @RequestParam(required = false) Integer parallelism,
+                                                        @RequestParam(defaultValue = "false") boolean bothStrands) throws IOException, InterruptedException {
+        logger.info(String.format("File name '%s' uploaded for diagnosis of keyword panels.", file.getOriginalFilename()));
+        Map<String, String[]> panelKeywords = loadPanels(panels, bothStrands);
+        MessageDigest content = ResultCache.newDigest();
+        File targetFile = stage(file, content);
+        try {
+            Main main = main();
+            ParallelScanner parallelScanner = parallelScanner(blockSize, parallelism);
+            long startTime = System.nanoTime();
+            List<DiagnosisResult> results = panelBatcher.diagnose(HexFormat.of().formatHex(content.digest()), targetFile,
+                    List.copyOf(panelKeywords.values()),
+                    (dnaSequence, panelSet) -> main.diagnose(dnaSequence, panelSet, parallelScanner));
+            metrics.record(DiagnosisMetrics.PANEL_DIAGNOSIS, startTime);
+            Map<String, DiagnosisResult> panelResults = new LinkedHashMap<>();
+            Iterator<DiagnosisResult> result = results.iterator();
+            for (String name : panelKeywords.keySet()) {
+                panelResults.put(name, result.next());
+            }
+            return panelResults;
+        } finally {
+            delete(targetFile);
+        }
+    }
+
+    /**
+     * diagnosisPositions streams the position of every keyword occurrence in the uploaded DNA Sequence as NDJSON,
+     * one occurrence per line, while the sequence is scanned. Occurrences in FASTA, FASTQ and gzip or BGZF
+     * compressed uploads are reported per record. The staged upload is deleted when the stream ends.
+     */
+    @PostMapping(value = "/diagnosis/positions", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = NDJSON)
+    public StreamingResponseBody diagnosisPositions(@RequestParam MultipartFile file,
+                                                    @RequestParam(required = false) String keywords,
+                                                    @RequestParam(defaultValue = "false") boolean bothStrands) throws IOException {
+        logger.info(String.format("File name '%s' uploaded for match positions.", file.getOriginalFilename()));
+        File targetFile = stage(file);
+        try {
+            String[] keywordSet = loadKeywords(keywords, bothStrands);
+            /* invalid keywords are reported before the response is committed */
+            automatonCache.get(keywordSet);
+            Main main = main();
+            return outputStream -> {
+                try {
+                    main.writePositions(targetFile, keywordSet, outputStream);
+                } finally {
+                    delete(targetFile);
+                }
+            };
+        } catch (RuntimeException e) {
+            delete(targetFile);
+            throw e;
+        }
+    }
+
+    /**
+     * diagnosisBatch diagnoses all uploaded files with one automaton (see BatchDiagnosis) and streams the result of
+     * every sample as one line of NDJSON as soon as the sample is done
+     */
+    @PostMapping(value = "/diagnosis/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = NDJSON)
+    public void diagnosisBatch(@RequestParam List<MultipartFile> files,
+                               @RequestParam(required = false) String keywords,
+                               @RequestParam(defaultValue = "false") boolean bothStrands,
+                               HttpServletResponse response) throws IOException, InterruptedException {
+        logger.info(String.format("Batch of %d files uploaded for diagnosis.", files.size()));
+        Iterator<MultipartFile> remaining = files.iterator();
+        runBatch(keywords, bothStrands, () -> {
+            if (!remaining.hasNext()) {
+                return null;
+            }
+            MultipartFile file = remaining.next();
+            return new BatchDiagnosis.Sample(file.getOriginalFilename(), file.getInputStream());
+        }, response);
+    }
+
+    /**
+     * diagnosisBatchZip is the same as diagnosisBatch for a zip archive sent as the request body; every file in the
+     * archive is a sample. The archive is read while it is received, entry by entry.
+     */
+    @PostMapping(value = "/diagnosis/batch", consumes = "application/zip", produces = NDJSON)
+    public void diagnosisBatchZip(InputStream body,
+                                  @RequestParam(required = false) String keywords,
+                                  @RequestParam(defaultValue = "false") boolean bothStrands,
+                                  HttpServletResponse response) throws IOException, InterruptedException {
+        logger.info("Zip batch upload for diagnosis started.");
+        ZipInputStream zipInputStream = new ZipInputStream(body);
+        runBatch(keywords, bothStrands, () -> {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                if (!entry.isDirectory()) {
+                    return new BatchDiagnosis.Sample(entry.getName(), zipInputStream);
+                }
+            }
+            return null;
+        }, response);
+    }
+
+    private void runBatch(String keywords, boolean bothStrands, BatchDiagnosis.SampleSource samples,
+                          HttpServletResponse response) throws IOException, InterruptedException {
+        /* the automaton is compiled once for the batch, and invalid keywords are reported before the response starts */
+        Automaton automaton = automatonCache.get(loadKeywords(keywords, bothStrands));
+        BatchDiagnosis batchDiagnosis = new BatchDiagnosis(main(), automaton);
+        response.setContentType(NDJSON);
+        OutputStream outputStream = response.getOutputStream();
+        ObjectWriter objectWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        int total = batchDiagnosis.run(samples, sampleResult -> {
+            try {
+                objectWriter.writeValue(outputStream, sampleResult);
+                outputStream.write('\n');
+                outputStream.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        logger.info(String.format("Batch of %d samples diagnosed.", total));
+    }
+
+    /**
+     * submitJob stages the upload and starts its diagnosis as a background job (see ScanJobs). The response is
+     * sent right away: 202 with the job status and its location, which is polled for progress.
+     */
+    @PostMapping(value = "/jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ScanJob> submitJob(@RequestParam MultipartFile file,
+                                             @RequestParam(required = false) String keywords,
+                                             @RequestParam(defaultValue = "false") boolean bothStrands,
+                                             @RequestParam(defaultValue = "0") int mismatches) throws IOException {
+        logger.info(String.format("File name '%s' uploaded for a diagnosis job.", file.getOriginalFilename()));
+        String[] keywordSet = loadKeywords(keywords, bothStrands);
+        if (mismatches < 0 || mismatches > MismatchMatcher.MAX_MISMATCHES) {
+            throw new IllegalArgumentException("Number of mismatches must be between 0 and " + MismatchMatcher.MAX_MISMATCHES + "!");
+        }
+        ScanJob job = scanJobs.submit(stage(file), keywordSet, mismatches);
+        return ResponseEntity.accepted().location(URI.create("/jobs/" + job.getId())).body(job);
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ScanJob jobStatus(@PathVariable String id) {
+        return findJob(id);
+    }
+
+    /**
+     * jobResult returns the diagnosis result of a job; 409 if the job is not DONE (yet)
+     */
+    @GetMapping("/jobs/{id}/result")
+    public DiagnosisResult jobResult(@PathVariable String id) {
+        ScanJob job = findJob(id);
+        DiagnosisResult result = job.getResult();
+        if (result == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Job " + id + " is " + job.getState() + "!");
+        }
+        return result;
+    }
+
+    /**
+     * cancelJob cancels a queued or running job, or removes a finished job with its result
+     */
+    @DeleteMapping("/jobs/{id}")
+    public ScanJob cancelJob(@PathVariable String id) {
+        ScanJob job = scanJobs.cancel(id);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Job " + id + " does not exist!");
+        }
+        return job;
+    }
+
+    private ScanJob findJob(String id) {
+        ScanJob job = scanJobs.get(id);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Job " + id + " does not exist!");
+        }
+        return job;
+    }
+
+    /**
+     * buildIndex builds the index of the uploaded raw DNA Sequence (see SequenceIndex) and stores it under the id of
+     * the sample, the hex SHA-256 hash of its content, which is computed while the upload is staged. A sample
+     * that is indexed already is not indexed again. Samples longer than index.max-bases (by default as many
+     * bases as a quarter of the heap can index) are rejected.
+     */
+    @PostMapping(value = "/indexes", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Map<String, Object>> buildIndex(@RequestParam MultipartFile file) throws IOException {
+        logger.info(String.format("File name '%s' uploaded for indexing.", file.getOriginalFilename()));
+        MessageDigest content = ResultCache.newDigest();
+        File targetFile = stage(file, content);
+        try {
+            String id = HexFormat.of().formatHex(content.digest());
+            long startTime = System.nanoTime();
+            SequenceIndex index = sequenceIndexes.build(id, targetFile);
+            metrics.record(DiagnosisMetrics.INDEX_BUILD, startTime);
+            return ResponseEntity.created(URI.create("/indexes/" + id)).body(indexStatistics(id, index));
+        } finally {
+            delete(targetFile);
+        }
+    }
+
+    @GetMapping("/indexes/{id}")
+    public Map<String, Object> indexStatus(@PathVariable String id) throws IOException {
+        return indexStatistics(id, findIndex(id));
+    }
+
+    /**
+     * indexDiagnosis returns the typed diagnosis result of an indexed sample for the keywords, like /diagnosis
+     * returns it for an upload, without scanning the sample
+     */
+    @GetMapping(value = "/indexes/{id}/diagnosis", produces = MediaType.APPLICATION_JSON_VALUE)
+    public DiagnosisResult indexDiagnosis(@PathVariable String id,
+                                          @RequestParam(required = false) String keywords,
+                                          @RequestParam(defaultValue = "false") boolean bothStrands) throws IOException {
+        SequenceIndex index = findIndex(id);
+        String[] keywordSet = loadKeywords(keywords, bothStrands);
+        boolean cached = automatonCache.contains(keywordSet);
+        String automatonStage = cached ? DiagnosisMetrics.DFA_CACHE_LOOKUP : DiagnosisMetrics.DFA_BUILD;
+        long startTime = System.nanoTime();
+        Automaton automaton = automatonCache.get(keywordSet);
+        long nanoTime = metrics.record(automatonStage, startTime);
+        return main().diagnose(index, automaton).addTiming(automatonStage, nanoTime);
+    }
+
+    /**
+     * indexPositions streams the position of every occurrence of the keywords in an indexed sample as NDJSON, like
+     * /diagnosis/positions, keyword by keyword
+     */
+    @GetMapping(value = "/indexes/{id}/positions", produces = NDJSON)
+    public StreamingResponseBody indexPositions(@PathVariable String id,
+                                                @RequestParam(required = false) String keywords,
+                                                @RequestParam(defaultValue = "false") boolean bothStrands) throws IOException {
+        SequenceIndex index = findIndex(id);
+        String[] keywordSet = loadKeywords(keywords, bothStrands);
+        /* invalid keywords are reported before the response is committed */
+        automatonCache.get(keywordSet);
+        Main main = main();
+        return outputStream -> main.writePositions(index, keywordSet, outputStream);
+    }
+
+    private SequenceIndex findIndex(String id) throws IOException {
+        SequenceIndex index = sequenceIndexes.get(id);
+        if (index == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Index " + id + " does not exist!");
+        }
+        return index;
+    }
+
+    private Map<String, Object> indexStatistics(String id, SequenceIndex index) throws IOException {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("id", id);
+        statistics.put("length", index.getLength());
+        statistics.put("indexBytes", index.getIndexBytes());
+        statistics.put("fileBytes", sequenceIndexes.getFileBytes(id));
+        return statistics;
+    }
+
+    /**
+     * stage copies the upload into a temporary file. Every request stages its upload in its own file, so
+     * concurrent uploads never overwrite each other; the caller deletes the file when it is done.
+     */
+    private File stage(MultipartFile file) throws IOException {
+        return stage(file, null);
+    }
+
+    /**
+     * Same as stage(file), with every staged byte added to content (null for none) in the same pass
+     */
+    private File stage(MultipartFile file, MessageDigest content) throws IOException {
+        File targetFile = File.createTempFile("dna", ".txt");
+        long startTime = System.nanoTime();
+        try (InputStream inputStream = content != null ? new DigestInputStream(file.getInputStream(), content)
+                : file.getInputStream()) {
+            Files.copy(inputStream, targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            delete(targetFile);
+            throw e;
+        }
+        metrics.record(DiagnosisMetrics.FILE_STAGING, startTime);
+        return targetFile;
+    }
+
+    private static void delete(File targetFile) {
+        if (!targetFile.delete()) {
+            logger.warn(String.format("Could not delete staged upload '%s'.", targetFile));
+        }
+    }
+
+    private ParallelScanner parallelScanner(Integer blockSize, Integer parallelism) {
+        return new ParallelScanner(
+                blockSize != null ? blockSize : ParallelScanner.DEFAULT_BLOCK_SIZE,
+                parallelism != null ? parallelism : Runtime.getRuntime().availableProcessors(), metrics);
+    }
+
+    /**
+     * main
+     *
+     * @return Main of a request, recording into the metrics of the controller
+     */
+    private Main main() {
+        return new Main(automatonCache, dictionaries, metrics, EnginePlanner.GLOBAL);
+    }
+
+    /**
+     * uploadStream scans the DNA Sequence sent as the raw request body (e.g. curl --data-binary @dna.txt) while it
+     * is received, without staging it on disk or in memory. Multipart bodies are parsed and spooled by the servlet
+     * container before a handler runs, so this endpoint takes the sequence itself as the body. FASTA, FASTQ and
+     * gzip or BGZF compressed bodies are decompressed and split into records while they are received.
+     */
+    @PostMapping(value = "/upload/stream", consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, MediaType.TEXT_PLAIN_VALUE})
+    public String uploadStream(InputStream body,
+                               @RequestParam(required = false) String keywords,
+                               @RequestParam(defaultValue = "false") boolean bothStrands) throws IOException {
+        logger.info("Streaming DNA Sequence upload started.");
+        String[] keywordSet = loadKeywords(keywords, bothStrands);
+        return main().streamFunc(body, keywordSet);
+    }
+
+    /**
+     * loadKeywords
+     *
+     * @param bothStrands also match every keyword on the reverse strand (see Nucleotides.withReverseStrand)
+     * @return keywords sent with the request, or the default keywords of the current dictionary if the request has none
+     */
+    private String[] loadKeywords(String keywords, boolean bothStrands) {
+        long startTime = System.nanoTime();
+        String[] keywordSet = keywords != null ? keywords.split(",") : dictionaries.current().getKeywords();
+        if (bothStrands) {
+            keywordSet = Nucleotides.withReverseStrand(keywordSet);
+        }
+        metrics.record(DiagnosisMetrics.KEYWORD_LOAD, startTime);
+        return keywordSet;
+    }
+
+    /**
+     * loadPanels
+     *
+     * @param bothStrands also match every keyword on the reverse strand (see Nucleotides.withReverseStrand)
+     * @return keywords of every panel sent with the request, by panel name
+     */
+    private static Map<String, String[]> loadPanels(String panels, boolean bothStrands) {
+        Map<String, String[]> panelKeywords = new LinkedHashMap<>();
+        String[] panelList = panels.split(";");
+        for (int p = 0; p < panelList.length; p++) {
+            if (panelList[p].isBlank()) {
+                continue;
+            }
+            int separator = panelList[p].indexOf(':');
+            String name = separator >= 0 ? panelList[p].substring(0, separator).trim() : String.valueOf(p + 1);
+            String[] keywordSet = panelList[p].substring(separator + 1).split(",");
+            if (bothStrands) {
+                keywordSet = Nucleotides.withReverseStrand(keywordSet);
+            }
+            if (panelKeywords.put(name, keywordSet) != null) {
+                throw new IllegalArgumentException("Keyword panel " + name + " is sent twice!");
+            }
+        }
+        return panelKeywords;
+    }
+
+    /**
+     * Invalid keywords (e.g. a symbol that is not an IUPAC nucleotide code) or scan options are a client error
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String invalidRequest(IllegalArgumentException e) {
+        return e.getMessage();
+    }
+
+    /**
+     * A corrupted gzip or BGZF upload is a client error as well
+     */
+    @ExceptionHandler(ZipException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String corruptedInput(ZipException e) {
+        return e.getMessage();
+    }
+
+    @GetMapping("/cache/automata")
+    public Map<String, Object> automatonCacheStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("size", automatonCache.size());
+        statistics.put("capacity", automatonCache.getCapacity());
+        statistics.put("hits", automatonCache.getHits());
+        statistics.put("misses", automatonCache.getMisses());
+        statistics.put("evictions", automatonCache.getEvictions());
+        return statistics;
+    }
+
+    @GetMapping("/cache/results")
+    public Map<String, Object> resultCacheStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("size", resultCache.size());
+        statistics.put("capacity", resultCache.getCapacity());
+        statistics.put("diskSize", resultCache.getDiskSize());
+        statistics.put("diskBytes", resultCache.getDiskBytes());
+        statistics.put("maxDiskBytes", resultCache.getMaxDiskBytes());
+        statistics.put("hits", resultCache.getHits());
+        statistics.put("diskHits", resultCache.getDiskHits());
+        statistics.put("misses", resultCache.getMisses());
+        statistics.put("evictions", resultCache.getEvictions());
+        statistics.put("diskEvictions", resultCache.getDiskEvictions());
+        statistics.put("diskFailures", resultCache.getDiskFailures());
+        return statistics;
+    }
+
+    @GetMapping("/panels")
+    public Map<String, Object> panelStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("windowMillis", panelBatcher.getWindowMillis());
+        statistics.put("requests", panelBatcher.getRequests());
+        statistics.put("panels", panelBatcher.getPanels());
+        statistics.put("scans", panelBatcher.getScans());
+        return statistics;
+    }
+
+    @GetMapping("/dictionaries")
+    public Map<String, Object> dictionaryStatistics() {
+        Dictionary dictionary = dictionaries.current();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("version", dictionary.getVersion());
+        statistics.put("loadedAt", dictionary.getLoadedAt().toString());
+        statistics.put("keywords", dictionary.getAutomaton().getKeywordCount());
+        statistics.put("diseases", dictionary.getRanges().getDiseaseCount());
+        statistics.put("reloads", dictionaries.getReloads());
+        statistics.put("failures", dictionaries.getFailures());
+        return statistics;
     }
 }
@@ -0,0 +1,200 @@
+package com.project.DiseaseDiagnosis;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class DiagnosisMetrics records the metrics of the diagnosis pipeline in a Micrometer registry:
+ * <ul>
+ * <li>diagnosis.stage - timer per stage (tag stage, see the stage constants)</li>
+ * <li>diagnosis.bytes.scanned, diagnosis.matches - counters per engine (tag engine)</li>
+ * <li>diagnosis.matches.rate - matches per second of every scan, per engine</li>
+ * <li>diagnosis.pool.* - saturation of the scanning thread pool</li>
+ * <li>diagnosis.automaton.* - number and size (states, transitions) of the cached automata</li>
+ * <li>diagnosis.dictionary.* - version, reloads and failed reloads of the dictionaries</li>
+ * <li>diagnosis.results.* - size and lookups of the result cache (memory and disk tier)</li>
+ * <li>diagnosis.panels.* - requests, panels and shared scans of merged keyword panels</li>
+ * </ul>
+ * GLOBAL records into Metrics.globalRegistry, to which Spring Boot adds its registries (e.g. Prometheus),
+ * so the metrics are recorded by code that is not a Spring bean as well.
+ */
+public final class DiagnosisMetrics {
+
+    public static final DiagnosisMetrics GLOBAL = new DiagnosisMetrics(Metrics.globalRegistry);
+
+    /* stages of the diagnosis pipeline */
+    public static final String KEYWORD_LOAD = "keyword_load";
+    public static final String DFA_BUILD = "dfa_build";
+    public static final String DFA_CACHE_LOOKUP = "dfa_cache_lookup";
+    public static final String FILE_STAGING = "file_staging";
+    public static final String BLOCK_DIVISION = "block_division";
+    public static final String SEQUENTIAL_SCAN = "sequential_scan";
+    public static final String PARALLEL_SCAN = "parallel_scan";
+    public static final String PARALLEL_MERGE = "parallel_merge";
+    public static final String STREAM_SCAN = "stream_scan";
+    public static final String MISMATCH_SCAN = "mismatch_scan";
+    public static final String VECTOR_SCAN = "vector_scan";
+    public static final String INDEX_BUILD = "index_build";
+    public static final String INDEX_QUERY = "index_query";
+    public static final String DIAGNOSIS = "diagnosis";
+    public static final String RESULT_CACHE_LOOKUP = "result_cache_lookup";
+    public static final String PANEL_DIAGNOSIS = "panel_diagnosis";
+
+    /* scan engines */
+    public static final String SEQUENTIAL = "sequential";
+    public static final String PARALLEL = "parallel";
+    public static final String STREAM = "stream";
+    public static final String MISMATCH = "mismatch";
+    public static final String VECTOR = "vector";
+    public static final String INDEX = "index";
+
+    private final MeterRegistry registry;
+
+    public DiagnosisMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * record adds the time elapsed since startNanos (a System.nanoTime() value) to the timer of the stage
+     *
+     * @return elapsed time in nanoseconds
+     */
+    public long record(String stage, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        Timer.builder("diagnosis.stage")
+                .description("Time spent in a stage of the diagnosis pipeline")
+                .tag("stage", stage)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        return nanos;
+    }
+
+    /**
+     * recordScan records the number of bytes scanned and the matches found by one scan of the engine
+     */
+    public void recordScan(String engine, long bytes, long[] counts, long nanos) {
+        long matches = 0;
+        for (long count : counts) {
+            matches += count;
+        }
+        Counter.builder("diagnosis.bytes.scanned")
+                .description("Bytes of DNA Sequence scanned")
+                .baseUnit("bytes")
+                .tag("engine", engine)
+                .register(registry)
+                .increment(bytes);
+        Counter.builder("diagnosis.matches")
+                .description("Keyword occurrences found")
+                .tag("engine", engine)
+                .register(registry)
+                .increment(matches);
+        if (nanos > 0) {
+            DistributionSummary.builder("diagnosis.matches.rate")
+                    .description("Keyword occurrences found per second of scanning")
+                    .baseUnit("matches/s")
+                    .tag("engine", engine)
+                    .register(registry)
+                    .record(matches * 1e9 / nanos);
+        }
+    }
+
+    /**
+     * bindPool registers gauges for the saturation of the scanning pool
+     *
+     * @return the pool
+     */
+    public ForkJoinPool bindPool(ForkJoinPool pool) {
+        Gauge.builder("diagnosis.pool.parallelism", pool, ForkJoinPool::getParallelism)
+                .description("Target number of scanning threads")
+                .register(registry);
+        Gauge.builder("diagnosis.pool.active", pool, ForkJoinPool::getActiveThreadCount)
+                .description("Scanning threads that are running or stealing tasks")
+                .register(registry);
+        Gauge.builder("diagnosis.pool.queued", pool, p -> p.getQueuedTaskCount() + p.getQueuedSubmissionCount())
+                .description("Lanes waiting for a scanning thread")
+                .register(registry);
+        Gauge.builder("diagnosis.pool.saturation", pool, p -> (double) p.getActiveThreadCount() / p.getParallelism())
+                .description("Active scanning threads divided by parallelism")
+                .register(registry);
+        return pool;
+    }
+
+    /**
+     * bindCache registers gauges for the cached automata and counters for the cache lookups
+     */
+    public void bindCache(AutomatonCache automatonCache) {
+        Gauge.builder("diagnosis.automaton.cache.size", automatonCache, AutomatonCache::size)
+                .description("Automata in the cache")
+                .register(registry);
+        Gauge.builder("diagnosis.automaton.states", automatonCache, AutomatonCache::getStateCount)
+                .description("States of all cached automata")
+                .register(registry);
+        Gauge.builder("diagnosis.automaton.transitions", automatonCache, AutomatonCache::getTransitionCount)
+                .description("Transitions of all cached automata")
+                .register(registry);
+        Gauge.builder("diagnosis.automaton.table", automatonCache, AutomatonCache::getTableBytes)
+                .description("Bytes of the off-heap tables of all cached automata")
+                .register(registry);
+        FunctionCounter.builder("diagnosis.automaton.cache.hits", automatonCache, AutomatonCache::getHits)
+                .register(registry);
+        FunctionCounter.builder("diagnosis.automaton.cache.misses", automatonCache, AutomatonCache::getMisses)
+                .register(registry);
+        FunctionCounter.builder("diagnosis.automaton.cache.evictions", automatonCache, AutomatonCache::getEvictions)
+                .register(registry);
+    }
+
+    /**
+     * bindResultCache registers gauges for the cached reports and counters for the lookups of both tiers
+     */
+    public void bindResultCache(ResultCache resultCache) {
+        Gauge.builder("diagnosis.results.cache.size", resultCache, ResultCache::size)
+                .description("Reports in the memory tier of the result cache")
+                .register(registry);
+        Gauge.builder("diagnosis.results.cache.disk", resultCache, ResultCache::getDiskBytes)
+                .description("Bytes of the reports in the disk tier of the result cache")
+                .register(registry);
+        FunctionCounter.builder("diagnosis.results.cache.hits", resultCache, ResultCache::getHits)
+                .register(registry);
+        FunctionCounter.builder("diagnosis.results.cache.disk.hits", resultCache, ResultCache::getDiskHits)
+                .register(registry);
+        FunctionCounter.builder("diagnosis.results.cache.misses", resultCache, ResultCache::getMisses)
+                .register(registry);
+        FunctionCounter.builder("diagnosis.results.cache.evictions", resultCache, ResultCache::getEvictions)
+                .register(registry);
+        FunctionCounter.builder("diagnosis.results.cache.disk.evictions", resultCache, ResultCache::getDiskEvictions)
+                .register(registry);
+    }
+
+    /**
+     * bindPanelBatcher registers counters for the requests and panels merged into shared scans
+     */
+    public void bindPanelBatcher(PanelBatcher panelBatcher) {
+        FunctionCounter.builder("diagnosis.panels.requests", panelBatcher, PanelBatcher::getRequests)
+                .register(registry);
+        FunctionCounter.builder("diagnosis.panels.panels", panelBatcher, PanelBatcher::getPanels)
+                .register(registry);
+        FunctionCounter.builder("diagnosis.panels.scans", panelBatcher, PanelBatcher::getScans)
+                .register(registry);
+    }
+
+    /**
+     * bindDictionaries registers a gauge for the published dictionary version and counters for its reloads
+     */
+    public void bindDictionaries(DictionaryRegistry dictionaries) {
+        Gauge.builder("diagnosis.dictionary.version", dictionaries, DictionaryRegistry::getVersion)
+                .description("Version of the published dictionaries")
+                .register(registry);
+        FunctionCounter.builder("diagnosis.dictionary.reloads", dictionaries, DictionaryRegistry::getReloads)
+                .register(registry);
+        FunctionCounter.builder("diagnosis.dictionary.failures", dictionaries, DictionaryRegistry::getFailures)
+                .register(registry);
+    }
+}
@@ -0,0 +1,142 @@
+package com.project.DiseaseDiagnosis;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class DiagnosisResult is the typed result of the diagnosis of one DNA Sequence: the results of all keywords
+ * that were found, and the time spent in every stage (stage names as in DiagnosisMetrics) in milliseconds.
+ * It is returned as JSON by the /diagnosis endpoint. For FASTA and FASTQ inputs it also holds the format, the
+ * number of records and the results of every record (at most MAX_RECORDS); the keyword results then add up
+ * the counts of all records and list the longest runs found in any record. If keywords were matched with
+ * mismatches (see MismatchMatcher), it holds the maximal number of mismatches per occurrence. If the engine was
+ * chosen by the planner (see EnginePlanner), it holds the reason for the choice. If the sequence was scanned once
+ * for several keyword panels (see PanelSet), it holds the number of panels answered by the scan.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DiagnosisResult {
+
+    static final int MAX_RECORDS = 10000;
+
+    private final String engine;
+    private String engineReason;
+    private final long bytesScanned;
+    private final List<KeywordResult> keywords;
+    private final Map<String, Double> timings = new LinkedHashMap<>();
+    private RecordScanner.SequenceFormat format;
+    private Long recordCount;
+    private List<RecordResult> records;
+    private Integer mismatches;
+    private Integer panelCount;
+
+    public DiagnosisResult(String engine, long bytesScanned, List<KeywordResult> keywords) {
+        this.engine = engine;
+        this.bytesScanned = bytesScanned;
+        this.keywords = keywords;
+    }
+
+    /**
+     * addTiming adds the time spent in a stage
+     */
+    public DiagnosisResult addTiming(String stage, long nanoTime) {
+        timings.merge(stage, nanoTime / 1000000.0, Double::sum);
+        return this;
+    }
+
+    /**
+     * setRecords sets the format of the input and the results of its records
+     */
+    public DiagnosisResult setRecords(RecordScanner.SequenceFormat format, long recordCount, List<RecordResult> records) {
+        this.format = format;
+        this.recordCount = recordCount;
+        this.records = records;
+        return this;
+    }
+
+    /**
+     * setEngineReason sets the reason why the engine was chosen
+     */
+    public DiagnosisResult setEngineReason(String engineReason) {
+        this.engineReason = engineReason;
+        return this;
+    }
+
+    /**
+     * setMismatches sets the maximal number of mismatches per occurrence
+     */
+    public DiagnosisResult setMismatches(int mismatches) {
+        this.mismatches = mismatches;
+        return this;
+    }
+
+    /**
+     * setPanelCount sets the number of keyword panels answered by the same scan
+     */
+    public DiagnosisResult setPanelCount(int panelCount) {
+        this.panelCount = panelCount;
+        return this;
+    }
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public String getEngineReason() {
+        return engineReason;
+    }
+
+    public long getBytesScanned() {
+        return bytesScanned;
+    }
+
+    public List<KeywordResult> getKeywords() {
+        return keywords;
+    }
+
+    public Map<String, Double> getTimings() {
+        return timings;
+    }
+
+    public RecordScanner.SequenceFormat getFormat() {
+        return format;
+    }
+
+    public Long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * getRecords
+     *
+     * @return results of the first MAX_RECORDS records, null for a raw sequence
+     */
+    public List<RecordResult> getRecords() {
+        return records;
+    }
+
+    public Integer getMismatches() {
+        return mismatches;
+    }
+
+    public Integer getPanelCount() {
+        return panelCount;
+    }
+
+    @Override
+    public String toString() {
+        return "DiagnosisResult{" +
+                "engine=" + engine +
+                ", engineReason=" + engineReason +
+                ", bytesScanned=" + bytesScanned +
+                ", keywords=" + keywords +
+                ", timings=" + timings +
+                ", format=" + format +
+                ", recordCount=" + recordCount +
+                ", mismatches=" + mismatches +
+                ", panelCount=" + panelCount +
+                '}';
+    }
+}
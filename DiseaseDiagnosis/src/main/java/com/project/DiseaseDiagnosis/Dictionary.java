@@ -0,0 +1,50 @@
+package com.project.DiseaseDiagnosis;
+
+import java.time.Instant;
+
+/**
+ * Class Dictionary is one version of the dictionaries published by DictionaryRegistry: the default keywords, the
+ * automaton compiled from them and the disease ranges. It is immutable; a request that took a Dictionary keeps
+ * using it even if a newer version is published meanwhile.
+ */
+public final class Dictionary {
+
+    private final long version;
+    private final Instant loadedAt;
+    private final String[] keywords;
+    private final Automaton automaton;
+    private final DiseaseRanges ranges;
+
+    Dictionary(long version, String[] keywords, Automaton automaton, DiseaseRanges ranges) {
+        this.version = version;
+        this.loadedAt = Instant.now();
+        this.keywords = keywords;
+        this.automaton = automaton;
+        this.ranges = ranges;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * getKeywords
+     *
+     * @return copy of the default keywords
+     */
+    public String[] getKeywords() {
+        return keywords.clone();
+    }
+
+    public Automaton getAutomaton() {
+        return automaton;
+    }
+
+    public DiseaseRanges getRanges() {
+        return ranges;
+    }
+}
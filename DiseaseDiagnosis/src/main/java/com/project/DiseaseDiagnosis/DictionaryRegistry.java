@@ -0,0 +1,269 @@
+package com.project.DiseaseDiagnosis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Class DictionaryRegistry publishes the default keywords, their compiled automaton and the disease ranges as one
+ * immutable Dictionary. A new version is read, parsed and compiled in the background (see watch) and published
+ * with a single atomic swap, so requests never read the files or resources and a scan that took the old version finishes with
+ * it undisturbed. A version that cannot be loaded (e.g. a malformed ranges file or an invalid keyword) is not
+ * published: the registry keeps serving the last good version.
+ */
+public final class DictionaryRegistry implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DictionaryRegistry.class);
+
+    /**
+     * DEFAULT_KEYWORDS and DEFAULT_RANGES are the classpath resources read when no file is given
+     */
+    public static final String DEFAULT_KEYWORDS = "keywords.txt";
+    public static final String DEFAULT_RANGES = "NucleotideRepeatDiseaseRanges";
+
+    /**
+     * DEFAULT reads the default resources on first use; it is used by Main when no registry is given
+     */
+    public static final DictionaryRegistry DEFAULT = new DictionaryRegistry(null, null, new AutomatonCache(1));
+
+    /**
+     * SETTLE_MILLIS is the time without further changes after which a change is reloaded, so an editor that
+     * writes a file in several steps causes one reload
+     */
+    static final long SETTLE_MILLIS = 200;
+
+    private final Path keywordsFile;
+    private final Path rangesFile;
+    private final AutomatonCache automatonCache;
+    private final AtomicReference<Dictionary> current = new AtomicReference<>();
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * watchService and watcher are set by watch, guarded by this
+     */
+    private WatchService watchService;
+    private Thread watcher;
+
+    /**
+     * @param keywordsFile file of the keywords, null for the DEFAULT_KEYWORDS resource
+     * @param rangesFile file of the disease ranges, null for the DEFAULT_RANGES resource
+     * @param automatonCache compiles the automaton of the keywords, so a version with known keywords is not compiled again
+     */
+    public DictionaryRegistry(Path keywordsFile, Path rangesFile, AutomatonCache automatonCache) {
+        this.keywordsFile = keywordsFile;
+        this.rangesFile = rangesFile;
+        this.automatonCache = automatonCache;
+    }
+
+    /**
+     * load reads the keywords and the disease ranges, compiles the automaton and publishes the result as the next version
+     *
+     * @return the published version
+     * @throws IOException if a file cannot be read or is malformed
+     * @throws IllegalArgumentException if a keyword is invalid
+     */
+    public synchronized Dictionary load() throws IOException {
+        String[] keywords;
+        if (keywordsFile != null) {
+            keywords = Main.readInputKeywords(keywordsFile.toFile());
+        } else {
+            try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(resource(DEFAULT_KEYWORDS), StandardCharsets.UTF_8))) {
+                keywords = Main.readInputKeywords(bufferedReader, "Resource with keywords " + DEFAULT_KEYWORDS);
+            }
+        }
+        DiseaseRanges ranges;
+        if (rangesFile != null) {
+            ranges = DiseaseRanges.read(rangesFile);
+        } else {
+            try (InputStream inputStream = resource(DEFAULT_RANGES)) {
+                ranges = DiseaseRanges.read(inputStream.readAllBytes(), "resource " + DEFAULT_RANGES);
+            }
+        }
+        Automaton automaton = automatonCache.get(keywords);
+        Dictionary previous = current.get();
+        Dictionary dictionary = new Dictionary(previous != null ? previous.getVersion() + 1 : 1, keywords, automaton, ranges);
+        current.set(dictionary);
+        return dictionary;
+    }
+
+    private static InputStream resource(String name) throws FileNotFoundException {
+        InputStream inputStream = DictionaryRegistry.class.getClassLoader().getResourceAsStream(name);
+        if (inputStream == null) {
+            throw new FileNotFoundException("Resource " + name + " does not exist!");
+        }
+        return inputStream;
+    }
+
+    /**
+     * current
+     *
+     * @return the latest published version; the first call loads it if load was not called yet
+     * @throws UncheckedIOException if the first version cannot be loaded
+     */
+    public Dictionary current() {
+        Dictionary dictionary = current.get();
+        if (dictionary != null) {
+            return dictionary;
+        }
+        synchronized (this) {
+            dictionary = current.get();
+            if (dictionary == null) {
+                try {
+                    dictionary = load();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return dictionary;
+        }
+    }
+
+    /**
+     * watch starts a daemon thread that reloads the dictionaries whenever one of the files is created or modified.
+     * The classpath resources do not change, so there is nothing to watch if no file was given. Calling it again
+     * has no effect.
+     */
+    public synchronized void watch() throws IOException {
+        if (watchService != null) {
+            return;
+        }
+        Set<Path> directories = new LinkedHashSet<>();
+        for (Path file : new Path[]{keywordsFile, rangesFile}) {
+            if (file != null) {
+                directories.add(directory(file));
+            }
+        }
+        if (directories.isEmpty()) {
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        for (Path directory : directories) {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        }
+        WatchService service = watchService;
+        watcher = new Thread(() -> watchLoop(service), "dictionary-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private static Path directory(Path file) {
+        Path parent = file.toAbsolutePath().getParent();
+        return parent != null ? parent : file.toAbsolutePath().getRoot();
+    }
+
+    private void watchLoop(WatchService service) {
+        try {
+            while (true) {
+                boolean changed = poll(service.take());
+                /* wait until the files settle, then reload once */
+                WatchKey key;
+                while ((key = service.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= poll(key);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            /* closed */
+        }
+    }
+
+    /**
+     * poll
+     *
+     * @return whether the events of the key concern one of the files
+     */
+    private boolean poll(WatchKey key) {
+        boolean changed = false;
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path) {
+                Path file = directory.resolve((Path) event.context());
+                changed |= isWatched(file, keywordsFile) || isWatched(file, rangesFile);
+            } else if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    private static boolean isWatched(Path file, Path watched) {
+        return watched != null && file.equals(watched.toAbsolutePath());
+    }
+
+    private void reload() {
+        try {
+            Dictionary dictionary = load();
+            reloads.incrementAndGet();
+            logger.info(String.format("Dictionary version %d loaded: %d keywords, %d disease ranges.",
+                    dictionary.getVersion(), dictionary.getAutomaton().getKeywordCount(),
+                    dictionary.getRanges().getDiseaseCount()));
+        } catch (IOException | RuntimeException e) {
+            failures.incrementAndGet();
+            logger.warn(String.format("Dictionary could not be reloaded, version %d is kept: %s",
+                    getVersion(), e.getMessage()));
+        }
+    }
+
+    /**
+     * getReloads
+     *
+     * @return number of versions published by the watcher
+     */
+    public long getReloads() {
+        return reloads.get();
+    }
+
+    /**
+     * getFailures
+     *
+     * @return number of changes the watcher could not load
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * getVersion
+     *
+     * @return version of the latest published dictionary, 0 if none was loaded yet
+     */
+    public long getVersion() {
+        Dictionary dictionary = current.get();
+        return dictionary != null ? dictionary.getVersion() : 0;
+    }
+
+    /**
+     * close stops the watcher; the latest version stays published
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watcher.interrupt();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.project.DiseaseDiagnosis;
+
+/**
+ * Class DiseaseClassification is the Disease Diagnosis result of one disease caused by repeats of a keyword
+ */
+public class DiseaseClassification {
+
+    private final String disease;
+    private final Classification result;
+
+    public DiseaseClassification(String disease, Classification result) {
+        this.disease = disease;
+        this.result = result;
+    }
+
+    public String getDisease() {
+        return disease;
+    }
+
+    public Classification getResult() {
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "DiseaseClassification{" +
+                "disease=" + disease +
+                ", result=" + result +
+                '}';
+    }
+}
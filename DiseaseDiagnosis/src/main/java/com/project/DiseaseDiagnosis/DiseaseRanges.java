@@ -0,0 +1,135 @@
+package com.project.DiseaseDiagnosis;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class DiseaseRanges stores the Nucleotide Repeat Disease Ranges: for every pattern, the diseases caused by its
+ * repeats, each with the ranges of repeats of every Classification. A file has one disease per line:
+ * disease name, pattern and the three ranges (low-high, high may be inf), separated by commas.
+ * DiseaseRanges is immutable, so it can be replaced (see DictionaryRegistry) while requests still classify
+ * against the old one.
+ */
+public final class DiseaseRanges {
+
+    public static final DiseaseRanges EMPTY = new DiseaseRanges(new HashMap<>(), "");
+
+    /**
+     * ranges stores pattern -> disease name -> ranges
+     */
+    private final Map<String, Map<String, List<Pair>>> ranges;
+
+    /**
+     * fingerprint identifies the content of the file the ranges were read from
+     */
+    private final String fingerprint;
+
+    private DiseaseRanges(Map<String, Map<String, List<Pair>>> ranges, String fingerprint) {
+        this.ranges = ranges;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * read parses a disease ranges file
+     *
+     * @throws IOException if the file cannot be read, a line is malformed or a disease is repeated for a pattern
+     */
+    public static DiseaseRanges read(Path file) throws IOException {
+        return read(Files.readAllBytes(file), file.toString());
+    }
+
+    /**
+     * read parses the content of a disease ranges file, e.g. of a classpath resource
+     *
+     * @param source name of the content in error messages
+     * @throws IOException if a line is malformed or a disease is repeated for a pattern
+     */
+    static DiseaseRanges read(byte[] content, String source) throws IOException {
+        Map<String, Map<String, List<Pair>>> ranges = new HashMap<>();
+        int lineNumber = 0;
+        for (String line : new String(content, StandardCharsets.UTF_8).lines().toList()) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] contents = line.split(",");
+            if (contents.length != 5) {
+                throw new IOException("Line " + lineNumber + " of " + source + " does not have 5 fields!");
+            }
+            String diseaseName = contents[0];
+            String pattern = contents[1];
+            List<Pair> diseaseRanges = new ArrayList<>();
+            for (int i = 2; i < 5; i++) {
+                diseaseRanges.add(range(contents[i], source, lineNumber));
+            }
+            if (ranges.computeIfAbsent(pattern, p -> new HashMap<>()).putIfAbsent(diseaseName, diseaseRanges) != null) {
+                throw new IOException("Line " + lineNumber + " of " + source + " repeats disease " + diseaseName
+                        + " for pattern " + pattern + "!");
+            }
+        }
+        return new DiseaseRanges(ranges, HexFormat.of().formatHex(ResultCache.newDigest().digest(content)));
+    }
+
+    private static Pair range(String field, String source, int lineNumber) throws IOException {
+        String[] range = field.split("-");
+        try {
+            Pair pair = new Pair();
+            pair.setLow(Integer.parseInt(range[0]));
+            pair.setHigh(range[1].equals("inf") ? Integer.MAX_VALUE : Integer.parseInt(range[1]));
+            return pair;
+        } catch (RuntimeException e) {
+            throw new IOException("Line " + lineNumber + " of " + source + " has invalid range " + field + "!", e);
+        }
+    }
+
+    /**
+     * classify compares the number of repeats of the pattern with the ranges of every disease caused by it
+     *
+     * @return results of the diseases whose ranges contain count
+     */
+    public List<DiseaseClassification> classify(String pattern, long count) {
+        List<DiseaseClassification> diseases = new ArrayList<>();
+        if (ranges.containsKey(pattern)) {
+            for (Map.Entry<String, List<Pair>> data : ranges.get(pattern).entrySet()) {
+                String diseaseName = data.getKey();
+                List<Pair> diseaseRanges = data.getValue();
+                Classification[] classifications = Classification.values();
+                int result = 3;
+                for (int j = 0; (j < diseaseRanges.size()) && result == 3; j++) {
+                    if (count >= diseaseRanges.get(j).getLow() && count <= diseaseRanges.get(j).getHigh()) {
+                        result = j;
+                    }
+                }
+                if (result < 3) {
+                    diseases.add(new DiseaseClassification(diseaseName, classifications[result]));
+                }
+            }
+        }
+        return diseases;
+    }
+
+    /**
+     * getFingerprint
+     *
+     * @return hex SHA-256 hash of the file the ranges were read from, empty for EMPTY
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * getDiseaseCount
+     *
+     * @return number of (pattern, disease) entries
+     */
+    public int getDiseaseCount() {
+        return ranges.values().stream().mapToInt(Map::size).sum();
+    }
+}
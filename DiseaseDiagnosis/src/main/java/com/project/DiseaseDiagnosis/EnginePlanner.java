@@ -0,0 +1,208 @@
+package com.project.DiseaseDiagnosis;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class EnginePlanner chooses the scan engine of a request, so every request runs exactly one engine. The cost
+ * model estimates the scan time of every engine from the input size, the number of free cores (cores minus the
+ * pool threads and sequential scans that are busy right now), the size of the automaton table and the
+ * throughput of the engine: sequential and vector scans run on one core, the parallel scan runs on as many lanes
+ * as it splits the input into and cores are free, plus a fixed start-up cost. The fastest estimate wins; on a tie
+ * the engine that uses fewer cores wins.
+ * <p>
+ * Throughputs start with the values measured by the benchmarks (see the rate constants) and are calibrated by
+ * every scan that reports its time (see observe), so the model follows the hardware the service runs on.
+ */
+public final class EnginePlanner {
+
+    /**
+     * AUTO lets the planner choose the engine, COMPARE runs every engine on the same input (for diagnostics only)
+     */
+    public static final String AUTO = "auto";
+    public static final String COMPARE = "compare";
+
+    static final List<String> ENGINES = List.of(AUTO, DiagnosisMetrics.SEQUENTIAL, DiagnosisMetrics.PARALLEL,
+            DiagnosisMetrics.VECTOR, COMPARE);
+
+    public static final EnginePlanner GLOBAL = new EnginePlanner(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Initial throughputs in bytes per nanosecond and lane, for an automaton whose table fits into the cache.
+     * SEQUENTIAL_RATE and PARALLEL_RATE are the scores of ScanBenchmark.sequentialRepeats and parallelRepeats on
+     * the 64MB genome (123 and 125 MB/s; the parallel scan on a single lane). VECTOR_RATE is SEQUENTIAL_RATE times
+     * the speedup of PrefilterBenchmark on the long panel (6.58 / 4.83 ops/s = 1.36), as the vector engine only
+     * runs on panels that the prefilter accepts.
+     */
+    static final double SEQUENTIAL_RATE = 0.12;
+    static final double VECTOR_RATE = 0.16;
+    static final double PARALLEL_RATE = 0.12;
+
+    /**
+     * PARALLEL_OVERHEAD is the time in nanoseconds to split the input, start the lanes and merge their results
+     */
+    static final long PARALLEL_OVERHEAD = 200_000;
+
+    /**
+     * Tables larger than CACHED_TABLE_BYTES do not stay in the cache, which slows down every engine by
+     * UNCACHED_TABLE_FACTOR
+     */
+    static final long CACHED_TABLE_BYTES = 1 << 20;
+    static final double UNCACHED_TABLE_FACTOR = 0.5;
+
+    /**
+     * WEIGHT of a new observation in the calibrated throughput (exponential moving average)
+     */
+    static final double WEIGHT = 0.2;
+
+    private final int processors;
+
+    /**
+     * sequentialScans is the number of sequential and vector scans running right now; parallel scans are counted
+     * by the pool of ParallelScanner
+     */
+    private final AtomicInteger sequentialScans = new AtomicInteger();
+
+    /**
+     * rates stores the calibrated throughput of every engine, guarded by this
+     */
+    private final Map<String, Double> rates = new HashMap<>();
+
+    public EnginePlanner(int processors) {
+        this.processors = processors;
+        rates.put(DiagnosisMetrics.SEQUENTIAL, SEQUENTIAL_RATE);
+        rates.put(DiagnosisMetrics.VECTOR, VECTOR_RATE);
+        rates.put(DiagnosisMetrics.PARALLEL, PARALLEL_RATE);
+    }
+
+    /**
+     * checkEngine
+     *
+     * @throws IllegalArgumentException if engine is not one of ENGINES
+     */
+    public static void checkEngine(String engine) {
+        if (!ENGINES.contains(engine)) {
+            throw new IllegalArgumentException("Engine must be one of " + String.join(", ", ENGINES) + "!");
+        }
+    }
+
+    /**
+     * plan chooses the engine for a scan of bytes bytes. A requested engine is used as it is, except vector without
+     * a prefilter, which is replaced by sequential. AUTO and COMPARE use the cost model.
+     *
+     * @param prefilter prefilter of the automaton, e.g. from AutomatonCache.prefilter, null if there is none
+     * @return the engine and the reason for the choice
+     */
+    public Plan plan(String engine, long bytes, Automaton automaton, Prefilter prefilter, ParallelScanner parallelScanner) {
+        checkEngine(engine);
+        if (engine.equals(DiagnosisMetrics.SEQUENTIAL) || engine.equals(DiagnosisMetrics.PARALLEL)) {
+            return new Plan(engine, "requested", null);
+        }
+        if (engine.equals(DiagnosisMetrics.VECTOR)) {
+            return prefilter != null ? new Plan(engine, "requested", prefilter)
+                    : new Plan(DiagnosisMetrics.SEQUENTIAL, "vector requested, but no prefilter is available", null);
+        }
+
+        int busy = parallelScanner.getActiveThreads() + sequentialScans.get();
+        int freeCores = Math.max(1, processors - busy);
+        int lanes = Math.min(parallelScanner.lanes(bytes), freeCores);
+        double sequential = estimate(DiagnosisMetrics.SEQUENTIAL, bytes, 1, automaton);
+        double vector = prefilter != null ? estimate(DiagnosisMetrics.VECTOR, bytes, 1, automaton) : Double.POSITIVE_INFINITY;
+        double parallel = lanes > 1 ? estimate(DiagnosisMetrics.PARALLEL, bytes, lanes, automaton) + PARALLEL_OVERHEAD
+                : Double.POSITIVE_INFINITY;
+
+        String chosen = DiagnosisMetrics.SEQUENTIAL;
+        double best = sequential;
+        if (vector < best) {
+            chosen = DiagnosisMetrics.VECTOR;
+            best = vector;
+        }
+        if (parallel < best) {
+            chosen = DiagnosisMetrics.PARALLEL;
+        }
+        String reason = String.format(Locale.ROOT, "estimated sequential %s, vector %s, parallel %s on %d lanes (%d of %d cores free)",
+                millis(sequential), millis(vector), millis(parallel), lanes, freeCores, processors);
+        return new Plan(chosen, reason, chosen.equals(DiagnosisMetrics.VECTOR) ? prefilter : null);
+    }
+
+    private double estimate(String engine, long bytes, int lanes, Automaton automaton) {
+        return bytes / (rate(engine) * tableFactor(automaton) * lanes);
+    }
+
+    private static double tableFactor(Automaton automaton) {
+        return automaton.getTableBytes() > CACHED_TABLE_BYTES ? UNCACHED_TABLE_FACTOR : 1;
+    }
+
+    private static String millis(double nanoTime) {
+        return Double.isInfinite(nanoTime) ? "n/a" : String.format(Locale.ROOT, "%.2f ms", nanoTime / 1000000.0);
+    }
+
+    /**
+     * enter and exit count a sequential or vector scan as running
+     */
+    public void enter() {
+        sequentialScans.incrementAndGet();
+    }
+
+    public void exit() {
+        sequentialScans.decrementAndGet();
+    }
+
+    /**
+     * observe calibrates the throughput of the engine with the time of a finished scan
+     *
+     * @param lanes number of lanes of a parallel scan, 1 for the other engines
+     */
+    public void observe(String engine, long bytes, int lanes, Automaton automaton, long nanoTime) {
+        if (engine.equals(DiagnosisMetrics.PARALLEL)) {
+            nanoTime -= PARALLEL_OVERHEAD;
+        }
+        if (nanoTime <= 0) {
+            return;
+        }
+        double rate = bytes / ((double) nanoTime * lanes * tableFactor(automaton));
+        synchronized (this) {
+            rates.computeIfPresent(engine, (e, oldRate) -> (1 - WEIGHT) * oldRate + WEIGHT * rate);
+        }
+    }
+
+    /**
+     * rate
+     *
+     * @return calibrated throughput of the engine in bytes per nanosecond and lane
+     */
+    public synchronized double rate(String engine) {
+        return rates.get(engine);
+    }
+
+    /**
+     * Class Plan is the engine chosen for a scan, with the reason and the prefilter of the vector engine
+     */
+    public static final class Plan {
+
+        private final String engine;
+        private final String reason;
+        private final Prefilter prefilter;
+
+        Plan(String engine, String reason, Prefilter prefilter) {
+            this.engine = engine;
+            this.reason = reason;
+            this.prefilter = prefilter;
+        }
+
+        public String getEngine() {
+            return engine;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public Prefilter getPrefilter() {
+            return prefilter;
+        }
+    }
+}
@@ -1,23 +1,79 @@
 package com.project.DiseaseDiagnosis;
 
 import java.lang.String;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.*;
 
 /**
  * Class FiniteStateAutomata is used by main method for constructing finite state machine. It
- * returns transition map, output map, alphabet and failure map.
+ * returns transition map, output map, alphabet and failure map, and compiles them into an
+ * Automaton that is used for scanning. A nucleotide finite state machine (see forNucleotides) has
+ * the fixed alphabet A, C, G, T and expands IUPAC codes in keywords into all bases they stand for.
+ * Keywords tagged with Nucleotides.REVERSE_STRAND enter their reverse complement, so matches on both
+ * strands are found in the same pass.
+ * <p>
+ * Construction keeps the trie in primitive arrays (see TransitionTable) instead of maps of boxed values, so
+ * catalogs of tens of thousands of keywords do not fill the heap with small objects, and compile writes the
+ * goto table directly into the off-heap table of the Automaton.
  */
 public class FiniteStateAutomata {
 
-    private final Map<Key, Integer> transitionMap = new LinkedHashMap<>();
-    private final Map<Integer, List<String>> outputMap = new LinkedHashMap<>();
+    private static final int NONE = -1;
+
+    private final TransitionTable transitions = new TransitionTable();
     private final List<Character> alphabet = new ArrayList<>();
-    private final Map<Integer, Integer> failureMap = new LinkedHashMap<>();
+    private final BitSet alphabetSymbols = new BitSet();
+
+    //keyword -> index of the keyword in the compiled automaton
+    private final Map<String, Integer> keywordIndex = new LinkedHashMap<>();
+
+    /**
+     * Keywords found in every state, as linked lists of entries: the list of state s starts with entry
+     * firstOutput[s], the entry after e is nextOutput[e] (NONE ends a list) and e reports keyword outputKeyword[e].
+     * failureFunction links the end of the own list of a state to the list of its failure state.
+     */
+    private int[] firstOutput = new int[1 << 10];
+    private int[] nextOutput = new int[1 << 10];
+    private int[] outputKeyword = new int[1 << 10];
+    private int outputCount;
+
+    /**
+     * failures[s] is the failure state of s and order has all states except 0 in breadth-first order,
+     * both created by failureFunction
+     */
+    private int[] failures;
+    private int[] order;
+    private int orderLength;
 
-    //side list of states used for constructing failure map
-    private final LinkedList<Integer> listOfStates = new LinkedList<>();
     int newState = 0;
 
+    private final boolean nucleotide;
+
+    public FiniteStateAutomata() {
+        this(false);
+    }
+
+    private FiniteStateAutomata(boolean nucleotide) {
+        this.nucleotide = nucleotide;
+        firstOutput[0] = NONE;
+        if (nucleotide) {
+            /* alphabet index of every base is equal to its 2-bit code */
+            for (int code = 0; code < Nucleotides.BASES; code++) {
+                addSymbol(Nucleotides.symbol(code));
+            }
+        }
+    }
+
+    /**
+     * forNucleotides
+     *
+     * @return finite state machine over the packed nucleotide alphabet (see Nucleotides)
+     */
+    public static FiniteStateAutomata forNucleotides() {
+        return new FiniteStateAutomata(true);
+    }
+
     /**
      * Method gotoFunction calls method enterKeyword for all input keywords. After that,
      * it completes constructing transition map. Transitions are created
@@ -27,7 +83,15 @@ public class FiniteStateAutomata {
      */
     public void gotoFunction(String[] keywords) {
         for (String keyword : keywords) {
-            enterKeyword(keyword);
+            if (nucleotide) {
+                for (String variant : Nucleotides.expand(Nucleotides.pattern(keyword))) {
+                    enterKeyword(variant, keyword);
+                }
+            } else if (Nucleotides.isReverseStrand(keyword)) {
+                throw new IllegalArgumentException("Keyword " + keyword + " needs a nucleotide automaton for reverse strand matching");
+            } else {
+                enterKeyword(keyword);
+            }
         }
         for (char symbol : alphabet) {
 
@@ -35,9 +99,8 @@ public class FiniteStateAutomata {
              * For all input symbols where transitionMap (0,input symbol) -> fail,
              * put transitionMap (0,input symbol) -> 0.
              */
-            Key key = new Key(0, symbol);
-            if (!transitionMap.containsKey(key)) {
-                transitionMap.put(key, 0);
+            if (transitions.get(0, symbol) == TransitionTable.ABSENT) {
+                transitions.put(0, symbol, 0);
             }
         }
     }
@@ -49,36 +112,73 @@ public class FiniteStateAutomata {
      * @param keyword .
      */
     public void enterKeyword(String keyword) {
+        enterKeyword(keyword, keyword);
+    }
+
+    /**
+     * Same as enterKeyword(keyword), but the output map reports label when the keyword is found.
+     * Used for the concrete variants of a keyword that contains IUPAC codes.
+     *
+     * @param keyword keyword entered into the transition map
+     * @param label   keyword reported in the output map
+     */
+    public void enterKeyword(String keyword, String label) {
+        keywordIndex.putIfAbsent(label, keywordIndex.size());
+        int labelIndex = keywordIndex.get(label);
         for (int i = 0; i < keyword.length(); i++) {
-            if (!alphabet.contains(keyword.charAt(i))) {
-                alphabet.add(keyword.charAt(i));
-            }
+            addSymbol(keyword.charAt(i));
         }
 
         /* First we find the longest keyword's prefix already defined */
         int state = 0;
         int currIndex = 0;
-        Key key = new Key(state, keyword.charAt(currIndex));
-        while (transitionMap.containsKey(key) && currIndex < keyword.length()) {
-            state = transitionMap.get(key);
-            currIndex = currIndex + 1;
-            key.state = state;
-            if(currIndex < keyword.length()) {
-                key.symbol = keyword.charAt(currIndex);
+        while (currIndex < keyword.length()) {
+            int nextState = transitions.get(state, keyword.charAt(currIndex));
+            if (nextState == TransitionTable.ABSENT) {
+                break;
             }
+            state = nextState;
+            currIndex = currIndex + 1;
         }
 
         /* Define transitions for the rest of the keyword */
         for (int i = currIndex; i < keyword.length(); i++) {
             newState = newState + 1;
-            Key currKey = new Key(state, keyword.charAt(i));
-            transitionMap.put(currKey, newState);
+            transitions.put(state, keyword.charAt(i), newState);
             state = newState;
+            if (newState == firstOutput.length) {
+                firstOutput = Arrays.copyOf(firstOutput, 2 * newState);
+            }
+            firstOutput[newState] = NONE;
         }
 
-        List<String> listOfKeyword = new ArrayList<>();
-        listOfKeyword.add(keyword);
-        outputMap.put(state, listOfKeyword);
+        /* Append the label to the outputs of the state, unless it is there already */
+        int last = NONE;
+        for (int e = firstOutput[state]; e != NONE; e = nextOutput[e]) {
+            if (outputKeyword[e] == labelIndex) {
+                return;
+            }
+            last = e;
+        }
+        if (outputCount == nextOutput.length) {
+            nextOutput = Arrays.copyOf(nextOutput, 2 * outputCount);
+            outputKeyword = Arrays.copyOf(outputKeyword, 2 * outputCount);
+        }
+        int entry = outputCount++;
+        outputKeyword[entry] = labelIndex;
+        nextOutput[entry] = NONE;
+        if (last == NONE) {
+            firstOutput[state] = entry;
+        } else {
+            nextOutput[last] = entry;
+        }
+    }
+
+    private void addSymbol(char symbol) {
+        if (!alphabetSymbols.get(symbol)) {
+            alphabetSymbols.set(symbol);
+            alphabet.add(symbol);
+        }
     }
 
     /**
@@ -89,6 +189,10 @@ public class FiniteStateAutomata {
      * undefined transitions (0,a).
      */
     public void failureFunction() {
+        int stateCount = newState + 1;
+        failures = new int[stateCount];
+        order = new int[stateCount];
+        orderLength = 0;
 
         /**
          * Starts with states s that have defined transitions (0, input symbol) -> s. Those states
@@ -97,48 +201,148 @@ public class FiniteStateAutomata {
          * Depth(s) - number of transitions from 0 to s
          */
         for (char symbol : alphabet) {
-            Key key = new Key(0, symbol);
-            int nextState = transitionMap.get(key);
-            if (nextState != 0) {
-                listOfStates.addLast(nextState);
-                failureMap.put(nextState, 0);
+            int nextState = transitions.get(0, symbol);
+            if (nextState > 0) {
+                order[orderLength++] = nextState;
+                failures[nextState] = 0;
             }
         }
 
-        while (!listOfStates.isEmpty()) {
-            int currState = listOfStates.removeFirst();
+        for (int head = 0; head < orderLength; head++) {
+            int currState = order[head];
             for (char symbol : alphabet) {
-                Key key = new Key(currState, symbol);
-                if (transitionMap.containsKey(key)) {
-                    int nextState = transitionMap.get(key);
-                    listOfStates.addLast(nextState);
-                    int failureState = failureMap.get(currState);
-                    while (!transitionMap.containsKey(new Key(failureState, symbol))) {
-                        failureState = failureMap.get(failureState);
+                int nextState = transitions.get(currState, symbol);
+                if (nextState != TransitionTable.ABSENT) {
+                    order[orderLength++] = nextState;
+                    int failureState = failures[currState];
+                    while (transitions.get(failureState, symbol) == TransitionTable.ABSENT) {
+                        failureState = failures[failureState];
                     }
-                    Key k = new Key(failureState, symbol);
-                    failureMap.put(nextState, transitionMap.get(k));
+                    failures[nextState] = transitions.get(failureState, symbol);
 
                     /*In output map, every state, except its own keyword,
-                    now gets keyword of its failure state.*/
-                    List<String> list1 = outputMap.get(nextState);
-                    List<String> list2 = outputMap.get(transitionMap.get(k));
-                    if (list1 != null && list2 != null) {
-                        list1.addAll(list2);
-                    } else if (list1 == null && list2 != null) {
-                        outputMap.remove(nextState);
-                        outputMap.put(nextState, list2);
+                    now gets keyword of its failure state. The list of the failure state is complete
+                    already, so it is shared instead of copied.*/
+                    int last = NONE;
+                    for (int e = firstOutput[nextState]; e != NONE; e = nextOutput[e]) {
+                        last = e;
+                    }
+                    if (last == NONE) {
+                        firstOutput[nextState] = firstOutput[failures[nextState]];
+                    } else {
+                        nextOutput[last] = firstOutput[failures[nextState]];
                     }
                 }
             }
         }
     }
 
+    /**
+     * Method compile converts transition map, failure map and output map into an Automaton.
+     * States are visited in breadth-first order, so the row of a state's failure state is always
+     * complete before the state itself. Every transition missing from the transition map is copied
+     * from the failure state's row, which folds the failure links into the goto table. The rows and
+     * the outputs are written into one direct buffer (see Automaton for the layout).
+     * Must be called after gotoFunction and failureFunction.
+     *
+     * @return compiled automaton
+     * @throws IllegalArgumentException if the table does not fit into one buffer (2 GB)
+     */
+    public Automaton compile() {
+        int otherClass = nucleotide ? Nucleotides.ESCAPE : alphabet.size();
+        int outputColumn = otherClass + 1;
+        int rowBytes = Integer.BYTES * Integer.highestOneBit(2 * (outputColumn + 2) - 1);  // row width is a power of two
+        int stateCount = newState + 1;
+
+        char maxSymbol = 0;
+        for (char symbol : alphabet) {
+            maxSymbol = (char) Math.max(maxSymbol, symbol);
+        }
+        int[] classes;
+        if (nucleotide) {
+            classes = Nucleotides.classTable();
+        } else {
+            classes = new int[Math.max(256, maxSymbol + 1)];
+            Arrays.fill(classes, otherClass);
+            classes['\n'] = Automaton.SKIP;
+            classes['\r'] = Automaton.SKIP;
+            for (int i = 0; i < alphabet.size(); i++) {
+                classes[alphabet.get(i)] = i;
+            }
+        }
+
+        long outputCount = 0;
+        for (int state = 0; state < stateCount; state++) {
+            for (int e = firstOutput[state]; e != NONE; e = nextOutput[e]) {
+                outputCount++;
+            }
+        }
+        long tableBytes = (long) stateCount * rowBytes + outputCount * Integer.BYTES;
+        if (tableBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Automaton with " + stateCount + " states and " + outputCount
+                    + " outputs exceeds the maximal table size!");
+        }
+        ByteBuffer table = ByteBuffer.allocateDirect((int) tableBytes).order(ByteOrder.LITTLE_ENDIAN);
+
+        /* a transition is stored as the byte offset of the target row, marked if the target reports keywords */
+        for (int i = 0; i < alphabet.size(); i++) {
+            table.putInt(Integer.BYTES * i, row(transitions.get(0, alphabet.get(i)), rowBytes));
+        }
+        for (int head = 0; head < orderLength; head++) {
+            int currState = order[head];
+            int failureRow = failures[currState] * rowBytes;
+            int row = currState * rowBytes;
+            for (int i = 0; i < alphabet.size(); i++) {
+                int nextState = transitions.get(currState, alphabet.get(i));
+                table.putInt(row + Integer.BYTES * i, nextState != TransitionTable.ABSENT
+                        ? row(nextState, rowBytes) : table.getInt(failureRow + Integer.BYTES * i));
+            }
+        }
+
+        int position = stateCount * rowBytes;
+        for (int state = 0; state < stateCount; state++) {
+            int row = state * rowBytes;
+            table.putInt(row + Integer.BYTES * outputColumn, position);
+            for (int e = firstOutput[state]; e != NONE; e = nextOutput[e]) {
+                table.putInt(position, outputKeyword[e]);
+                position += Integer.BYTES;
+            }
+            table.putInt(row + Integer.BYTES * (outputColumn + 1), position);
+        }
+
+        String[] keywords = keywordIndex.keySet().toArray(new String[0]);
+        return new Automaton(keywords, classes, otherClass, table.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN),
+                rowBytes, stateCount);
+    }
+
+    private int row(int state, int rowBytes) {
+        return firstOutput[state] == NONE ? state * rowBytes : state * rowBytes | Automaton.MATCH;
+    }
+
+    /**
+     * getTransitionMap
+     *
+     * @return copy of the transitions entered so far, (state, symbol) -> state
+     */
     public Map<Key, Integer> getTransitionMap() {
+        Map<Key, Integer> transitionMap = new LinkedHashMap<>();
+        transitions.forEach((state, symbol, target) -> transitionMap.put(new Key(state, symbol), target));
         return transitionMap;
     }
 
+    /**
+     * getOutputMap
+     *
+     * @return copy of the keywords found in every state that has some
+     */
     public Map<Integer, List<String>> getOutputMap() {
+        String[] keywords = keywordIndex.keySet().toArray(new String[0]);
+        Map<Integer, List<String>> outputMap = new LinkedHashMap<>();
+        for (int state = 0; state <= newState; state++) {
+            for (int e = firstOutput[state]; e != NONE; e = nextOutput[e]) {
+                outputMap.computeIfAbsent(state, s -> new ArrayList<>()).add(keywords[outputKeyword[e]]);
+            }
+        }
         return outputMap;
     }
 
@@ -146,7 +350,16 @@ public class FiniteStateAutomata {
         return alphabet;
     }
 
+    /**
+     * getFailureMap
+     *
+     * @return copy of the failure states, in breadth-first order of the states; empty before failureFunction
+     */
     public Map<Integer, Integer> getFailureMap() {
+        Map<Integer, Integer> failureMap = new LinkedHashMap<>();
+        for (int head = 0; head < orderLength; head++) {
+            failureMap.put(order[head], failures[order[head]]);
+        }
         return failureMap;
     }
 }
@@ -0,0 +1,87 @@
+package com.project.DiseaseDiagnosis;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Class KeywordResult holds everything found for one keyword: the number of occurrences, the longest tandem
+ * repeat runs and the Disease Diagnosis results of the diseases caused by repeats of the keyword. If both strands
+ * were scanned, the keyword is a canonical motif and the count is split into its forward and reverse strand counts.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class KeywordResult {
+
+    private final String keyword;
+    private final long count;
+    private final List<RepeatRun> topRuns;
+    private final List<DiseaseClassification> diseases;
+    private Long forwardCount;
+    private Long reverseCount;
+
+    public KeywordResult(String keyword, long count, List<RepeatRun> topRuns, List<DiseaseClassification> diseases) {
+        this.keyword = keyword;
+        this.count = count;
+        this.topRuns = topRuns;
+        this.diseases = diseases;
+    }
+
+    /**
+     * setStrandCounts sets the number of occurrences on the forward and on the reverse strand
+     */
+    public KeywordResult setStrandCounts(long forwardCount, long reverseCount) {
+        this.forwardCount = forwardCount;
+        this.reverseCount = reverseCount;
+        return this;
+    }
+
+    public String getKeyword() {
+        return keyword;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * getLongestRun
+     *
+     * @return the longest tandem run of the keyword, null if the keyword was not found
+     */
+    public RepeatRun getLongestRun() {
+        return topRuns.isEmpty() ? null : topRuns.get(0);
+    }
+
+    /**
+     * getTopRuns
+     *
+     * @return the longest tandem runs of the keyword, longest first
+     */
+    public List<RepeatRun> getTopRuns() {
+        return topRuns;
+    }
+
+    public List<DiseaseClassification> getDiseases() {
+        return diseases;
+    }
+
+    public Long getForwardCount() {
+        return forwardCount;
+    }
+
+    public Long getReverseCount() {
+        return reverseCount;
+    }
+
+    @Override
+    public String toString() {
+        return "KeywordResult{" +
+                "keyword=" + keyword +
+                ", count=" + count +
+                ", forwardCount=" + forwardCount +
+                ", reverseCount=" + reverseCount +
+                ", topRuns=" + topRuns +
+                ", diseases=" + diseases +
+                '}';
+    }
+}
@@ -4,18 +4,25 @@ package com.project.DiseaseDiagnosis;
  * This software is based on Aho-Corasick string searching algorithm which constructs a
  * finite state machine (DFA) based on input keywords. The algorithm locates elements of a finite set
  * of strings within an input DNA Sequence text and Diagnose chances of Diseases.
- * It also compares the efficiency of sequential and parallel approaches.
+ * It runs one of the sequential, parallel and vector approaches per request (see EnginePlanner), and can
+ * compare their efficiency on the same input.
  */
 
 
 import java.io.*;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
 /**
- * Class Main contains main method and helper methods. Also, it has transition map, output map, failure map and list
- * of characters named alphabet. Transition map and failure map are used in finite state machine and
- * output map is used for finding keywords in DNA Sequence.
+ * Class Main contains main method and helper methods. It has no mutable state: the compiled automaton is
+ * passed to every scan as a parameter, so concurrent requests never interfere with each other. The default
+ * keywords and the disease ranges are taken from the current version of a DictionaryRegistry.
  */
 public class Main {
 
@@ -25,39 +32,48 @@ public class Main {
     private static final Runtime runtime = Runtime.getRuntime();
 
     /**
-     * Initializing Required variables
+     * automatonCache stores compiled automata, so a keyword set is compiled only once
      */
-    private static String[] keywords = null;
-    private static File keywordsFile = null;
-    private static File textFile = null;
-    private static BufferedReader bufferedReader = null;
-    private static final int BLOCK_LENGTH = 20000;
-    static int maxLengthKeyword;
+    private final AutomatonCache automatonCache;
 
     /**
-     * transitionMap stores pairs (current state, input symbol) -> new state
+     * dictionaries publishes the default keywords and the disease ranges
      */
-    static Map<Key, Integer> transitionMap = new LinkedHashMap<>();
+    private final DictionaryRegistry dictionaries;
 
     /**
-     * outputMap defines states in which certain keywords are found
+     * metrics records the time of every stage and the bytes and matches of every scan
      */
-    static Map<Integer, List<String>> outputMap = new LinkedHashMap<>();
+    private final DiagnosisMetrics metrics;
 
     /**
-     * failureMap stores pairs (current state -> failure state) according to Aho-Corasick algorithm
+     * planner chooses the engine of every scan and is calibrated by the scan times
      */
-    static Map<Integer, Integer> failureMap = new LinkedHashMap<>();
+    private final EnginePlanner planner;
 
-    /**
-     * diseaseRanges Stores the Nucleotide Repeat Disease Ranges
-     */
-    private static final HashMap<String, HashMap<String, ArrayList<Pair>>> diseaseRanges = new HashMap<>();
+    public Main() {
+        this(new AutomatonCache(), DictionaryRegistry.DEFAULT);
+    }
+
+    public Main(AutomatonCache automatonCache, DictionaryRegistry dictionaries) {
+        this(automatonCache, dictionaries, DiagnosisMetrics.GLOBAL, EnginePlanner.GLOBAL);
+    }
+
+    public Main(AutomatonCache automatonCache, DictionaryRegistry dictionaries, DiagnosisMetrics metrics, EnginePlanner planner) {
+        this.automatonCache = automatonCache;
+        this.dictionaries = dictionaries;
+        this.metrics = metrics;
+        this.planner = planner;
+    }
 
     /**
-     * alphabet stores all characters from keywords and DNA Sequence (i.e A, C, T, G)
+     * getMetrics
+     *
+     * @return metrics every stage of this Main is recorded into
      */
-    private static List<Character> alphabet = new ArrayList<>();
+    DiagnosisMetrics getMetrics() {
+        return metrics;
+    }
 
     /**
      * Main method reads input keywords and DNA Sequence from two files. It produces both Terminal and file outputs:
@@ -65,285 +81,830 @@ public class Main {
      * file - Count of keywords that were located in the DNA Sequence and Disease Diagnosis results.
      */
     public String mainFunc(File dnaSequence) throws IOException, InterruptedException {
+        return mainFunc(dnaSequence, new ParallelScanner());
+    }
+
+    /**
+     * Same as mainFunc(dnaSequence), with block size and parallelism of the parallel approach set by parallelScanner.
+     */
+    public String mainFunc(File dnaSequence, ParallelScanner parallelScanner) throws IOException, InterruptedException {
+        return mainFunc(dnaSequence, dictionaries.current().getKeywords(), parallelScanner);
+    }
 
-        readInputKeywords();
+    /**
+     * Same as mainFunc(dnaSequence, parallelScanner) for a custom set of keywords. The automaton is taken from
+     * automatonCache, so it is constructed only by the first request with this set of keywords.
+     */
+    public String mainFunc(File dnaSequence, String[] keywords, ParallelScanner parallelScanner) throws IOException, InterruptedException {
+        return mainFunc(dnaSequence, keywords, parallelScanner, EnginePlanner.AUTO);
+    }
+
+    /**
+     * Same as mainFunc(dnaSequence, keywords, parallelScanner) with the engine: one of EnginePlanner.ENGINES
+     *
+     * @throws IllegalArgumentException if the engine is unknown
+     */
+    public String mainFunc(File dnaSequence, String[] keywords, ParallelScanner parallelScanner, String engine) throws IOException, InterruptedException {
+        return mainFunc(dnaSequence, keywords, parallelScanner, engine, diagnosis -> {});
+    }
+
+    /**
+     * Same as mainFunc(dnaSequence, keywords, parallelScanner, engine), also passing the diagnosis part of the
+     * report (the keywords, runs and diseases, without times or the engine) to diagnosis, e.g. to cache it
+     */
+    public String mainFunc(File dnaSequence, String[] keywords, ParallelScanner parallelScanner, String engine,
+                           Consumer<String> diagnosis) throws IOException, InterruptedException {
+        EnginePlanner.checkEngine(engine);
         String returnData = "";
+        boolean cached = automatonCache.contains(keywords);
         long startTime1 = System.nanoTime();        // Measuring time
-        preprocessingStage();
-        long currentTime1 = System.nanoTime() - startTime1;
-        returnData += "Construction of finite state machine (DFA) is done in " + currentTime1 / 1000000.0 + " ms." + "\n";
+        Automaton automaton = automatonCache.get(keywords);
+        long currentTime1 = metrics.record(cached ? DiagnosisMetrics.DFA_CACHE_LOOKUP : DiagnosisMetrics.DFA_BUILD, startTime1);
+        returnData += automatonStageReport(cached, currentTime1);
+
+        return returnData + mainFunc(dnaSequence, automaton, parallelScanner, engine, diagnosis);
+    }
+
+    /**
+     * streamFunc finds all occurrences of keywords in a DNA Sequence that is read from a stream (e.g. the body of
+     * an upload request) while it arrives. Every chunk is sent to the DFA as soon as it is read and the DFA state
+     * is carried from one chunk to the next, so the sequence is never stored on disk or in memory and the
+     * result is ready as soon as the last byte is received. FASTA, FASTQ and compressed streams are decompressed
+     * and split into records like in diagnoseRecords.
+     */
+    public String streamFunc(InputStream dnaSequence, String[] keywords) throws IOException {
+        String returnData = "";
+        boolean cached = automatonCache.contains(keywords);
+        long startTime1 = System.nanoTime();        // Measuring time
+        Automaton automaton = automatonCache.get(keywords);
+        long currentTime1 = metrics.record(cached ? DiagnosisMetrics.DFA_CACHE_LOOKUP : DiagnosisMetrics.DFA_BUILD, startTime1);
+        returnData += automatonStageReport(cached, currentTime1);
 
         long startTime2 = System.nanoTime();
-        returnData = sequentialProcessing(returnData, dnaSequence);
+        RecordDiagnosis recordDiagnosis = new RecordDiagnosis(automaton, RepeatTracker.DEFAULT_TOP, ranges());
+        RecordScanner recordScanner = new RecordScanner(automaton, RepeatTracker.DEFAULT_TOP, recordDiagnosis);
+        long totalBytes;
+        try (InputStream inputStream = SequenceInput.open(dnaSequence)) {
+            totalBytes = recordScanner.feed(inputStream);
+        }
+        recordScanner.finish();
+        if (totalBytes == 0) {
+            throw new IllegalArgumentException("DNA Sequence cannot be empty!");
+        }
+        metrics.recordScan(DiagnosisMetrics.STREAM, totalBytes, recordDiagnosis.getCounts(),
+                metrics.record(DiagnosisMetrics.STREAM_SCAN, startTime2));
+        long diagnosisTime = System.nanoTime();
+        List<KeywordResult> results = recordDiagnosis.getResults();
+        metrics.record(DiagnosisMetrics.DIAGNOSIS, diagnosisTime);
+        returnData = printOutput(results, returnData);
         long currentTime2 = System.nanoTime() - startTime2;
-        returnData += "Finding all keywords in DNA Sequence(in Sequential Manner) is done in " + currentTime2 / 1000000.0 + " ms." + "\n";
+        returnData += "Finding all keywords in DNA Sequence(while receiving " + totalBytes + " bytes) is done in " + currentTime2 / 1000000.0 + " ms." + "\n";
+        return returnData;
+    }
 
-        List<String> dataBlocks = divideDNASequenceIntoBlocks(dnaSequence);
+    /**
+     * diagnose finds all occurrences and tandem repeat runs of keywords in the DNA Sequence with the engine chosen
+     * by the planner and returns the typed result (see DiagnosisResult) instead of a formatted report
+     *
+     * @throws IllegalArgumentException if the DNA Sequence is empty
+     */
+    public DiagnosisResult diagnose(File dnaSequence, String[] keywords, ParallelScanner parallelScanner) throws IOException, InterruptedException {
+        return diagnose(dnaSequence, keywords, parallelScanner, 0, EnginePlanner.AUTO);
+    }
 
-        long startTime3 = System.nanoTime();
-        returnData = parallelProcessing(dataBlocks, returnData);
-        long currentTime3 = System.nanoTime() - startTime3;
+    /**
+     * Same as diagnose(dnaSequence, keywords, parallelScanner) with the engine: sequential, parallel or vector,
+     * EnginePlanner.AUTO for the engine chosen by the planner, or EnginePlanner.COMPARE, which runs all engines
+     * (for diagnostics), checks that their results are equal and returns the result of the engine the planner
+     * would choose with the scan times of all engines. The result reports the engine and the reason for it.
+     * FASTA, FASTQ and compressed input is always read as a stream (see diagnoseRecords).
+     *
+     * @throws IllegalArgumentException if the DNA Sequence is empty or the engine is unknown
+     */
+    public DiagnosisResult diagnose(File dnaSequence, String[] keywords, ParallelScanner parallelScanner, String engine) throws IOException, InterruptedException {
+        EnginePlanner.checkEngine(engine);
+        if (dnaSequence.length() == 0) {
+            throw new IllegalArgumentException("DNA Sequence cannot be empty!");
+        }
+        boolean cached = automatonCache.contains(keywords);
+        String automatonStage = cached ? DiagnosisMetrics.DFA_CACHE_LOOKUP : DiagnosisMetrics.DFA_BUILD;
+        long startTime1 = System.nanoTime();
+        Automaton automaton = automatonCache.get(keywords);
+        long currentTime1 = metrics.record(automatonStage, startTime1);
+        if (!SequenceInput.isRawSequence(dnaSequence.toPath())) {
+            return diagnoseRecords(dnaSequence, automaton, null, new AtomicLong()).addTiming(automatonStage, currentTime1);
+        }
+        if (engine.equals(EnginePlanner.COMPARE)) {
+            return compare(dnaSequence, automaton, parallelScanner).addTiming(automatonStage, currentTime1);
+        }
 
-        returnData += "Finding all keywords in DNA Sequence(in Parallel Manner) is done in " + currentTime3 / 1000000.0 + " ms." + "\n";
+        EnginePlanner.Plan plan = planner.plan(engine, dnaSequence.length(), automaton,
+                automatonCache.prefilter(automaton), parallelScanner);
+        long startTime2 = System.nanoTime();
+        RepeatTracker tracker = plan.getEngine().equals(DiagnosisMetrics.PARALLEL)
+                ? scanParallel(dnaSequence, automaton, parallelScanner)
+                : scan(plan.getEngine(), dnaSequence, automaton, plan.getPrefilter(), new AtomicLong());
+        long currentTime2 = System.nanoTime() - startTime2;
+        return result(plan.getEngine(), dnaSequence, tracker, currentTime2)
+                .setEngineReason(plan.getReason())
+                .addTiming(automatonStage, currentTime1);
+    }
 
-        int kib = 1024;
+    /**
+     * diagnose finds all occurrences and tandem repeat runs of the keywords of all panels in the DNA Sequence in one
+     * scan with the merged automaton (see PanelSet) and returns the result of every panel, in panel order. The engine
+     * is chosen by the planner; FASTA, FASTQ and compressed input is read as a stream and diagnosed as a whole,
+     * without the results of every record. Every result reports the scan time of the shared scan and the number of
+     * panels it answered.
+     *
+     * @throws IllegalArgumentException if the DNA Sequence is empty
+     */
+    public List<DiagnosisResult> diagnose(File dnaSequence, PanelSet panels, ParallelScanner parallelScanner) throws IOException, InterruptedException {
+        if (dnaSequence.length() == 0) {
+            throw new IllegalArgumentException("DNA Sequence cannot be empty!");
+        }
+        Automaton automaton = panels.getAutomaton();
+        DiseaseRanges ranges = ranges();
+        String engine;
+        String reason = null;
+        long bytesScanned;
+        long[] counts;
+        IntFunction<List<RepeatRun>> topRuns;
+        long startTime1 = System.nanoTime();
+        if (SequenceInput.isRawSequence(dnaSequence.toPath())) {
+            EnginePlanner.Plan plan = planner.plan(EnginePlanner.AUTO, dnaSequence.length(), automaton,
+                    automatonCache.prefilter(automaton), parallelScanner);
+            RepeatTracker tracker = plan.getEngine().equals(DiagnosisMetrics.PARALLEL)
+                    ? scanParallel(dnaSequence, automaton, parallelScanner)
+                    : scan(plan.getEngine(), dnaSequence, automaton, plan.getPrefilter(), new AtomicLong());
+            engine = plan.getEngine();
+            reason = plan.getReason();
+            bytesScanned = dnaSequence.length();
+            counts = tracker.getCounts();
+            topRuns = tracker::getTopRuns;
+        } else {
+            RecordDiagnosis recordDiagnosis = new RecordDiagnosis(automaton, RepeatTracker.DEFAULT_TOP, ranges);
+            RecordScanner recordScanner = new RecordScanner(automaton, RepeatTracker.DEFAULT_TOP, recordDiagnosis);
+            try (InputStream inputStream = SequenceInput.open(dnaSequence.toPath(), new AtomicLong())) {
+                bytesScanned = recordScanner.feed(inputStream);
+            }
+            recordScanner.finish();
+            if (bytesScanned == 0) {
+                throw new IllegalArgumentException("DNA Sequence cannot be empty!");
+            }
+            engine = DiagnosisMetrics.STREAM;
+            counts = recordDiagnosis.getCounts();
+            topRuns = recordDiagnosis::getTopRuns;
+            metrics.recordScan(engine, bytesScanned, counts, metrics.record(DiagnosisMetrics.STREAM_SCAN, startTime1));
+        }
+        long currentTime1 = System.nanoTime() - startTime1;
 
-        returnData += "Total memory used: " + (runtime.totalMemory() - runtime.freeMemory()) / kib + " KiB." + "\n";
+        List<DiagnosisResult> diagnosisResults = new ArrayList<>(panels.getPanelCount());
+        for (int panel = 0; panel < panels.getPanelCount(); panel++) {
+            long startTime2 = System.nanoTime();
+            List<KeywordResult> results = panels.diagnose(panel, counts, topRuns, RepeatTracker.DEFAULT_TOP, ranges);
+            long currentTime2 = metrics.record(DiagnosisMetrics.DIAGNOSIS, startTime2);
+            diagnosisResults.add(new DiagnosisResult(engine, bytesScanned, results)
+                    .setEngineReason(reason)
+                    .setPanelCount(panels.getPanelCount())
+                    .addTiming(scanStage(engine), currentTime1)
+                    .addTiming(DiagnosisMetrics.DIAGNOSIS, currentTime2));
+        }
+        return diagnosisResults;
+    }
 
-        return returnData;
+    /**
+     * compare runs the sequential, parallel and (where a prefilter is available) vector engines over the same raw
+     * DNA Sequence
+     *
+     * @throws IllegalStateException if the engines do not find the same results
+     */
+    private DiagnosisResult compare(File dnaSequence, Automaton automaton, ParallelScanner parallelScanner) throws IOException, InterruptedException {
+        Prefilter prefilter = automatonCache.prefilter(automaton);
+        EnginePlanner.Plan plan = planner.plan(EnginePlanner.COMPARE, dnaSequence.length(), automaton, prefilter, parallelScanner);
+        Map<String, RepeatTracker> trackers = new LinkedHashMap<>();
+        Map<String, Long> scanTimes = new LinkedHashMap<>();
+        for (String engine : new String[]{DiagnosisMetrics.SEQUENTIAL, DiagnosisMetrics.PARALLEL, DiagnosisMetrics.VECTOR}) {
+            if (engine.equals(DiagnosisMetrics.VECTOR) && prefilter == null) {
+                continue;
+            }
+            long startTime = System.nanoTime();
+            trackers.put(engine, engine.equals(DiagnosisMetrics.PARALLEL)
+                    ? scanParallel(dnaSequence, automaton, parallelScanner)
+                    : scan(engine, dnaSequence, automaton, prefilter, new AtomicLong()));
+            scanTimes.put(engine, System.nanoTime() - startTime);
+        }
+        DiseaseRanges ranges = ranges();
+        String expected = diagnose(trackers.get(DiagnosisMetrics.SEQUENTIAL), ranges).toString();
+        StringBuilder reason = new StringBuilder("compare:");
+        for (Map.Entry<String, RepeatTracker> entry : trackers.entrySet()) {
+            if (!diagnose(entry.getValue(), ranges).toString().equals(expected)) {
+                throw new IllegalStateException("Engine " + entry.getKey() + " does not find the same results as engine "
+                        + DiagnosisMetrics.SEQUENTIAL + "!");
+            }
+            reason.append(' ').append(entry.getKey()).append(' ').append(scanTimes.get(entry.getKey()) / 1000000.0).append(" ms,");
+        }
+        reason.append(" all equal; planner chose ").append(plan.getEngine()).append(" (").append(plan.getReason()).append(')');
+
+        DiagnosisResult diagnosisResult = result(plan.getEngine(), dnaSequence, trackers.get(plan.getEngine()),
+                scanTimes.get(plan.getEngine()));
+        for (Map.Entry<String, Long> entry : scanTimes.entrySet()) {
+            if (!entry.getKey().equals(plan.getEngine())) {
+                diagnosisResult.addTiming(scanStage(entry.getKey()), entry.getValue());
+            }
+        }
+        return diagnosisResult.setEngineReason(reason.toString());
+    }
+
+    /**
+     * diagnose finds all occurrences and tandem repeat runs of keywords in the DNA Sequence with the sequential
+     * approach, so many samples can be diagnosed at the same time on separate threads (see BatchDiagnosis)
+     *
+     * @throws IllegalArgumentException if the DNA Sequence is empty
+     */
+    public DiagnosisResult diagnose(File dnaSequence, Automaton automaton) throws IOException {
+        return diagnose(dnaSequence, automaton, new AtomicLong());
     }
 
-    /** This static block is used to load the data of nucleotide repeat diseases ranges into diseaseRanges map
-     * which is used later for disease diagnosis */
-    static {
+    /**
+     * Same as diagnose(dnaSequence, automaton), with the number of bytes scanned so far published in progress.
+     * The scan stops with InterruptedIOException when the thread is interrupted (see ScanJobs).
+     */
+    public DiagnosisResult diagnose(File dnaSequence, Automaton automaton, AtomicLong progress) throws IOException {
+        if (dnaSequence.length() == 0) {
+            throw new IllegalArgumentException("DNA Sequence cannot be empty!");
+        }
+        if (!SequenceInput.isRawSequence(dnaSequence.toPath())) {
+            return diagnoseRecords(dnaSequence, automaton, null, progress);
+        }
+        long startTime1 = System.nanoTime();
+        RepeatTracker tracker = scan(DiagnosisMetrics.SEQUENTIAL, dnaSequence, automaton, null, progress);
+        return result(DiagnosisMetrics.SEQUENTIAL, dnaSequence, tracker, System.nanoTime() - startTime1);
+    }
+
+    /**
+     * Same as diagnose(dnaSequence, automaton, progress) with the vector engine, which skips positions where no
+     * keyword can start with the prefilter. Without a prefilter (null, see AutomatonCache.prefilter) and for FASTA, FASTQ and
+     * compressed input, the engine of diagnose(dnaSequence, automaton, progress) is used.
+     */
+    public DiagnosisResult diagnose(File dnaSequence, Automaton automaton, Prefilter prefilter, AtomicLong progress) throws IOException {
+        if (prefilter == null || !SequenceInput.isRawSequence(dnaSequence.toPath())) {
+            return diagnose(dnaSequence, automaton, progress);
+        }
+        if (dnaSequence.length() == 0) {
+            throw new IllegalArgumentException("DNA Sequence cannot be empty!");
+        }
+        long startTime1 = System.nanoTime();
+        RepeatTracker tracker = scan(DiagnosisMetrics.VECTOR, dnaSequence, automaton, prefilter, progress);
+        return result(DiagnosisMetrics.VECTOR, dnaSequence, tracker, System.nanoTime() - startTime1);
+    }
+
+    /**
+     * scan finds all occurrences and tandem repeat runs of keywords in a raw DNA Sequence on the calling thread, with
+     * the sequential engine or the vector engine and its prefilter. The scan time is recorded in metrics and
+     * calibrates the planner.
+     */
+    private RepeatTracker scan(String engine, File dnaSequence, Automaton automaton, Prefilter prefilter,
+                               AtomicLong progress) throws IOException {
+        long startTime = System.nanoTime();
+        RepeatTracker tracker;
+        planner.enter();
         try {
-            File diseaseRangesFile = new File("src/main/resources/NucleotideRepeatDiseaseRanges");
-            BufferedReader bufferedReader = new BufferedReader(new FileReader(diseaseRangesFile));
-            String line;
-            while ((line = bufferedReader.readLine()) != null) {
-                String[] contents = line.split(",");
-                String diseaseName = contents[0];
-                String pattern = contents[1];
-                ArrayList<Pair> ranges = new ArrayList<>();
-                for (int i = 2; i < 5; i++) {
-                    Pair currPair = new Pair();
-                    String[] range = contents[i].split("-");
-                    currPair.setLow(Integer.parseInt(range[0]));
-                    if (range[1].compareTo("inf") == 0) {
-                        currPair.setHigh(Integer.MAX_VALUE);
-                    } else {
-                        currPair.setHigh(Integer.parseInt(range[1]));
+            tracker = engine.equals(DiagnosisMetrics.VECTOR)
+                    ? MappedFileScanner.scanRepeats(automaton, prefilter, dnaSequence.toPath(), RepeatTracker.DEFAULT_TOP, progress)
+                    : MappedFileScanner.scanRepeats(automaton, dnaSequence.toPath(), RepeatTracker.DEFAULT_TOP, progress);
+        } finally {
+            planner.exit();
+        }
+        long currentTime = metrics.record(scanStage(engine), startTime);
+        metrics.recordScan(engine, dnaSequence.length(), tracker.getCounts(), currentTime);
+        planner.observe(engine, dnaSequence.length(), 1, automaton, currentTime);
+        return tracker;
+    }
+
+    /**
+     * Same as scan(engine, ...) with the parallel engine
+     */
+    private RepeatTracker scanParallel(File dnaSequence, Automaton automaton, ParallelScanner parallelScanner) throws IOException, InterruptedException {
+        long startTime = System.nanoTime();
+        RepeatTracker tracker = parallelScanner.scanRepeats(automaton, dnaSequence.toPath(), RepeatTracker.DEFAULT_TOP);
+        long currentTime = metrics.record(DiagnosisMetrics.PARALLEL_SCAN, startTime);
+        metrics.recordScan(DiagnosisMetrics.PARALLEL, dnaSequence.length(), tracker.getCounts(), currentTime);
+        planner.observe(DiagnosisMetrics.PARALLEL, dnaSequence.length(), parallelScanner.lanes(dnaSequence.length()),
+                automaton, currentTime);
+        return tracker;
+    }
+
+    /**
+     * result diagnoses the occurrences and runs found by a scan of the engine
+     */
+    private DiagnosisResult result(String engine, File dnaSequence, RepeatTracker tracker, long scanTime) {
+        long startTime = System.nanoTime();
+        List<KeywordResult> results = diagnose(tracker, ranges());
+        long currentTime = metrics.record(DiagnosisMetrics.DIAGNOSIS, startTime);
+
+        return new DiagnosisResult(engine, dnaSequence.length(), results)
+                .addTiming(scanStage(engine), scanTime)
+                .addTiming(DiagnosisMetrics.DIAGNOSIS, currentTime);
+    }
+
+    private static String scanStage(String engine) {
+        switch (engine) {
+            case DiagnosisMetrics.PARALLEL:
+                return DiagnosisMetrics.PARALLEL_SCAN;
+            case DiagnosisMetrics.VECTOR:
+                return DiagnosisMetrics.VECTOR_SCAN;
+            case DiagnosisMetrics.STREAM:
+                return DiagnosisMetrics.STREAM_SCAN;
+            default:
+                return DiagnosisMetrics.SEQUENTIAL_SCAN;
+        }
+    }
+
+    /**
+     * diagnose is the same as diagnose(dnaSequence, keywords, parallelScanner), but keywords are also found with up
+     * to mismatches substituted bases (see MismatchMatcher), so sequencing errors do not break repeat runs. With
+     * 0 mismatches the exact engines are used.
+     *
+     * @throws IllegalArgumentException if the DNA Sequence is empty or mismatches is out of range
+     */
+    public DiagnosisResult diagnose(File dnaSequence, String[] keywords, ParallelScanner parallelScanner, int mismatches) throws IOException, InterruptedException {
+        return diagnose(dnaSequence, keywords, parallelScanner, mismatches, EnginePlanner.AUTO);
+    }
+
+    /**
+     * Same as diagnose(dnaSequence, keywords, parallelScanner, mismatches), with the engine of exact matching (see
+     * diagnose(dnaSequence, keywords, parallelScanner, engine)); keywords with mismatches have one engine only
+     */
+    public DiagnosisResult diagnose(File dnaSequence, String[] keywords, ParallelScanner parallelScanner, int mismatches,
+                                    String engine) throws IOException, InterruptedException {
+        if (mismatches == 0) {
+            return diagnose(dnaSequence, keywords, parallelScanner, engine);
+        }
+        EnginePlanner.checkEngine(engine);
+        if (dnaSequence.length() == 0) {
+            throw new IllegalArgumentException("DNA Sequence cannot be empty!");
+        }
+        boolean cached = automatonCache.contains(keywords);
+        String automatonStage = cached ? DiagnosisMetrics.DFA_CACHE_LOOKUP : DiagnosisMetrics.DFA_BUILD;
+        long startTime1 = System.nanoTime();
+        Automaton automaton = automatonCache.get(keywords);
+        long currentTime1 = metrics.record(automatonStage, startTime1);
+        return diagnose(dnaSequence, new MismatchMatcher(automaton, mismatches), new AtomicLong())
+                .addTiming(automatonStage, currentTime1);
+    }
+
+    /**
+     * diagnose finds all occurrences with at most matcher.getMismatches() substituted bases and the tandem repeat
+     * runs they form in the DNA Sequence, with progress and interruption like diagnose(dnaSequence, automaton, progress)
+     *
+     * @throws IllegalArgumentException if the DNA Sequence is empty
+     */
+    public DiagnosisResult diagnose(File dnaSequence, MismatchMatcher matcher, AtomicLong progress) throws IOException {
+        if (dnaSequence.length() == 0) {
+            throw new IllegalArgumentException("DNA Sequence cannot be empty!");
+        }
+        if (!SequenceInput.isRawSequence(dnaSequence.toPath())) {
+            return diagnoseRecords(dnaSequence, matcher.getAutomaton(), matcher, progress);
+        }
+        long startTime1 = System.nanoTime();
+        RepeatTracker tracker = MappedFileScanner.scanRepeats(matcher, dnaSequence.toPath(), RepeatTracker.DEFAULT_TOP, progress);
+        long currentTime1 = metrics.record(DiagnosisMetrics.MISMATCH_SCAN, startTime1);
+        metrics.recordScan(DiagnosisMetrics.MISMATCH, dnaSequence.length(), tracker.getCounts(), currentTime1);
+
+        long startTime2 = System.nanoTime();
+        List<KeywordResult> results = diagnose(tracker, ranges());
+        long currentTime2 = metrics.record(DiagnosisMetrics.DIAGNOSIS, startTime2);
+
+        return new DiagnosisResult(DiagnosisMetrics.MISMATCH, dnaSequence.length(), results)
+                .setMismatches(matcher.getMismatches())
+                .addTiming(DiagnosisMetrics.MISMATCH_SCAN, currentTime1)
+                .addTiming(DiagnosisMetrics.DIAGNOSIS, currentTime2);
+    }
+
+    /**
+     * diagnoseRecords diagnoses a FASTA, FASTQ or gzip/BGZF compressed DNA Sequence while it is read and
+     * decompressed (see RecordScanner and SequenceInput). Headers and quality strings are skipped, and every
+     * record is diagnosed on its own as well as together with all other records (see RecordDiagnosis).
+     *
+     * @param matcher matches the keywords with mismatches, null for exact matching by the automaton
+     */
+    private DiagnosisResult diagnoseRecords(File dnaSequence, Automaton automaton, MismatchMatcher matcher,
+                                            AtomicLong progress) throws IOException {
+        long startTime1 = System.nanoTime();
+        RecordDiagnosis recordDiagnosis = new RecordDiagnosis(automaton, RepeatTracker.DEFAULT_TOP, ranges());
+        RecordScanner recordScanner = matcher == null
+                ? new RecordScanner(automaton, RepeatTracker.DEFAULT_TOP, recordDiagnosis)
+                : new RecordScanner(matcher, RepeatTracker.DEFAULT_TOP, recordDiagnosis);
+        long totalBytes;
+        try (InputStream inputStream = SequenceInput.open(dnaSequence.toPath(), progress)) {
+            totalBytes = recordScanner.feed(inputStream);
+        }
+        recordScanner.finish();
+        if (totalBytes == 0) {
+            throw new IllegalArgumentException("DNA Sequence cannot be empty!");
+        }
+        long currentTime1 = metrics.record(DiagnosisMetrics.STREAM_SCAN, startTime1);
+        metrics.recordScan(DiagnosisMetrics.STREAM, totalBytes, recordDiagnosis.getCounts(), currentTime1);
+
+        long startTime2 = System.nanoTime();
+        List<KeywordResult> results = recordDiagnosis.getResults();
+        long currentTime2 = metrics.record(DiagnosisMetrics.DIAGNOSIS, startTime2);
+
+        DiagnosisResult diagnosisResult = new DiagnosisResult(DiagnosisMetrics.STREAM, totalBytes, results)
+                .addTiming(DiagnosisMetrics.STREAM_SCAN, currentTime1)
+                .addTiming(DiagnosisMetrics.DIAGNOSIS, currentTime2);
+        RecordScanner.SequenceFormat format = recordScanner.getFormat();
+        if (format != null && format != RecordScanner.SequenceFormat.RAW) {
+            diagnosisResult.setRecords(format, recordDiagnosis.getRecordCount(), recordDiagnosis.getRecords());
+        }
+        if (matcher != null) {
+            diagnosisResult.setMismatches(matcher.getMismatches());
+        }
+        return diagnosisResult;
+    }
+
+    /**
+     * writePositions writes every occurrence of the keywords in the DNA Sequence as one line of NDJSON to the
+     * output stream while the sequence is scanned (see PositionWriter). FASTA, FASTQ and compressed input is read
+     * as a stream (see RecordScanner), and every occurrence is written with its record.
+     *
+     * @return number of occurrences written
+     */
+    public long writePositions(File dnaSequence, String[] keywords, OutputStream outputStream) throws IOException {
+        Automaton automaton = automatonCache.get(keywords);
+        boolean raw = SequenceInput.isRawSequence(dnaSequence.toPath());
+        long startTime = System.nanoTime();
+        try (PositionWriter positionWriter = new PositionWriter(automaton, outputStream)) {
+            try {
+                if (raw) {
+                    try (FileChannel channel = FileChannel.open(dnaSequence.toPath(), StandardOpenOption.READ)) {
+                        MappedFileScanner.scan(automaton, channel, 0, channel.size(), positionWriter);
                     }
-                    ranges.add(currPair);
-                }
-                if (!diseaseRanges.containsKey(pattern)) {
-                    HashMap<String, ArrayList<Pair>> newTable = new HashMap<>();
-                    newTable.put(diseaseName, ranges);
-                    diseaseRanges.put(pattern, newTable);
                 } else {
-                    assert !diseaseRanges.get(pattern).containsKey(diseaseName) : "Repeated Disease Names for the same pattern";
-                    diseaseRanges.get(pattern).put(diseaseName, ranges);
+                    RecordScanner recordScanner = new RecordScanner(automaton, positionWriter);
+                    try (InputStream inputStream = SequenceInput.open(dnaSequence.toPath(), new AtomicLong())) {
+                        recordScanner.feed(inputStream);
+                    }
+                    recordScanner.finish();
                 }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
             }
-        } catch (FileNotFoundException e) {
-            System.err.println("File with Nucleotide Repeat Diseases Ranges does not exist!");
-            System.exit(-1);
-        } catch (IOException e) {
-            e.printStackTrace();
+            metrics.record(raw ? DiagnosisMetrics.SEQUENTIAL_SCAN : DiagnosisMetrics.STREAM_SCAN, startTime);
+            return positionWriter.getWritten();
         }
     }
 
     /**
-     * readInputKeywords reads all the keywords from the input file. It also removes empty and duplicate keywords
+     * diagnose finds all occurrences and tandem repeat runs of the keywords of the automaton in an indexed DNA
+     * Sequence (see SequenceIndex) without scanning it: the time depends on the keyword lengths and the number of
+     * occurrences only. The result is the same as the result of a scan of the sequence.
      */
-    private static void readInputKeywords() throws IOException {
-        try {
-            keywordsFile = new File("src/main/resources/keywords.txt");
-            bufferedReader = new BufferedReader(new FileReader(keywordsFile));
-            StringBuilder stringBuilder = new StringBuilder();
-            String line = bufferedReader.readLine();
-            stringBuilder.append(line);
-            keywords = stringBuilder.toString().split(",");
-
-            /* Remove empty strings and duplicates from keywords */
-            List<String> list = new ArrayList<>(Arrays.asList(keywords));
-            list.removeAll(Arrays.asList("", null));
-            LinkedHashSet<String> ls = new LinkedHashSet<>(list);
-            keywords = ls.toArray(new String[0]);
+    public DiagnosisResult diagnose(SequenceIndex index, Automaton automaton) {
+        long startTime1 = System.nanoTime();
+        RepeatTracker tracker = new RepeatTracker(automaton, RepeatTracker.DEFAULT_TOP);
+        index.locate(automaton, tracker);
+        long currentTime1 = metrics.record(DiagnosisMetrics.INDEX_QUERY, startTime1);
+        metrics.recordScan(DiagnosisMetrics.INDEX, 0, tracker.getCounts(), currentTime1);
 
-        } catch (FileNotFoundException e) {
-            System.err.println("File with keywords does not exist!");
-            System.exit(-1);
+        long startTime2 = System.nanoTime();
+        List<KeywordResult> results = diagnose(tracker, ranges());
+        long currentTime2 = metrics.record(DiagnosisMetrics.DIAGNOSIS, startTime2);
+
+        return new DiagnosisResult(DiagnosisMetrics.INDEX, 0, results)
+                .addTiming(DiagnosisMetrics.INDEX_QUERY, currentTime1)
+                .addTiming(DiagnosisMetrics.DIAGNOSIS, currentTime2);
+    }
+
+    /**
+     * Same as writePositions(dnaSequence, keywords, outputStream) for an indexed DNA Sequence; the occurrences are
+     * written keyword by keyword (see SequenceIndex.locate)
+     */
+    public long writePositions(SequenceIndex index, String[] keywords, OutputStream outputStream) throws IOException {
+        Automaton automaton = automatonCache.get(keywords);
+        long startTime = System.nanoTime();
+        try (PositionWriter positionWriter = new PositionWriter(automaton, outputStream)) {
+            try {
+                index.locate(automaton, positionWriter);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            metrics.record(DiagnosisMetrics.INDEX_QUERY, startTime);
+            return positionWriter.getWritten();
         }
-        if (keywordsFile.length() == 0) {
-            System.err.println("File with keywords cannot be empty!");
-            System.exit(-1);
+    }
+
+    private static String automatonStageReport(boolean cached, long nanoTime) {
+        if (cached) {
+            return "Finite state machine (DFA) is taken from cache in " + nanoTime / 1000000.0 + " ms." + "\n";
         }
+        return "Construction of finite state machine (DFA) is done in " + nanoTime / 1000000.0 + " ms." + "\n";
     }
 
     /**
-     * readDnaSequence loads the input DNA Sequence into a buffered reader
+     * Same as mainFunc(dnaSequence, parallelScanner) for an already constructed automaton. The automaton is
+     * immutable, so any number of requests can scan against one shared instance at the same time.
      */
-    private static void readDnaSequence(File dnaSequence) {
-        try {
-            textFile = dnaSequence;
-            bufferedReader = new BufferedReader(new FileReader(textFile));
-        } catch (FileNotFoundException e) {
-            System.err.println("File with DNA Sequence does not exist!");
-            System.exit(-1);
-        }
-        if (textFile.length() == 0) {
-            System.err.println("File with DNA Sequence cannot be empty!");
-            System.exit(-1);
-        }
-    }
-
-    /**
-     * printOutput is used to print the Disease Diagnosis results by using countMap and comparing
-     * it with the Nucleotide Repeat disease ranges
-     */
-    private static String printOutput(Map<String, Integer> countMap, String returnData) {
-        returnData += String.format("%15s %15s %15s %30s \n", "Keyword", "Count", "Disease Name", "Disease Diagnosis Result");
-        for (Map.Entry<String, Integer> i : countMap.entrySet()) {
-            String pattern = i.getKey();
-            int count = i.getValue();
-            if (diseaseRanges.containsKey(pattern)) {
-                for (Map.Entry<String, ArrayList<Pair>> data : diseaseRanges.get(pattern).entrySet()) {
-                    String diseaseName = data.getKey();
-                    ArrayList<Pair> ranges = data.getValue();
-                    String[] results = {"NormalRange", "Pre-mutedRange", "DiseaseAffected"};
-                    int result = 3;
-                    for (int j = 0; (j < ranges.size()) && result == 3; j++) {
-                        if (count >= ranges.get(j).getLow() && count <= ranges.get(j).getHigh()) {
-                            result = j;
-                        }
-                    }
-                    if (result < 3) {
-                        returnData += String.format("%15s %15s %15s %30s \n", pattern, count, diseaseName, results[result]);
-                    }
+    public String mainFunc(File dnaSequence, Automaton automaton, ParallelScanner parallelScanner) throws IOException, InterruptedException {
+        return mainFunc(dnaSequence, automaton, parallelScanner, EnginePlanner.AUTO);
+    }
+
+    /**
+     * Same as mainFunc(dnaSequence, automaton, parallelScanner) with the engine chosen like
+     * diagnose(dnaSequence, keywords, parallelScanner, engine). Only EnginePlanner.COMPARE runs more than one
+     * engine: the report then has the results and the time of every engine. FASTA, FASTQ and compressed input is
+     * always read as a stream (see diagnoseRecords).
+     */
+    public String mainFunc(File dnaSequence, Automaton automaton, ParallelScanner parallelScanner, String engine) throws IOException, InterruptedException {
+        return mainFunc(dnaSequence, automaton, parallelScanner, engine, diagnosis -> {});
+    }
+
+    /**
+     * Same as mainFunc(dnaSequence, automaton, parallelScanner, engine), also passing the diagnosis part of the
+     * report to diagnosis (once per engine)
+     */
+    public String mainFunc(File dnaSequence, Automaton automaton, ParallelScanner parallelScanner, String engine,
+                           Consumer<String> diagnosis) throws IOException, InterruptedException {
+        EnginePlanner.checkEngine(engine);
+        readDnaSequence(dnaSequence);
+        String returnData = "";
+        if (!SequenceInput.isRawSequence(dnaSequence.toPath())) {
+            returnData = processingRecords(automaton, dnaSequence, returnData, diagnosis);
+            returnData += "Engine: " + DiagnosisMetrics.STREAM + " (FASTA, FASTQ and compressed input is read as a stream)" + "\n";
+        } else {
+            Prefilter prefilter = automatonCache.prefilter(automaton);
+            EnginePlanner.Plan plan = planner.plan(engine, dnaSequence.length(), automaton, prefilter, parallelScanner);
+            if (engine.equals(EnginePlanner.COMPARE)) {
+                returnData = processing(DiagnosisMetrics.SEQUENTIAL, automaton, dnaSequence, parallelScanner, null, returnData, diagnosis);
+                returnData = processing(DiagnosisMetrics.PARALLEL, automaton, dnaSequence, parallelScanner, null, returnData, diagnosis);
+                if (prefilter != null) {
+                    returnData = processing(DiagnosisMetrics.VECTOR, automaton, dnaSequence, parallelScanner, prefilter, returnData, diagnosis);
                 }
+            } else {
+                returnData = processing(plan.getEngine(), automaton, dnaSequence, parallelScanner, plan.getPrefilter(), returnData, diagnosis);
             }
+            returnData += "Engine: " + plan.getEngine() + " (" + plan.getReason() + ")" + "\n";
         }
+
+        int kib = 1024;
+
+        returnData += "Total memory used: " + (runtime.totalMemory() - runtime.freeMemory()) / kib + " KiB." + "\n";
+
         return returnData;
     }
 
     /**
-     * divideDNASequenceIntoBlocks splits the input DNA sequence into blocks. The blocks have to
-     * partially overlap to allow pattern-matching across a boundary, which is equal to the
-     * length of the longest pattern in the dictionary minus 1 character.
+     * readInputKeywords reads all the keywords from the input file. It also removes empty and duplicate keywords
+     *
+     * @throws FileNotFoundException if the file does not exist
+     * @throws IOException if the file cannot be read or has no keywords
      */
-    private static List<String> divideDNASequenceIntoBlocks(File dnaSequence) throws IOException {
-        readDnaSequence(dnaSequence);
-        List<String> dataBlocks = new ArrayList<>();
-        int charsRead;
-        char[] characters = new char[BLOCK_LENGTH];
-        while ((charsRead = bufferedReader.read(characters, 0, BLOCK_LENGTH)) != -1) {
-            String currBlock = new String(characters, 0, charsRead);
-            currBlock = currBlock.replaceAll("\\r|\\n", "");
-            dataBlocks.add(currBlock);
+    static String[] readInputKeywords(File keywordsFile) throws IOException {
+        try (BufferedReader bufferedReader = new BufferedReader(new FileReader(keywordsFile))) {
+            return readInputKeywords(bufferedReader, "File with keywords " + keywordsFile);
+        } catch (FileNotFoundException e) {
+            throw new FileNotFoundException("File with keywords " + keywordsFile + " does not exist!");
         }
-        maxLengthKeyword = getMaximumLengthKeyword();
-        for (int i = 0; i < dataBlocks.size() - 1; i++) {
-            String currBlock = dataBlocks.get(i);
-            currBlock += dataBlocks.get(i + 1).substring(0, Math.min(maxLengthKeyword - 1, dataBlocks.get(i + 1).length()));
-            dataBlocks.set(i, currBlock);
+    }
+
+    /**
+     * Same as readInputKeywords(keywordsFile) for keywords read from bufferedReader, e.g. of a classpath resource
+     *
+     * @param source name of the keywords in error messages
+     * @throws IOException if the keywords cannot be read or there are none
+     */
+    static String[] readInputKeywords(BufferedReader bufferedReader, String source) throws IOException {
+        String line = bufferedReader.readLine();
+        if (line == null) {
+            throw new IOException(source + " cannot be empty!");
         }
-        return dataBlocks;
+        String[] keywords = line.split(",");
+
+        /* Remove empty strings and duplicates from keywords */
+        List<String> list = new ArrayList<>(Arrays.asList(keywords));
+        list.removeAll(Arrays.asList("", null));
+        LinkedHashSet<String> ls = new LinkedHashSet<>(list);
+        return ls.toArray(new String[0]);
     }
 
     /**
-     * getMaximumLengthKeyword
+     * readDnaSequence checks that the input DNA Sequence exists and is not empty
      *
-     * @return The length of the longest keyword
+     * @throws IllegalArgumentException if the file does not exist or is empty
      */
-    private static int getMaximumLengthKeyword() {
-        int ans = 0;
-        for (String keyword : keywords) {
-            if (keyword.length() > ans) {
-                ans = keyword.length();
+    private static void readDnaSequence(File dnaSequence) {
+        if (!dnaSequence.isFile()) {
+            throw new IllegalArgumentException("File with DNA Sequence does not exist!");
+        }
+        if (dnaSequence.length() == 0) {
+            throw new IllegalArgumentException("File with DNA Sequence cannot be empty!");
+        }
+    }
+
+    /**
+     * diagnose compares the number of repeats in the longest run of every keyword that was found with the
+     * Nucleotide Repeat disease ranges. Nucleotide repeat diseases are caused by long tandem runs of a pattern
+     * (e.g. CAGCAGCAG...), so the longest run, not the total count of the pattern in the sequence, is used.
+     */
+    static List<KeywordResult> diagnose(RepeatTracker tracker, DiseaseRanges ranges) {
+        return diagnose(tracker.getAutomaton(), tracker.getCounts(), tracker::getTopRuns, tracker.getTop(), ranges);
+    }
+
+    /**
+     * Same as diagnose(tracker, ranges) for counts and top runs (longest first, at most top per keyword) collected
+     * elsewhere, e.g. over all records of a FASTA file (see RecordDiagnosis)
+     */
+    static List<KeywordResult> diagnose(Automaton automaton, long[] counts, IntFunction<List<RepeatRun>> topRuns, int top,
+                                        DiseaseRanges ranges) {
+        String[] keywords = new String[automaton.getKeywordCount()];
+        for (int k = 0; k < keywords.length; k++) {
+            keywords[k] = automaton.getKeyword(k);
+        }
+        return diagnose(keywords, counts, topRuns, top, ranges);
+    }
+
+    /**
+     * Same as diagnose(automaton, counts, topRuns, top, ranges) for a part of the keywords of an automaton, e.g. one
+     * panel of a merged automaton (see PanelSet); counts and topRuns are indexed like keywords
+     */
+    static List<KeywordResult> diagnose(String[] keywords, long[] counts, IntFunction<List<RepeatRun>> topRuns, int top,
+                                        DiseaseRanges ranges) {
+        if (Arrays.stream(keywords).anyMatch(Nucleotides::isReverseStrand)) {
+            return diagnoseMotifs(keywords, counts, topRuns, top, ranges);
+        }
+        List<KeywordResult> results = new ArrayList<>();
+        for (int k = 0; k < counts.length; k++) {
+            if (counts[k] == 0) {
+                continue;
             }
+            String pattern = keywords[k];
+            List<RepeatRun> runs = topRuns.apply(k);
+            results.add(new KeywordResult(pattern, counts[k], runs, ranges.classify(pattern, runs.get(0).getRepeats())));
         }
-        return ans;
+        return results;
     }
 
     /**
-     * preprocessingStage is used to construct a Finite state automata for pattern matching from the
-     * set of keywords and adding failure links
+     * diagnoseMotifs aggregates the keywords of an automaton that matches both strands per canonical motif. A motif
+     * and its reverse complement are the same repeat read on the two strands (e.g. CAG and CTG), so they form one
+     * group: the canonical motif is the first of them in the keyword list, and occurrences of the other one count
+     * on its reverse strand. A keyword that matches the same pattern as an earlier member of its group (e.g. CAG(-)
+     * and CTG, or the reverse strand copy of a palindrome) is skipped, so no occurrence is counted twice. The longest
+     * run on either strand is compared with the disease ranges of every motif of the group.
      */
-    private static void preprocessingStage() {
-        FiniteStateAutomata finiteStateAutomata = new FiniteStateAutomata();
-        finiteStateAutomata.gotoFunction(keywords);
-        finiteStateAutomata.failureFunction();
-        transitionMap = finiteStateAutomata.getTransitionMap();
-        outputMap = finiteStateAutomata.getOutputMap();
-        alphabet = finiteStateAutomata.getAlphabet();
-        failureMap = finiteStateAutomata.getFailureMap();
-    }
-
-    /**
-     * Finding all occurrences of keywords in DNA Sequence using finite state machine (DFA) in a sequential manner
-     * Reading input text line by line. This way, instead of working with whole DNA Sequence at once,
-     * we process only one line at a time (send it to constructed DFA). It saves a lot of memory.
-     */
-    private static String sequentialProcessing(String returnData,File dnaSequence1) throws IOException {
-        readDnaSequence(dnaSequence1);
-        int currState = 0, position = 0;
-        HashMap<String, Integer> countMap = new HashMap<>();
-        String dnaSequence;
-        while ((dnaSequence = bufferedReader.readLine()) != null) {
-            for (int i = 0; i < dnaSequence.length(); i++) {
-                char symbol = dnaSequence.charAt(i);
-                boolean isNextStatePresent = false;
-                Key key = new Key(currState, symbol);
-                if (transitionMap.containsKey(key)) {
-                    currState = transitionMap.get(key);
-                    isNextStatePresent = true;
+    private static List<KeywordResult> diagnoseMotifs(String[] keywords, long[] counts, IntFunction<List<RepeatRun>> topRuns, int top,
+                                                      DiseaseRanges ranges) {
+        int[] groups = new int[counts.length];
+        Map<String, Integer> patternGroups = new HashMap<>();
+        Map<String, Integer> forwardKeywords = new HashMap<>();
+        for (int k = 0; k < counts.length; k++) {
+            String keyword = keywords[k];
+            if (!Nucleotides.isReverseStrand(keyword)) {
+                groups[k] = patternGroups.getOrDefault(Nucleotides.reverseComplement(keyword), k);
+                patternGroups.putIfAbsent(keyword, groups[k]);
+                forwardKeywords.put(keyword, k);
+            }
+        }
+        for (int k = 0; k < counts.length; k++) {
+            String keyword = keywords[k];
+            if (Nucleotides.isReverseStrand(keyword)) {
+                String pattern = Nucleotides.pattern(keyword);
+                Integer forward = forwardKeywords.get(Nucleotides.motif(keyword));
+                groups[k] = patternGroups.containsKey(pattern) ? -1 : forward != null ? groups[forward] : k;
+                patternGroups.putIfAbsent(pattern, groups[k]);
+            }
+        }
+
+        List<KeywordResult> results = new ArrayList<>();
+        for (int group = 0; group < counts.length; group++) {
+            if (groups[group] != group) {
+                continue;
+            }
+            String motif = Nucleotides.motif(keywords[group]);
+            long forwardCount = 0, reverseCount = 0;
+            List<RepeatRun> runs = new ArrayList<>();
+            Set<String> patterns = new LinkedHashSet<>();
+            patterns.add(motif);
+            for (int k = 0; k < counts.length; k++) {
+                if (groups[k] != group) {
+                    continue;
                 }
-                if (!isNextStatePresent) {
-                    if (!alphabet.contains(symbol)) {
-                        alphabet.add(symbol);
-                        Key key1 = new Key(0, symbol);
-                        transitionMap.put(key1, 0);
-                    }
-                    if (currState != 0) {        /*if state == 0, algorithm stays in state 0*/
-                        while (true) {
-                            int failureState = failureMap.get(currState);
-                            key.state = failureState;
-                            if (transitionMap.containsKey(key)) {
-                                currState = transitionMap.get(key);
-                                break;
-                            } else {
-                                currState = failureState;
-                            }
-                        }
-                    }
+                String keyword = keywords[k];
+                if (!Nucleotides.isReverseStrand(keyword)) {
+                    patterns.add(keyword);
                 }
-                if (outputMap.containsKey(currState)) {
-                    for (String pattern : outputMap.get(currState)) {
-                        if (countMap.containsKey(pattern)) {
-                            int currCount = countMap.get(pattern);
-                            countMap.remove(pattern);
-                            countMap.put(pattern, currCount + 1);
-                        } else {
-                            countMap.put(pattern, 1);
-                        }
-                    }
+                if (counts[k] == 0) {
+                    continue;
                 }
-            }
-            position = position + dnaSequence.length();
-        }
-        returnData = printOutput(countMap, returnData);
-        return  returnData;
-    }
-
-    /**
-     * Finding all occurrences of keywords in DNA Sequence using finite state machine (DFA)
-     * by dividing the DNA sequence into different blocks and computing each block parallel
-     */
-    private static String parallelProcessing(List<String> dataBlocks, String returnData) throws IOException, InterruptedException {
-        ParallelExecutionThread[] threads = new ParallelExecutionThread[dataBlocks.size()];
-        for (int i = 0; i < dataBlocks.size(); i++) {
-            threads[i] = new ParallelExecutionThread(i, dataBlocks.get(i));
-            threads[i].start();
-        }
-        HashMap<String, Integer> countMap = new HashMap<>();
-        for (int i = 0; i < dataBlocks.size(); i++) {
-            threads[i].join();
-            HashMap<String, Integer> currCountMap = threads[i].getCountMap();
-            for (String keyword : keywords) {
-                if (currCountMap.containsKey(keyword)) {
-                    int count = currCountMap.get(keyword);
-                    if (countMap.containsKey(keyword)) {
-                        int currCount = countMap.get(keyword);
-                        countMap.remove(keyword);
-                        countMap.put(keyword, currCount + count);
-                    } else {
-                        countMap.put(keyword, count);
-                    }
+                String strand = Nucleotides.pattern(keyword).equals(motif) ? "+" : "-";
+                if (strand.equals("+")) {
+                    forwardCount += counts[k];
+                } else {
+                    reverseCount += counts[k];
+                }
+                for (RepeatRun run : topRuns.apply(k)) {
+                    runs.add(new RepeatRun(motif, run.getStart(), run.getRepeats(), run.getRecord(), strand));
                 }
             }
+            if (runs.isEmpty()) {
+                continue;
+            }
+            runs.sort(Comparator.comparingLong(RepeatRun::getRepeats).reversed().thenComparingLong(RepeatRun::getStart));
+            List<RepeatRun> motifRuns = runs.size() > top ? new ArrayList<>(runs.subList(0, top)) : runs;
+            List<DiseaseClassification> diseases = new ArrayList<>();
+            for (String pattern : patterns) {
+                diseases.addAll(ranges.classify(pattern, motifRuns.get(0).getRepeats()));
+            }
+            results.add(new KeywordResult(motif, forwardCount + reverseCount, motifRuns, diseases)
+                    .setStrandCounts(forwardCount, reverseCount));
+        }
+        return results;
+    }
+
+    /**
+     * ranges
+     *
+     * @return disease ranges of the current dictionary version
+     */
+    private DiseaseRanges ranges() {
+        return dictionaries.current().getRanges();
+    }
+
+    /**
+     * printOutput is used to print the Disease Diagnosis results as a table: the count, the longest run and
+     * its position of every keyword, followed by the results of the diseases caused by its repeats. If both
+     * strands were scanned, every row is a canonical motif and the strand of the longest run follows its position.
+     */
+    private static String printOutput(List<KeywordResult> results, String returnData) {
+        StringBuilder output = new StringBuilder(returnData);
+        Formatter formatter = new Formatter(output);
+        String format = "%15s %15s %15s %15s %15s %30s \n";
+        formatter.format(format, "Keyword", "Count", "Longest Run", "Run Position", "Disease Name", "Disease Diagnosis Result");
+        for (KeywordResult keywordResult : results) {
+            RepeatRun longestRun = keywordResult.getLongestRun();
+            String position = longestRun.getStrand() == null ? String.valueOf(longestRun.getStart())
+                    : longestRun.getStart() + " (" + longestRun.getStrand() + ")";
+            formatter.format(format, keywordResult.getKeyword(), keywordResult.getCount(), longestRun.getRepeats(),
+                    position, "", "");
+            for (DiseaseClassification disease : keywordResult.getDiseases()) {
+                formatter.format(format, "", "", "", "", disease.getDisease(), disease.getResult().getLabel());
+            }
         }
-        returnData = printOutput(countMap, returnData);
+        return output.toString();
+    }
+
+    /**
+     * preprocessingStage is used to construct a Finite state automata for pattern matching from the
+     * set of keywords and adding failure links. The automaton works on the packed nucleotide alphabet,
+     * so IUPAC codes in keywords (e.g. N in GCN) match every base they stand for.
+     */
+    static Automaton preprocessingStage(String[] keywords) {
+        FiniteStateAutomata finiteStateAutomata = FiniteStateAutomata.forNucleotides();
+        finiteStateAutomata.gotoFunction(keywords);
+        finiteStateAutomata.failureFunction();
+        return finiteStateAutomata.compile();
+    }
+
+    /**
+     * Finding all occurrences of keywords in DNA Sequence using finite state machine (DFA) with one engine.
+     * Sequential: the file is memory mapped (see MappedFileScanner) and its raw bytes are sent to the constructed DFA
+     * without decoding them into characters or copying them into the heap, so heap usage does not depend on the size
+     * of the DNA Sequence. Line terminators are skipped by the automaton, so keywords spanning two lines are still found.
+     * Parallel: the DNA sequence is divided into chunks and the chunks are scanned in parallel (see ParallelScanner).
+     * Vector: the sequential scan skips positions where no keyword can start (see Prefilter).
+     */
+    private String processing(String engine, Automaton automaton, File dnaSequence, ParallelScanner parallelScanner,
+                              Prefilter prefilter, String returnData, Consumer<String> diagnosis) throws IOException, InterruptedException {
+        long startTime = System.nanoTime();
+        RepeatTracker tracker = engine.equals(DiagnosisMetrics.PARALLEL)
+                ? scanParallel(dnaSequence, automaton, parallelScanner)
+                : scan(engine, dnaSequence, automaton, prefilter, new AtomicLong());
+        long diagnosisTime = System.nanoTime();
+        List<KeywordResult> results = diagnose(tracker, ranges());
+        metrics.record(DiagnosisMetrics.DIAGNOSIS, diagnosisTime);
+        String output = printOutput(results, "");
+        diagnosis.accept(output);
+        returnData += output;
+        long currentTime = System.nanoTime() - startTime;
+        String manner = Character.toUpperCase(engine.charAt(0)) + engine.substring(1);
+        returnData += "Finding all keywords in DNA Sequence(in " + manner + " Manner) is done in " + currentTime / 1000000.0 + " ms." + "\n";
+        return returnData;
+    }
+
+    /**
+     * Same as processing for a FASTA, FASTQ or compressed DNA Sequence, which is read as a stream and diagnosed
+     * as a whole (see diagnoseRecords)
+     */
+    private String processingRecords(Automaton automaton, File dnaSequence, String returnData,
+                                     Consumer<String> diagnosis) throws IOException {
+        long startTime = System.nanoTime();
+        DiagnosisResult diagnosisResult = diagnoseRecords(dnaSequence, automaton, null, new AtomicLong());
+        String output = printOutput(diagnosisResult.getKeywords(), "");
+        diagnosis.accept(output);
+        returnData += output;
+        long currentTime = System.nanoTime() - startTime;
+        returnData += "Finding all keywords in DNA Sequence(in Stream Manner) is done in " + currentTime / 1000000.0 + " ms." + "\n";
         return returnData;
     }
 
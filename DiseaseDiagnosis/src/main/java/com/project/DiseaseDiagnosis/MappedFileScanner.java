@@ -0,0 +1,179 @@
+package com.project.DiseaseDiagnosis;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class MappedFileScanner scans a DNA Sequence file through memory mapping instead of reading it into
+ * the heap. A single mapping is limited to 2 GB, so larger files are mapped in consecutive windows and
+ * the automaton state is carried from one window to the next; no bytes are copied or duplicated at
+ * window boundaries. Line terminators are skipped inline by the automaton. Heap usage is constant
+ * (one count array) no matter how large the file is.
+ */
+public final class MappedFileScanner {
+
+    /**
+     * WINDOW_SIZE is the number of bytes mapped at once
+     */
+    static final int WINDOW_SIZE = 1 << 30;
+
+    /**
+     * PROGRESS_STEP is the number of bytes scanned between two progress updates
+     */
+    static final int PROGRESS_STEP = 1 << 24;
+
+    /**
+     * BUFFER_LENGTH is the number of bytes copied from a window at once for the prefiltered scan
+     */
+    static final int BUFFER_LENGTH = 1 << 16;
+
+    private MappedFileScanner() {
+    }
+
+    /**
+     * scan finds all occurrences of keywords in the whole file
+     *
+     * @return count array (indexed like Automaton.getKeyword)
+     */
+    public static long[] scan(Automaton automaton, Path file) throws IOException {
+        long[] counts = automaton.newCounts();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            scan(automaton, channel, 0, channel.size(), 0, counts, WINDOW_SIZE);
+        }
+        return counts;
+    }
+
+    /**
+     * scan runs the automaton over the bytes [from, to) of the channel, starting in the given state,
+     * and adds keyword occurrences that end inside the range to counts.
+     *
+     * @return the state after the last byte
+     */
+    public static int scan(Automaton automaton, FileChannel channel, long from, long to, int state, long[] counts) throws IOException {
+        return scan(automaton, channel, from, to, state, counts, WINDOW_SIZE);
+    }
+
+    /**
+     * scanRepeats finds all occurrences and tandem repeat runs of keywords in the whole file
+     *
+     * @param top number of longest runs reported per keyword
+     */
+    public static RepeatTracker scanRepeats(Automaton automaton, Path file, int top) throws IOException {
+        RepeatTracker tracker = new RepeatTracker(automaton, top);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            scan(automaton, channel, 0, channel.size(), tracker);
+        }
+        return tracker;
+    }
+
+    /**
+     * scanRepeats is the same as scanRepeats(automaton, file, top), but sets progress to the number of bytes
+     * scanned after every PROGRESS_STEP bytes and stops if the thread is interrupted (e.g. a cancelled job)
+     *
+     * @throws InterruptedIOException if the thread was interrupted before the scan was finished
+     */
+    public static RepeatTracker scanRepeats(Automaton automaton, Path file, int top, AtomicLong progress) throws IOException {
+        RepeatTracker tracker = new RepeatTracker(automaton, top);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            forEachWindow(channel, 0, channel.size(), PROGRESS_STEP, progress,
+                    (window, length) -> automaton.scan(window, 0, length, tracker));
+        }
+        return tracker;
+    }
+
+    /**
+     * scanRepeats is the same as scanRepeats(automaton, file, top, progress), but positions where no keyword can
+     * start are skipped with the prefilter (see Automaton.scan with a prefilter). The Vector API loads from
+     * arrays, so every window is copied into a small reusable buffer of BUFFER_LENGTH bytes first.
+     *
+     * @throws InterruptedIOException if the thread was interrupted before the scan was finished
+     */
+    public static RepeatTracker scanRepeats(Automaton automaton, Prefilter prefilter, Path file, int top,
+                                            AtomicLong progress) throws IOException {
+        RepeatTracker tracker = new RepeatTracker(automaton, top);
+        byte[] buffer = new byte[BUFFER_LENGTH];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            forEachWindow(channel, 0, channel.size(), PROGRESS_STEP, progress, (window, length) -> {
+                for (int offset = 0; offset < length; offset += BUFFER_LENGTH) {
+                    int bufferLength = Math.min(BUFFER_LENGTH, length - offset);
+                    window.get(offset, buffer, 0, bufferLength);
+                    automaton.scan(buffer, 0, bufferLength, prefilter, tracker);
+                }
+            });
+        }
+        return tracker;
+    }
+
+    /**
+     * scanRepeats finds all occurrences with at most matcher.getMismatches() substituted bases and the tandem
+     * repeat runs they form in the whole file, with progress and interruption like scanRepeats(automaton, ...)
+     *
+     * @throws InterruptedIOException if the thread was interrupted before the scan was finished
+     */
+    public static RepeatTracker scanRepeats(MismatchMatcher matcher, Path file, int top, AtomicLong progress) throws IOException {
+        RepeatTracker tracker = new RepeatTracker(matcher.getAutomaton(), top);
+        long[] registers = matcher.newRegisters();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            forEachWindow(channel, 0, channel.size(), PROGRESS_STEP, progress,
+                    (window, length) -> matcher.scan(window, 0, length, registers, tracker));
+        }
+        return tracker;
+    }
+
+    /**
+     * scan runs the automaton over the bytes [from, to) of the channel and reports every keyword occurrence
+     * that ends inside the range to the listener, continuing from the listener's state and position
+     */
+    public static void scan(Automaton automaton, FileChannel channel, long from, long to, MatchListener listener) throws IOException {
+        scan(automaton, channel, from, to, listener, WINDOW_SIZE);
+    }
+
+    static void scan(Automaton automaton, FileChannel channel, long from, long to, MatchListener listener,
+                     int windowSize) throws IOException {
+        forEachWindow(channel, from, to, windowSize, null, (window, length) -> automaton.scan(window, 0, length, listener));
+    }
+
+    static int scan(Automaton automaton, FileChannel channel, long from, long to, int state, long[] counts,
+                    int windowSize) throws IOException {
+        int[] current = {state};
+        forEachWindow(channel, from, to, windowSize, null,
+                (window, length) -> current[0] = automaton.scan(window, 0, length, current[0], counts));
+        return current[0];
+    }
+
+    /**
+     * WindowScan scans one mapped window; the state of the scan is carried from one window to the next by the
+     * scan itself (e.g. in a MatchListener)
+     */
+    @FunctionalInterface
+    interface WindowScan {
+        void scan(MappedByteBuffer window, int length) throws IOException;
+    }
+
+    /**
+     * forEachWindow maps the bytes [from, to) of the channel in consecutive windows of at most windowSize bytes
+     * and scans them in order. With progress, progress is set to the end of every scanned window, and the scan
+     * stops before the next window if the thread is interrupted.
+     *
+     * @param progress null for no progress and no interruption
+     * @throws InterruptedIOException if progress is given and the thread was interrupted
+     */
+    static void forEachWindow(FileChannel channel, long from, long to, int windowSize, AtomicLong progress,
+                              WindowScan scan) throws IOException {
+        for (long position = from; position < to; position += windowSize) {
+            if (progress != null && Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Scan was interrupted!");
+            }
+            int length = (int) Math.min(windowSize, to - position);
+            scan.scan(channel.map(FileChannel.MapMode.READ_ONLY, position, length), length);
+            if (progress != null) {
+                progress.set(position + length);
+            }
+        }
+    }
+}
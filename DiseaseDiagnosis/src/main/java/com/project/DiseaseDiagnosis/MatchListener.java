@@ -0,0 +1,30 @@
+package com.project.DiseaseDiagnosis;
+
+/**
+ * Class MatchListener receives the keyword occurrences found by Automaton.scan one by one, together with their
+ * position. Positions count symbols (bases), not bytes: line terminators are skipped and not counted, so the
+ * position of a base does not depend on the line length of the file. The listener also keeps the automaton
+ * state and the position between calls, so a scan can be continued with the next piece of input.
+ */
+public abstract class MatchListener {
+
+    int state;        // current state of the automaton
+    long position;    // number of symbols scanned so far
+
+    /**
+     * onMatch is called for every occurrence of a keyword
+     *
+     * @param keyword index of the keyword (see Automaton.getKeyword)
+     * @param end     position of the last symbol of the occurrence (0-based)
+     */
+    protected abstract void onMatch(int keyword, long end);
+
+    /**
+     * getPosition
+     *
+     * @return number of symbols scanned so far
+     */
+    public long getPosition() {
+        return position;
+    }
+}
@@ -0,0 +1,184 @@
+package com.project.DiseaseDiagnosis;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class MismatchMatcher finds the keywords of an automaton with at most a given number of substituted bases
+ * (Hamming distance), so a sequencing error inside a repeat run does not break the run. It is the bit-parallel
+ * Shift-And algorithm with mismatches (Baeza-Yates and Gonnet, Wu and Manber) for many keywords at once: all
+ * keywords are packed into 64-bit words, one bit per keyword symbol, and register j of a word has the bit of
+ * symbol i set if the last i + 1 bases match the keyword prefix with at most j mismatches. Every base costs
+ * (mismatches + 1) shifts, ands and ors per word, no matter how many keywords a word holds.
+ * <p>
+ * IUPAC codes in keywords match every base they stand for, and keywords tagged with Nucleotides.REVERSE_STRAND
+ * are matched on the reverse strand, like in the nucleotide automaton. Line terminators are skipped; N and every
+ * other byte that is not a base are mismatches. Keyword indices and positions reported to the MatchListener are
+ * the same as those of Automaton.scan, so counts and repeat runs are tracked by the same listeners.
+ * <p>
+ * A MismatchMatcher is immutable; the registers of a scan belong to the caller (see newRegisters).
+ */
+public final class MismatchMatcher {
+
+    static final int MAX_MISMATCHES = 3;
+
+    private final Automaton automaton;
+    private final int mismatches;
+    private final int words;
+
+    /**
+     * masks[code * words + w] has the bits of all keyword symbols of word w that match the base with that code
+     */
+    private final long[] masks;
+
+    /**
+     * starts and ends have the bits of the first and of the last symbol of every keyword, per word
+     */
+    private final long[] starts;
+    private final long[] ends;
+
+    /**
+     * keywords[w * 64 + bit] is the index of the keyword whose last symbol is that bit of word w
+     */
+    private final int[] keywords;
+
+    private final int[] classes = Nucleotides.classTable();
+
+    /**
+     * @param mismatches maximal number of substituted bases in an occurrence, smaller than every keyword
+     * @throws IllegalArgumentException if mismatches is out of range or a keyword is longer than 64 bases
+     */
+    public MismatchMatcher(Automaton automaton, int mismatches) {
+        if (mismatches < 0 || mismatches > MAX_MISMATCHES) {
+            throw new IllegalArgumentException("Number of mismatches must be between 0 and " + MAX_MISMATCHES + "!");
+        }
+        this.automaton = automaton;
+        this.mismatches = mismatches;
+
+        /* keywords are packed into words first fit, in keyword order */
+        List<List<Integer>> packing = new ArrayList<>();
+        List<Integer> used = new ArrayList<>();
+        for (int k = 0; k < automaton.getKeywordCount(); k++) {
+            int length = automaton.getKeywordLength(k);
+            if (length > Long.SIZE) {
+                throw new IllegalArgumentException("Keyword " + automaton.getKeyword(k) + " is longer than " + Long.SIZE
+                        + " bases and cannot be matched with mismatches!");
+            }
+            if (length <= mismatches) {
+                throw new IllegalArgumentException("Keyword " + automaton.getKeyword(k) + " is not longer than the "
+                        + "number of mismatches and would match everywhere!");
+            }
+            int w = 0;
+            while (w < packing.size() && used.get(w) + length > Long.SIZE) {
+                w++;
+            }
+            if (w == packing.size()) {
+                packing.add(new ArrayList<>());
+                used.add(0);
+            }
+            packing.get(w).add(k);
+            used.set(w, used.get(w) + length);
+        }
+
+        this.words = Math.max(1, packing.size());
+        this.masks = new long[Nucleotides.BASES * words];
+        this.starts = new long[words];
+        this.ends = new long[words];
+        this.keywords = new int[words * Long.SIZE];
+        for (int w = 0; w < packing.size(); w++) {
+            int bit = 0;
+            for (int k : packing.get(w)) {
+                String pattern = Nucleotides.pattern(automaton.getKeyword(k));
+                starts[w] |= 1L << bit;
+                for (int i = 0; i < pattern.length(); i++, bit++) {
+                    int mask = Nucleotides.mask(pattern.charAt(i));
+                    for (int code = 0; code < Nucleotides.BASES; code++) {
+                        if ((mask & (1 << code)) != 0) {
+                            masks[code * words + w] |= 1L << bit;
+                        }
+                    }
+                }
+                ends[w] |= 1L << (bit - 1);
+                keywords[w * Long.SIZE + bit - 1] = k;
+            }
+        }
+    }
+
+    /**
+     * newRegisters
+     *
+     * @return the registers of a new scan, to be passed to every call of scan for consecutive pieces of the input
+     */
+    public long[] newRegisters() {
+        return new long[(mismatches + 1) * words];
+    }
+
+    /**
+     * scan runs the matcher over data[from, to) and reports every keyword occurrence with at most mismatches
+     * substituted bases that ends inside the range to the listener, continuing from the registers and the
+     * listener's position
+     */
+    public void scan(byte[] data, int from, int to, long[] registers, MatchListener listener) {
+        long position = listener.position;
+        for (int i = from; i < to; i++) {
+            int code = classes[data[i] & 0xFF];
+            if (code == Automaton.SKIP) {
+                continue;
+            }
+            step(code, registers, listener, position);
+            position++;
+        }
+        listener.position = position;
+    }
+
+    /**
+     * Same as scan(byte[], ...) for the bytes buffer[from, to), with absolute gets
+     */
+    public void scan(ByteBuffer buffer, int from, int to, long[] registers, MatchListener listener) {
+        long position = listener.position;
+        for (int i = from; i < to; i++) {
+            int code = classes[buffer.get(i) & 0xFF];
+            if (code == Automaton.SKIP) {
+                continue;
+            }
+            step(code, registers, listener, position);
+            position++;
+        }
+        listener.position = position;
+    }
+
+    /**
+     * step shifts the base with the given code into the registers of every word. Register j takes the prefixes
+     * that match with at most j mismatches, extended either by a matching base (from register j) or by any base
+     * (from register j - 1). The start bits are always shifted in, so an occurrence can start at every base.
+     */
+    private void step(int code, long[] registers, MatchListener listener, long position) {
+        int last = mismatches * words;
+        for (int w = 0; w < words; w++) {
+            long match = code < Nucleotides.BASES ? masks[code * words + w] : 0;
+            long start = starts[w];
+            long previous = registers[w];
+            long current = ((previous << 1) | start) & match;
+            registers[w] = current;
+            for (int r = w + words; r <= last; r += words) {
+                current = registers[r];
+                registers[r] = (((current << 1) | start) & match) | (previous << 1) | start;
+                previous = current;
+            }
+            long found = registers[last + w] & ends[w];
+            while (found != 0) {
+                listener.onMatch(keywords[w * Long.SIZE + Long.numberOfTrailingZeros(found)], position);
+                found &= found - 1;
+            }
+        }
+    }
+
+    public Automaton getAutomaton() {
+        return automaton;
+    }
+
+    public int getMismatches() {
+        return mismatches;
+    }
+}
@@ -0,0 +1,219 @@
+package com.project.DiseaseDiagnosis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Class Nucleotides defines the packed DNA alphabet used by the nucleotide automaton. Bases A, C, G and T
+ * are mapped to the 2-bit codes 0-3 (lower case, soft-masked bases included). N, the other IUPAC ambiguity
+ * codes and every other byte are mapped to the ESCAPE class, which never matches a base. Line terminators
+ * are skipped. In keywords, IUPAC codes are wildcards that stand for the set of bases they represent.
+ * <p>
+ * A keyword tagged with REVERSE_STRAND, e.g. CAG(-), is matched on the reverse strand: the automaton looks for
+ * its reverse complement (CTG) in the input and reports the match under the tagged keyword.
+ */
+public final class Nucleotides {
+
+    public static final int A = 0, C = 1, G = 2, T = 3;
+
+    /**
+     * ESCAPE is the symbol class of N, IUPAC codes and any non-nucleotide byte in the input
+     */
+    public static final int ESCAPE = 4;
+
+    /**
+     * BASES is the number of 2-bit codes, COLUMNS the number of columns of a nucleotide goto table
+     */
+    public static final int BASES = 4;
+    public static final int COLUMNS = 5;
+
+    /**
+     * REVERSE_STRAND is the tag of a keyword matched on the reverse strand
+     */
+    public static final String REVERSE_STRAND = "(-)";
+
+    private static final String SYMBOLS = "ACGT";
+
+    /**
+     * CLASSES maps every byte of the input to its 2-bit code, ESCAPE or Automaton.SKIP
+     */
+    private static final int[] CLASSES = new int[256];
+
+    /**
+     * MASKS maps IUPAC codes to a 4-bit set of bases (bit i set = base with code i)
+     */
+    private static final int[] MASKS = new int[128];
+
+    /**
+     * COMPLEMENTS maps IUPAC codes to the code of the complementary set of bases (e.g. R = AG -> Y = CT)
+     */
+    private static final char[] COMPLEMENTS = new char[128];
+
+    static {
+        Arrays.fill(CLASSES, ESCAPE);
+        for (int code = 0; code < BASES; code++) {
+            char symbol = SYMBOLS.charAt(code);
+            CLASSES[symbol] = code;
+            CLASSES[Character.toLowerCase(symbol)] = code;
+        }
+        CLASSES['U'] = T;
+        CLASSES['u'] = T;
+        CLASSES['\n'] = Automaton.SKIP;
+        CLASSES['\r'] = Automaton.SKIP;
+
+        String[][] iupac = {
+                {"A", "A"}, {"C", "C"}, {"G", "G"}, {"T", "T"}, {"U", "T"},
+                {"R", "AG"}, {"Y", "CT"}, {"S", "CG"}, {"W", "AT"}, {"K", "GT"}, {"M", "AC"},
+                {"B", "CGT"}, {"D", "AGT"}, {"H", "ACT"}, {"V", "ACG"}, {"N", "ACGT"}
+        };
+        for (String[] entry : iupac) {
+            int mask = 0;
+            for (char base : entry[1].toCharArray()) {
+                mask |= 1 << SYMBOLS.indexOf(base);
+            }
+            MASKS[entry[0].charAt(0)] = mask;
+            MASKS[Character.toLowerCase(entry[0].charAt(0))] = mask;
+        }
+
+        String[] pairs = {"AT", "CG", "GC", "TA", "UA", "RY", "YR", "SS", "WW", "KM", "MK", "BV", "VB", "DH", "HD", "NN"};
+        for (String pair : pairs) {
+            COMPLEMENTS[pair.charAt(0)] = pair.charAt(1);
+            COMPLEMENTS[Character.toLowerCase(pair.charAt(0))] = Character.toLowerCase(pair.charAt(1));
+        }
+    }
+
+    private Nucleotides() {
+    }
+
+    /**
+     * classTable
+     *
+     * @return a copy of the byte -> symbol class table, used as the class table of nucleotide automata
+     */
+    static int[] classTable() {
+        return CLASSES.clone();
+    }
+
+    /**
+     * code
+     *
+     * @return 2-bit code of the input byte, ESCAPE or Automaton.SKIP
+     */
+    public static int code(int symbol) {
+        return CLASSES[symbol & 0xFF];
+    }
+
+    /**
+     * mask
+     *
+     * @return set of bases (bit per 2-bit code) that an IUPAC symbol stands for, 0 if it is not an IUPAC code
+     */
+    public static int mask(char symbol) {
+        return symbol < MASKS.length ? MASKS[symbol] : 0;
+    }
+
+    /**
+     * symbol
+     *
+     * @return upper case base for a 2-bit code
+     */
+    public static char symbol(int code) {
+        return SYMBOLS.charAt(code);
+    }
+
+    /**
+     * reverseComplement
+     *
+     * @return the keyword as read on the other strand, e.g. CAG -> CTG and GCN -> NGC
+     * @throws IllegalArgumentException if the keyword contains a symbol that is not an IUPAC code
+     */
+    public static String reverseComplement(String keyword) {
+        StringBuilder complement = new StringBuilder(keyword.length());
+        for (int i = keyword.length() - 1; i >= 0; i--) {
+            char symbol = keyword.charAt(i);
+            if (symbol >= COMPLEMENTS.length || COMPLEMENTS[symbol] == 0) {
+                throw new IllegalArgumentException("Keyword " + keyword + " contains non-nucleotide symbol '" + symbol + "'");
+            }
+            complement.append(COMPLEMENTS[symbol]);
+        }
+        return complement.toString();
+    }
+
+    /**
+     * isReverseStrand
+     *
+     * @return true if the keyword is tagged with REVERSE_STRAND
+     */
+    public static boolean isReverseStrand(String keyword) {
+        return keyword.endsWith(REVERSE_STRAND);
+    }
+
+    /**
+     * motif
+     *
+     * @return the keyword without its strand tag
+     */
+    public static String motif(String keyword) {
+        return isReverseStrand(keyword) ? keyword.substring(0, keyword.length() - REVERSE_STRAND.length()) : keyword;
+    }
+
+    /**
+     * pattern
+     *
+     * @return the pattern searched in the input for the keyword: the motif itself, or its reverse complement
+     * for a keyword tagged with REVERSE_STRAND
+     */
+    public static String pattern(String keyword) {
+        return isReverseStrand(keyword) ? reverseComplement(motif(keyword)) : keyword;
+    }
+
+    /**
+     * withReverseStrand adds the REVERSE_STRAND tagged copy of every keyword, so one automaton finds the keywords
+     * on both strands in a single pass
+     *
+     * @return keywords followed by their reverse strand copies, without empty and duplicate keywords
+     */
+    public static String[] withReverseStrand(String[] keywords) {
+        Set<String> forward = new LinkedHashSet<>();
+        for (String keyword : keywords) {
+            if (keyword != null && !keyword.trim().isEmpty()) {
+                forward.add(motif(keyword.trim()));
+            }
+        }
+        Set<String> stranded = new LinkedHashSet<>(forward);
+        for (String keyword : forward) {
+            stranded.add(keyword + REVERSE_STRAND);
+        }
+        return stranded.toArray(new String[0]);
+    }
+
+    /**
+     * expand converts a keyword with IUPAC codes into all concrete A/C/G/T keywords it stands for,
+     * e.g. GCN -> GCA, GCC, GCG, GCT.
+     *
+     * @throws IllegalArgumentException if the keyword contains a symbol that is not an IUPAC code
+     */
+    public static List<String> expand(String keyword) {
+        List<String> variants = new ArrayList<>();
+        variants.add("");
+        for (int i = 0; i < keyword.length(); i++) {
+            int mask = mask(keyword.charAt(i));
+            if (mask == 0) {
+                throw new IllegalArgumentException("Keyword " + keyword + " contains non-nucleotide symbol '" + keyword.charAt(i) + "'");
+            }
+            List<String> extended = new ArrayList<>(variants.size() * Integer.bitCount(mask));
+            for (String prefix : variants) {
+                for (int code = 0; code < BASES; code++) {
+                    if ((mask & (1 << code)) != 0) {
+                        extended.add(prefix + symbol(code));
+                    }
+                }
+            }
+            variants = extended;
+        }
+        return variants;
+    }
+}
@@ -0,0 +1,196 @@
+package com.project.DiseaseDiagnosis;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class PanelBatcher merges the keyword panels of concurrent requests for the same sample into one scan. The first
+ * request for a sample opens a batch and waits windowMillis for other requests; every request for the same sample
+ * that arrives in the meantime adds its panels to the batch instead of scanning on its own. Then the first request
+ * scans its copy of the sample once with the merged automaton of all panels (see PanelSet), and every request gets
+ * the results of its own panels. A batch holds at most PanelSet.MAX_PANELS panels; a request that does not fit
+ * opens the next batch. If the first request is interrupted, it fails alone: the other requests of its batch join
+ * or open the next batch.
+ * <p>
+ * Samples are identified by the hash of their content, so requests with the same id can scan any of their copies.
+ */
+public final class PanelBatcher {
+
+    static final long DEFAULT_WINDOW_MILLIS = 20;
+
+    /**
+     * PanelScan scans a DNA Sequence once for all merged panels, e.g. Main.diagnose(dnaSequence, panels, ...)
+     */
+    @FunctionalInterface
+    public interface PanelScan {
+
+        /**
+         * @return the result of every panel, in panel order
+         */
+        List<DiagnosisResult> scan(File dnaSequence, PanelSet panels) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Batch collects the panels of the requests for one sample until it is closed by the first request
+     */
+    private static final class Batch {
+        private final List<String[]> panels = new ArrayList<>();
+        private final CompletableFuture<List<DiagnosisResult>> results = new CompletableFuture<>();
+    }
+
+    private final AutomatonCache automatonCache;
+    private final long windowMillis;
+
+    /**
+     * batches stores the open batch of every sample, guarded by itself
+     */
+    private final Map<String, Batch> batches = new HashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong panels = new AtomicLong();
+    private final AtomicLong scans = new AtomicLong();
+
+    public PanelBatcher(AutomatonCache automatonCache) {
+        this(automatonCache, DEFAULT_WINDOW_MILLIS);
+    }
+
+    public PanelBatcher(AutomatonCache automatonCache, long windowMillis) {
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException("Batch window cannot be negative!");
+        }
+        this.automatonCache = automatonCache;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * diagnose returns the results of the panels of one request, from a scan that is shared with the concurrent
+     * requests for the same sample
+     *
+     * @param sample      id of the sample, the hex hash of its content
+     * @param dnaSequence copy of the sample owned by the caller; it is scanned if this request opens the batch
+     * @param panelKeywords keywords of every panel of the request
+     * @return the result of every panel of the request, in panel order
+     * @throws IllegalArgumentException if the request has no or more than PanelSet.MAX_PANELS panels, a panel has no
+     *                                  keywords or a keyword is not a nucleotide keyword
+     */
+    public List<DiagnosisResult> diagnose(String sample, File dnaSequence, List<String[]> panelKeywords,
+                                          PanelScan scan) throws IOException, InterruptedException {
+        if (panelKeywords.isEmpty() || panelKeywords.size() > PanelSet.MAX_PANELS) {
+            throw new IllegalArgumentException("Number of keyword panels must be between 1 and " + PanelSet.MAX_PANELS + "!");
+        }
+        /* an invalid panel is rejected here, so it never fails the scan of other requests */
+        for (String[] panel : panelKeywords) {
+            PanelSet.normalize(panel);
+        }
+        requests.incrementAndGet();
+        panels.addAndGet(panelKeywords.size());
+
+        while (true) {
+            Batch batch;
+            int offset;
+            boolean first = false;
+            synchronized (batches) {
+                batch = batches.get(sample);
+                if (batch == null || batch.panels.size() + panelKeywords.size() > PanelSet.MAX_PANELS) {
+                    batch = new Batch();
+                    batches.put(sample, batch);
+                    first = true;
+                }
+                offset = batch.panels.size();
+                batch.panels.addAll(panelKeywords);
+            }
+            if (first) {
+                run(sample, dnaSequence, batch, scan);
+            }
+            try {
+                return batch.results.get().subList(offset, offset + panelKeywords.size());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof InterruptedException) {
+                    /* the interruption of the first request is not the failure of the others, which try again */
+                    if (!first) {
+                        continue;
+                    }
+                    throw (InterruptedException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    /**
+     * run waits for the window, closes the batch and scans the sample for all of its panels
+     */
+    private void run(String sample, File dnaSequence, Batch batch, PanelScan scan) {
+        try {
+            if (windowMillis > 0) {
+                Thread.sleep(windowMillis);
+            }
+            List<String[]> merged = close(sample, batch);
+            scans.incrementAndGet();
+            batch.results.complete(scan.scan(dnaSequence, PanelSet.merge(merged, automatonCache)));
+        } catch (Throwable e) {
+            close(sample, batch);
+            batch.results.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * close removes the batch from the open batches, so no more panels are added to it
+     *
+     * @return the panels of the batch
+     */
+    private List<String[]> close(String sample, Batch batch) {
+        synchronized (batches) {
+            batches.remove(sample, batch);
+            return new ArrayList<>(batch.panels);
+        }
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * getRequests
+     *
+     * @return number of requests diagnosed so far
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * getPanels
+     *
+     * @return number of panels of all requests diagnosed so far
+     */
+    public long getPanels() {
+        return panels.get();
+    }
+
+    /**
+     * getScans
+     *
+     * @return number of scans, each of them shared by the panels of one batch
+     */
+    public long getScans() {
+        return scans.get();
+    }
+}
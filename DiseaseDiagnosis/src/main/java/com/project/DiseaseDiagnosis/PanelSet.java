@@ -0,0 +1,157 @@
+package com.project.DiseaseDiagnosis;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Class PanelSet merges the keyword panels of several clients (tenants) into one automaton, so a single pass over a
+ * DNA Sequence answers all panels at once. The merged automaton is the automaton of the union of the panels and is
+ * taken from an AutomatonCache, so it is shared with every other request for the same keywords. Every output of the
+ * automaton reports a keyword index, and every keyword is tagged with the bitset of the panels that contain it
+ * (bit p for panel p), so the counts and runs of one scan are demultiplexed per panel (see diagnose).
+ * <p>
+ * A PanelSet is immutable and holds at most MAX_PANELS panels, one bit of a long each.
+ */
+public final class PanelSet {
+
+    public static final int MAX_PANELS = Long.SIZE;
+
+    private final Automaton automaton;
+
+    /**
+     * panels[k] is the bitset of the panels that contain keyword k of the automaton
+     */
+    private final long[] panels;
+
+    /**
+     * keywords[p] has the indices of the keywords of panel p in the automaton, in the order of the panel
+     */
+    private final int[][] keywords;
+
+    private PanelSet(Automaton automaton, long[] panels, int[][] keywords) {
+        this.automaton = automaton;
+        this.panels = panels;
+        this.keywords = keywords;
+    }
+
+    /**
+     * merge constructs the automaton of all keywords of the panels (or takes it from the cache) and tags its
+     * keywords with the panels that contain them
+     *
+     * @throws IllegalArgumentException if there are no or more than MAX_PANELS panels, a panel has no keywords or
+     *                                  a keyword is not a nucleotide keyword
+     */
+    public static PanelSet merge(List<String[]> panelKeywords, AutomatonCache automatonCache) {
+        if (panelKeywords.isEmpty() || panelKeywords.size() > MAX_PANELS) {
+            throw new IllegalArgumentException("Number of keyword panels must be between 1 and " + MAX_PANELS + "!");
+        }
+        List<String[]> normalized = new ArrayList<>(panelKeywords.size());
+        Set<String> union = new LinkedHashSet<>();
+        for (String[] panel : panelKeywords) {
+            String[] keywords = normalize(panel);
+            normalized.add(keywords);
+            union.addAll(List.of(keywords));
+        }
+        Automaton automaton = automatonCache.get(union.toArray(new String[0]));
+
+        /* a precompiled automaton (see AutomatonCache.put) may label its keywords as they were written */
+        Map<String, Integer> keywordIndex = new HashMap<>();
+        for (int k = 0; k < automaton.getKeywordCount(); k++) {
+            keywordIndex.put(automaton.getKeyword(k).trim().toUpperCase(Locale.ROOT), k);
+        }
+        long[] panels = new long[automaton.getKeywordCount()];
+        for (int p = 0; p < normalized.size(); p++) {
+            for (String keyword : normalized.get(p)) {
+                panels[keywordIndex.get(keyword)] |= 1L << p;
+            }
+        }
+        /* the keywords of a panel keep the order of the panel, whatever the order of the merged automaton */
+        int[][] keywords = new int[normalized.size()][];
+        for (int p = 0; p < keywords.length; p++) {
+            int[] indices = new int[normalized.get(p).length];
+            for (int i = 0; i < indices.length; i++) {
+                indices[i] = keywordIndex.get(normalized.get(p)[i]);
+            }
+            keywords[p] = indices;
+        }
+        return new PanelSet(automaton, panels, keywords);
+    }
+
+    /**
+     * normalize normalizes the keywords of one panel like AutomatonCache does and checks them, so an invalid panel
+     * is rejected before it is merged with the panels of other requests
+     *
+     * @throws IllegalArgumentException if the panel has no keywords or a keyword is not a nucleotide keyword
+     */
+    static String[] normalize(String[] panel) {
+        String[] keywords = AutomatonCache.normalize(panel);
+        if (keywords.length == 0) {
+            throw new IllegalArgumentException("Keyword panel cannot be empty!");
+        }
+        for (String keyword : keywords) {
+            String pattern = Nucleotides.pattern(keyword);
+            for (int i = 0; i < pattern.length(); i++) {
+                if (Nucleotides.mask(pattern.charAt(i)) == 0) {
+                    throw new IllegalArgumentException("Keyword " + keyword + " contains non-nucleotide symbol '" + pattern.charAt(i) + "'");
+                }
+            }
+        }
+        return keywords;
+    }
+
+    /**
+     * diagnose demultiplexes the counts and top runs of a scan with the merged automaton (indexed like
+     * Automaton.getKeyword) for one panel and compares them with the disease ranges, like Main.diagnose does for
+     * the automaton of the panel alone
+     */
+    public List<KeywordResult> diagnose(int panel, long[] counts, IntFunction<List<RepeatRun>> topRuns, int top,
+                                        DiseaseRanges ranges) {
+        int[] indices = keywords[panel];
+        String[] panelKeywords = new String[indices.length];
+        long[] panelCounts = new long[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            panelKeywords[i] = automaton.getKeyword(indices[i]);
+            panelCounts[i] = counts[indices[i]];
+        }
+        return Main.diagnose(panelKeywords, panelCounts, i -> topRuns.apply(indices[i]), top, ranges);
+    }
+
+    /**
+     * Same as diagnose(panel, counts, topRuns, top, ranges) for a tracker of a scan with the merged automaton
+     */
+    public List<KeywordResult> diagnose(int panel, RepeatTracker tracker, DiseaseRanges ranges) {
+        return diagnose(panel, tracker.getCounts(), tracker::getTopRuns, tracker.getTop(), ranges);
+    }
+
+    public Automaton getAutomaton() {
+        return automaton;
+    }
+
+    public int getPanelCount() {
+        return keywords.length;
+    }
+
+    /**
+     * getPanels
+     *
+     * @return bitset of the panels that contain the keyword (bit p for panel p)
+     */
+    public long getPanels(int keyword) {
+        return panels[keyword];
+    }
+
+    /**
+     * getKeywordCount
+     *
+     * @return number of keywords of the panel
+     */
+    public int getKeywordCount(int panel) {
+        return keywords[panel].length;
+    }
+}
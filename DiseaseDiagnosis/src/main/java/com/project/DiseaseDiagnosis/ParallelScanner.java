@@ -0,0 +1,263 @@
+package com.project.DiseaseDiagnosis;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Class ParallelScanner finds all occurrences of keywords in a DNA Sequence file by scanning chunks of the
+ * memory mapped file in parallel on a shared, bounded ForkJoinPool. A request runs at most parallelism lanes;
+ * the file is split into about CHUNKS_PER_LANE chunks per lane (never smaller than blockSize) and every lane
+ * pulls the next unscanned chunk from a shared cursor, so a lane that finishes early takes over remaining work.
+ * Each lane counts into its own array and the arrays are added up at the end.
+ * <p>
+ * A chunk does not start in state 0: the automaton is first run over the last (longest keyword - 1) symbols
+ * before the chunk without counting. Every occurrence ending inside the chunk starts in that region or later,
+ * and only occurrences ending inside the chunk are counted, so the counts are always equal to a sequential scan.
+ */
+public final class ParallelScanner {
+
+    static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+    static final int CHUNKS_PER_LANE = 4;
+
+    /**
+     * POOL is shared by all requests, so the number of scanning threads does not grow with the number of uploads.
+     * Its gauges are bound by the service (see Controller), so loading this class does not need a metrics registry.
+     */
+    static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private final ForkJoinPool pool;
+    private final int blockSize;
+    private final int parallelism;
+
+    /**
+     * metrics records the block division and merge of every scan
+     */
+    private final DiagnosisMetrics metrics;
+
+    public ParallelScanner() {
+        this(DEFAULT_BLOCK_SIZE, POOL.getParallelism());
+    }
+
+    /**
+     * @param blockSize   minimal number of bytes scanned by one task
+     * @param parallelism maximal number of lanes scanning the file at the same time
+     */
+    public ParallelScanner(int blockSize, int parallelism) {
+        this(blockSize, parallelism, DiagnosisMetrics.GLOBAL);
+    }
+
+    public ParallelScanner(int blockSize, int parallelism, DiagnosisMetrics metrics) {
+        this(POOL, blockSize, parallelism, metrics);
+    }
+
+    public ParallelScanner(ForkJoinPool pool, int blockSize, int parallelism) {
+        this(pool, blockSize, parallelism, DiagnosisMetrics.GLOBAL);
+    }
+
+    public ParallelScanner(ForkJoinPool pool, int blockSize, int parallelism, DiagnosisMetrics metrics) {
+        if (blockSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Block size and parallelism must be positive!");
+        }
+        this.pool = pool;
+        this.blockSize = blockSize;
+        this.parallelism = parallelism;
+        this.metrics = metrics;
+    }
+
+    /**
+     * scan finds all occurrences of keywords in the whole file
+     *
+     * @return count array (indexed like Automaton.getKeyword)
+     */
+    public long[] scan(Automaton automaton, Path file) throws IOException, InterruptedException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long startTime = System.nanoTime();
+            Chunks chunks = new Chunks(channel.size());
+            metrics.record(DiagnosisMetrics.BLOCK_DIVISION, startTime);
+            List<long[]> laneCounts = runLanes(chunks, automaton::newCounts,
+                    (currCounts, chunk, from, to) -> scanChunk(automaton, channel, from, to, currCounts));
+            long mergeTime = System.nanoTime();
+            long[] counts = automaton.newCounts();
+            for (long[] currCounts : laneCounts) {
+                for (int k = 0; k < counts.length; k++) {
+                    counts[k] += currCounts[k];
+                }
+            }
+            metrics.record(DiagnosisMetrics.PARALLEL_MERGE, mergeTime);
+            return counts;
+        }
+    }
+
+    /**
+     * scanRepeats finds all occurrences and tandem repeat runs of keywords in the whole file. Every chunk is
+     * tracked separately, and the trackers are appended in file order, which joins runs that cross chunk boundaries.
+     *
+     * @param top number of longest runs reported per keyword
+     */
+    public RepeatTracker scanRepeats(Automaton automaton, Path file, int top) throws IOException, InterruptedException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long startTime = System.nanoTime();
+            Chunks chunks = new Chunks(channel.size());
+            metrics.record(DiagnosisMetrics.BLOCK_DIVISION, startTime);
+            RepeatTracker[] trackers = new RepeatTracker[(int) chunks.count];
+            runLanes(chunks, () -> trackers, (chunkTrackers, chunk, from, to) -> {
+                RepeatTracker tracker = new RepeatTracker(automaton, top);
+                tracker.state = from == 0 ? 0 : warmUp(automaton, channel, from);
+                MappedFileScanner.scan(automaton, channel, from, to, tracker);
+                chunkTrackers[(int) chunk] = tracker;
+            });
+            long mergeTime = System.nanoTime();
+            RepeatTracker result = new RepeatTracker(automaton, top);
+            for (RepeatTracker tracker : trackers) {
+                result.append(tracker);
+            }
+            metrics.record(DiagnosisMetrics.PARALLEL_MERGE, mergeTime);
+            return result;
+        }
+    }
+
+    /**
+     * lanes
+     *
+     * @return number of lanes a scan of size bytes runs on
+     */
+    int lanes(long size) {
+        return new Chunks(size).lanes;
+    }
+
+    /**
+     * getActiveThreads
+     *
+     * @return number of pool threads that are scanning right now, for any request
+     */
+    int getActiveThreads() {
+        return pool.getActiveThreadCount();
+    }
+
+    /**
+     * Class Chunks splits a file into chunks: about CHUNKS_PER_LANE chunks per lane, but never smaller than blockSize
+     */
+    private final class Chunks {
+
+        final long size;
+        final int lanes;
+        final long chunkSize;
+        final long count;
+
+        Chunks(long size) {
+            this.size = size;
+            this.lanes = (int) Math.max(1, Math.min(Math.min(parallelism, pool.getParallelism()), ceilDiv(size, blockSize)));
+            this.chunkSize = Math.max(blockSize, ceilDiv(size, (long) lanes * CHUNKS_PER_LANE));
+            this.count = ceilDiv(size, chunkSize);
+        }
+    }
+
+    /**
+     * ChunkTask scans one chunk [from, to) of the file into the result of the lane that runs it
+     */
+    private interface ChunkTask<T> {
+        void scan(T laneResult, long chunk, long from, long to) throws IOException;
+    }
+
+    /**
+     * runLanes starts the lanes on the pool and waits for them. Every lane creates its result with laneResult and
+     * pulls chunks from the shared cursor until all chunks are scanned.
+     *
+     * @return results of all lanes
+     */
+    private <T> List<T> runLanes(Chunks chunks, Supplier<T> laneResult, ChunkTask<T> chunkTask) throws IOException, InterruptedException {
+        AtomicLong nextChunk = new AtomicLong();
+        List<Callable<T>> tasks = new ArrayList<>(chunks.lanes);
+        for (int lane = 0; lane < chunks.lanes; lane++) {
+            tasks.add(() -> {
+                T result = laneResult.get();
+                long chunk;
+                while ((chunk = nextChunk.getAndIncrement()) < chunks.count) {
+                    long from = chunk * chunks.chunkSize;
+                    chunkTask.scan(result, chunk, from, Math.min(chunks.size, from + chunks.chunkSize));
+                }
+                return result;
+            });
+        }
+        List<T> results = new ArrayList<>(chunks.lanes);
+        for (Future<T> future : pool.invokeAll(tasks)) {
+            results.add(getResult(future));
+        }
+        return results;
+    }
+
+    /**
+     * scanChunk adds all occurrences of keywords that end inside the bytes [from, to) of the channel to counts
+     */
+    static void scanChunk(Automaton automaton, FileChannel channel, long from, long to, long[] counts) throws IOException {
+        int state = from == 0 ? 0 : warmUp(automaton, channel, from);
+        MappedFileScanner.scan(automaton, channel, from, to, state, counts);
+    }
+
+    /**
+     * warmUp runs the automaton over the last (longest keyword - 1) symbols before position from. Line
+     * terminators are not symbols, so the region is searched backwards until enough symbols are found.
+     *
+     * @return state in which the scan of a chunk starting at position from begins
+     */
+    static int warmUp(Automaton automaton, FileChannel channel, long from) throws IOException {
+        int needed = automaton.getMaxKeywordLength() - 1;
+        if (needed <= 0) {
+            return 0;
+        }
+        long lookBack = 2L * needed + 64;
+        while (true) {
+            long start = Math.max(0, from - lookBack);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, start, from - start);
+            int i = window.limit(), symbols = 0;
+            while (i > 0 && symbols < needed) {
+                i--;
+                if (!automaton.isSkipped(window.get(i))) {
+                    symbols++;
+                }
+            }
+            if (symbols == needed || start == 0 || lookBack >= MappedFileScanner.WINDOW_SIZE) {
+                return automaton.advance(window, i, window.limit(), 0);
+            }
+            lookBack = Math.min(lookBack * 2, MappedFileScanner.WINDOW_SIZE);
+        }
+    }
+
+    private static <T> T getResult(Future<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return (x + y - 1) / y;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+}
@@ -0,0 +1,88 @@
+package com.project.DiseaseDiagnosis;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Class PositionWriter writes every keyword occurrence reported by a scan as one line of NDJSON
+ * (newline delimited JSON), e.g. {"keyword":"CAG","start":90590,"end":90592}, as soon as it is found.
+ * Occurrences are never collected in memory, so any number of them can be streamed to a client.
+ * Positions are 0-based and count bases only (see MatchListener). In FASTA and FASTQ inputs (see RecordScanner)
+ * positions are relative to the record, whose name is written as well, e.g. {"record":"chr1","keyword":...}.
+ */
+public final class PositionWriter extends MatchListener implements Closeable {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final Automaton automaton;
+    private final JsonGenerator generator;
+    private String record;
+    private long written;
+
+    public PositionWriter(Automaton automaton, OutputStream outputStream) throws IOException {
+        this.automaton = automaton;
+        this.generator = JSON_FACTORY.createGenerator(outputStream, JsonEncoding.UTF8);
+        this.generator.setRootValueSeparator(new SerializedString("\n"));
+    }
+
+    /**
+     * startRecord starts a record of a FASTA or FASTQ input: the scan continues at position 0 of the record
+     *
+     * @param record name of the record, null for a raw sequence
+     */
+    void startRecord(String record) {
+        this.record = record;
+        this.state = 0;
+        this.position = 0;
+    }
+
+    /**
+     * onMatch writes the occurrence. Errors of the output stream (e.g. the client went away) are thrown as
+     * UncheckedIOException, which stops the scan.
+     */
+    @Override
+    protected void onMatch(int keyword, long end) {
+        String name = automaton.getKeyword(keyword);
+        try {
+            generator.writeStartObject();
+            if (record != null) {
+                generator.writeStringField("record", record);
+            }
+            generator.writeStringField("keyword", name);
+            generator.writeNumberField("start", end - automaton.getKeywordLength(keyword) + 1);
+            generator.writeNumberField("end", end);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        written++;
+    }
+
+    /**
+     * getWritten
+     *
+     * @return number of occurrences written so far
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * close ends the last line and flushes the output; the output stream itself is not closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (written > 0) {
+            generator.writeRaw('\n');
+        }
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.close();
+    }
+}
@@ -0,0 +1,199 @@
+package com.project.DiseaseDiagnosis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class Prefilter finds the positions of the input where an occurrence of a keyword can start, so the scan can
+ * jump over everything else while the automaton is in the start state (see Automaton.scan with a prefilter).
+ * It is a Teddy-style filter on the first shifts symbols of the keywords: the first shifts symbols of every
+ * keyword (taken from the trie of the automaton) are grouped into BUCKETS buckets, and a position is a
+ * candidate if, for some bucket, the byte at every shift k is accepted by that bucket at shift k. The byte sets
+ * are stored as two 16-entry tables per shift, indexed by the low and the high nibble of the byte, so a
+ * vector of bytes is checked with two table lookups (shuffles) and an and per shift.
+ * <p>
+ * The filter never misses an occurrence, but it may report positions that are not occurrences, and every
+ * position closer than shifts bytes to a line terminator (which the automaton skips) or to a non-ASCII byte
+ * is a candidate.
+ * Candidates are found with the incubating Vector API (see VectorPrefilter); of returns null where it is not
+ * available (the JVM was started without --add-modules jdk.incubator.vector) or where the filter would not
+ * skip enough positions to pay off, and the plain scan is used instead.
+ */
+public abstract class Prefilter {
+
+    static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    /**
+     * BUCKETS is the number of bucket bits of a table entry, MAX_SHIFTS the maximal number of symbols checked
+     */
+    static final int BUCKETS = Byte.SIZE;
+    static final int MAX_SHIFTS = 4;
+
+    /**
+     * MAX_DENSITY is the maximal expected share of candidate positions in random input (every symbol of the
+     * keyword alphabet equally likely); above it the automaton is rarely skipped far enough. The default panel
+     * (keywords.txt, density 0.22) is declined, so the vector engine never runs on it; the motifs of 6 bases and
+     * more of that panel (density 0.012) are scanned 1.36 times as fast as without the filter (PrefilterBenchmark)
+     */
+    static final double MAX_DENSITY = 1.0 / 16;
+
+    /**
+     * low[k][nibble] and high[k][nibble] have the bits of the buckets that accept a byte with that low or high
+     * nibble at shift k
+     */
+    final byte[][] low;
+    final byte[][] high;
+
+    /**
+     * skipLimit is larger than every byte the automaton skips (line terminators); positions with a smaller byte
+     * (signed, so non-ASCII bytes as well) at some shift are always candidates
+     */
+    final byte skipLimit;
+
+    private final double density;
+
+    Prefilter(Tables tables) {
+        this.low = tables.low;
+        this.high = tables.high;
+        this.skipLimit = tables.skipLimit;
+        this.density = tables.density;
+    }
+
+    /**
+     * of creates the prefilter for the automaton
+     *
+     * @return the prefilter, null if the Vector API is not available or the keywords start too often in random input
+     */
+    public static Prefilter of(Automaton automaton) {
+        if (!isVectorAvailable()) {
+            return null;
+        }
+        Tables tables = new Tables(automaton);
+        if (tables.density > MAX_DENSITY) {
+            return null;
+        }
+        try {
+            return (Prefilter) Class.forName(Prefilter.class.getPackageName() + ".VectorPrefilter")
+                    .getDeclaredConstructor(Tables.class)
+                    .newInstance(tables);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * isVectorAvailable
+     *
+     * @return true if the Vector API module is loaded; VectorPrefilter must not be loaded otherwise
+     */
+    public static boolean isVectorAvailable() {
+        return ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+    }
+
+    /**
+     * next
+     *
+     * @return the first position in data[from, to) where an occurrence of a keyword can start, to if there is none.
+     * Positions closer than shifts bytes to to cannot be checked and are always returned as candidates.
+     */
+    public abstract int next(byte[] data, int from, int to);
+
+    /**
+     * getShifts
+     *
+     * @return number of symbols checked at every position
+     */
+    public int getShifts() {
+        return low.length;
+    }
+
+    /**
+     * getDensity
+     *
+     * @return expected share of candidate positions in random input
+     */
+    public double getDensity() {
+        return density;
+    }
+
+    /**
+     * Class Tables builds the nibble tables from the trie of the automaton. The trie is not stored in the
+     * compiled DFA, but an edge (s, c) -> t of the DFA is a trie edge if and only if t is one symbol deeper
+     * than s, and the depth of a state is its distance from the start state, so the trie is found by a
+     * breadth-first search to depth shifts.
+     */
+    static final class Tables {
+
+        final byte[][] low;
+        final byte[][] high;
+        final byte skipLimit;
+        final double density;
+
+        Tables(Automaton automaton) {
+            int shifts = MAX_SHIFTS;
+            for (int k = 0; k < automaton.getKeywordCount(); k++) {
+                shifts = Math.min(shifts, automaton.getKeywordLength(k));
+            }
+            int[] classes = automaton.getClasses();
+            int columns = automaton.getOtherClass() + 1;
+
+            /* paths of symbol classes from the start state to every trie state at depth shifts */
+            int[] depths = new int[automaton.getStateCount()];
+            Arrays.fill(depths, -1);
+            depths[0] = 0;
+            List<int[]> level = new ArrayList<>();
+            level.add(new int[]{0});                    // {state, classes of the path...}
+            for (int depth = 0; depth < shifts; depth++) {
+                List<int[]> next = new ArrayList<>();
+                for (int[] node : level) {
+                    for (int symbolClass = 0; symbolClass < columns; symbolClass++) {
+                        int target = automaton.transition(node[0], symbolClass);
+                        int index = automaton.stateIndex(target);
+                        if (depths[index] == -1) {
+                            depths[index] = depth + 1;
+                        }
+                        if (depths[index] == depth + 1) {
+                            int[] child = Arrays.copyOf(node, node.length + 1);
+                            child[0] = target;
+                            child[node.length] = symbolClass;
+                            next.add(child);
+                        }
+                    }
+                }
+                level = next;
+            }
+            List<int[]> paths = level;
+
+            /* bytes of every symbol class; skipped bytes are remembered separately */
+            List<List<Integer>> bytesOfClass = new ArrayList<>();
+            for (int symbolClass = 0; symbolClass < columns; symbolClass++) {
+                bytesOfClass.add(new ArrayList<>());
+            }
+            int limit = 0;
+            for (int b = 0; b < 256; b++) {
+                if (classes[b] == Automaton.SKIP) {
+                    limit = b + 1;
+                } else {
+                    bytesOfClass.get(classes[b]).add(b);
+                }
+            }
+
+            /* consecutive paths share their first symbols, so they go to the same bucket */
+            this.low = new byte[shifts][16];
+            this.high = new byte[shifts][16];
+            for (int p = 0; p < paths.size(); p++) {
+                byte bucket = (byte) (1 << (p * BUCKETS / paths.size()));
+                int[] path = paths.get(p);
+                for (int k = 0; k < shifts; k++) {
+                    for (int b : bytesOfClass.get(path[k + 1])) {
+                        low[k][b & 0x0F] |= bucket;
+                        high[k][b >>> 4] |= bucket;
+                    }
+                }
+            }
+            this.skipLimit = (byte) limit;
+            this.density = paths.size() / Math.pow(Math.max(1, automaton.getOtherClass()), shifts);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.project.DiseaseDiagnosis;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Class RecordDiagnosis collects the records of a FASTA or FASTQ input (see RecordScanner): it diagnoses every
+ * record on its own, keeps the results of the first DiagnosisResult.MAX_RECORDS records and adds up the whole
+ * input, i.e. the counts of all records and the longest runs found in any record. Runs never cross records.
+ */
+public final class RecordDiagnosis implements RecordScanner.RecordListener {
+
+    private static final Comparator<RepeatRun> LONGEST_FIRST =
+            Comparator.comparingLong(RepeatRun::getRepeats).reversed();
+
+    private final Automaton automaton;
+    private final int top;
+    private final DiseaseRanges ranges;
+    private final long[] counts;
+    private final List<List<RepeatRun>> topRuns;
+    private final List<RecordResult> records = new ArrayList<>();
+    private long recordCount;
+
+    /**
+     * @param ranges disease ranges the results are diagnosed with
+     */
+    public RecordDiagnosis(Automaton automaton, int top, DiseaseRanges ranges) {
+        this.automaton = automaton;
+        this.top = top;
+        this.ranges = ranges;
+        this.counts = automaton.newCounts();
+        this.topRuns = new ArrayList<>(counts.length);
+        for (int k = 0; k < counts.length; k++) {
+            topRuns.add(new ArrayList<>());
+        }
+    }
+
+    @Override
+    public void onRecord(String name, RepeatTracker tracker) {
+        recordCount++;
+        long[] recordCounts = tracker.getCounts();
+        for (int k = 0; k < counts.length; k++) {
+            if (recordCounts[k] == 0) {
+                continue;
+            }
+            counts[k] += recordCounts[k];
+            List<RepeatRun> runs = topRuns.get(k);
+            for (RepeatRun run : tracker.getTopRuns(k)) {
+                runs.add(new RepeatRun(run.getKeyword(), run.getStart(), run.getRepeats(), name));
+            }
+            runs.sort(LONGEST_FIRST);   // stable, so earlier records win ties
+            if (runs.size() > top) {
+                runs.subList(top, runs.size()).clear();
+            }
+        }
+        if (records.size() < DiagnosisResult.MAX_RECORDS) {
+            records.add(new RecordResult(name, tracker.getPosition(), Main.diagnose(tracker, ranges)));
+        }
+    }
+
+    /**
+     * getResults
+     *
+     * @return results of every keyword found in any record, diagnosed by the longest run of all records
+     */
+    public List<KeywordResult> getResults() {
+        return Main.diagnose(automaton, counts, topRuns::get, top, ranges);
+    }
+
+    public long[] getCounts() {
+        return counts;
+    }
+
+    /**
+     * getTopRuns
+     *
+     * @return the longest runs of the keyword found in any record (at most top), longest first
+     */
+    public List<RepeatRun> getTopRuns(int keyword) {
+        return topRuns.get(keyword);
+    }
+
+    /**
+     * getRecords
+     *
+     * @return results of the first DiagnosisResult.MAX_RECORDS records
+     */
+    public List<RecordResult> getRecords() {
+        return records;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+}
@@ -0,0 +1,41 @@
+package com.project.DiseaseDiagnosis;
+
+import java.util.List;
+
+/**
+ * Class RecordResult is the diagnosis result of one record of a FASTA or FASTQ input: its name, the length of
+ * its sequence and the results of all keywords found in it
+ */
+public class RecordResult {
+
+    private final String name;
+    private final long length;
+    private final List<KeywordResult> keywords;
+
+    public RecordResult(String name, long length, List<KeywordResult> keywords) {
+        this.name = name;
+        this.length = length;
+        this.keywords = keywords;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public List<KeywordResult> getKeywords() {
+        return keywords;
+    }
+
+    @Override
+    public String toString() {
+        return "RecordResult{" +
+                "name=" + name +
+                ", length=" + length +
+                ", keywords=" + keywords +
+                '}';
+    }
+}
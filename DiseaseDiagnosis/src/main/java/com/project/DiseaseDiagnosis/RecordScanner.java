@@ -0,0 +1,322 @@
+package com.project.DiseaseDiagnosis;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+/**
+ * Class RecordScanner finds all occurrences and tandem repeat runs of keywords in a FASTA, multi-record FASTA,
+ * FASTQ or raw DNA Sequence that is fed piece by piece. Only sequence bytes are sent to the automaton: header
+ * lines (">chr1 ...", "@read1 ...") and FASTQ separator and quality lines are skipped, so they never produce
+ * matches. Every record is scanned with its own RepeatTracker (positions are relative to the record) and
+ * reported to the RecordListener when it ends. A raw sequence is one record without a name.
+ * <p>
+ * The format is detected from the first byte that is not a line terminator: '>' is FASTA, '@' is FASTQ and
+ * everything else is a raw sequence. FASTQ sequences may span several lines; the quality string of a record is
+ * skipped by its length (the sequence length), because quality strings can start with '@' or '+'.
+ * <p>
+ * With a MismatchMatcher, the sequence bytes are matched with mismatches (see MismatchMatcher) instead of the
+ * automaton; the registers are reset at the start of every record.
+ * <p>
+ * With a PositionWriter, every occurrence is written with the name of its record instead of being tracked.
+ */
+public final class RecordScanner {
+
+    /**
+     * Interface RecordListener receives every record as soon as it ends
+     */
+    public interface RecordListener {
+
+        /**
+         * @param name    first word of the header line, null for a raw sequence
+         * @param tracker counts and repeat runs of the record; its position is the sequence length
+         */
+        void onRecord(String name, RepeatTracker tracker);
+    }
+
+    private static final int BUFFER_LENGTH = 1 << 16;
+    private static final int MAX_NAME_LENGTH = 256;
+
+    private enum State {START, HEADER, SEQUENCE, SEPARATOR, QUALITY}
+
+    private final Automaton automaton;
+    private final MismatchMatcher matcher;
+    private final int top;
+    private final RecordListener listener;
+    private final PositionWriter positionWriter;
+
+    private SequenceFormat format;
+    private State state = State.START;
+    private boolean lineStart = true;
+    private final StringBuilder name = new StringBuilder();
+    private boolean nameEnded;
+    private RepeatTracker tracker;
+    private MatchListener matches;      // receives the occurrences of the current record, null between records
+    private long[] registers;
+    private long qualityRemaining;
+    private long recordCount;
+
+    public RecordScanner(Automaton automaton, int top, RecordListener listener) {
+        this(automaton, null, top, listener, null);
+    }
+
+    public RecordScanner(MismatchMatcher matcher, int top, RecordListener listener) {
+        this(matcher.getAutomaton(), matcher, top, listener, null);
+    }
+
+    /**
+     * RecordScanner writes every occurrence to positionWriter, with positions relative to its record
+     */
+    public RecordScanner(Automaton automaton, PositionWriter positionWriter) {
+        this(automaton, null, 0, null, positionWriter);
+    }
+
+    private RecordScanner(Automaton automaton, MismatchMatcher matcher, int top, RecordListener listener,
+                          PositionWriter positionWriter) {
+        this.automaton = automaton;
+        this.matcher = matcher;
+        this.top = top;
+        this.listener = listener;
+        this.positionWriter = positionWriter;
+    }
+
+    /**
+     * feed scans the bytes data[off, off + len) as the continuation of everything fed before
+     *
+     * @throws IllegalArgumentException if a FASTQ record is malformed
+     */
+    public void feed(byte[] data, int off, int len) {
+        int end = off + len;
+        int i = off;
+        while (i < end) {
+            switch (state) {
+                case START:
+                    i = start(data, i, end);
+                    break;
+                case HEADER:
+                    i = header(data, i, end);
+                    break;
+                case SEQUENCE:
+                    i = sequence(data, i, end);
+                    break;
+                case SEPARATOR:
+                    i = separator(data, i, end);
+                    break;
+                case QUALITY:
+                    i = quality(data, i, end);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * feed reads the stream until its end and scans the bytes while they arrive. The thread's interrupt status
+     * is checked between buffers, so a cancelled job stops.
+     *
+     * @return number of bytes read from the stream
+     */
+    public long feed(InputStream inputStream) throws IOException {
+        byte[] buffer = new byte[BUFFER_LENGTH];
+        long total = 0;
+        int bytesRead;
+        while ((bytesRead = inputStream.read(buffer, 0, buffer.length)) != -1) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Scan was interrupted!");
+            }
+            feed(buffer, 0, bytesRead);
+            total += bytesRead;
+        }
+        return total;
+    }
+
+    /**
+     * finish reports the last record
+     *
+     * @return number of records
+     */
+    public long finish() {
+        if (matches != null) {
+            endRecord();
+        }
+        return recordCount;
+    }
+
+    public SequenceFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * recordName
+     *
+     * @return first word of the header line of the current record, null for a raw sequence
+     */
+    private String recordName() {
+        return format == SequenceFormat.RAW ? null : name.toString();
+    }
+
+    /* START: between records; detects the format from the first byte and opens the next record */
+    private int start(byte[] data, int i, int end) {
+        while (i < end && (data[i] == '\n' || data[i] == '\r')) {
+            i++;
+        }
+        if (i == end) {
+            return i;
+        }
+        byte first = data[i];
+        if (format == null) {
+            format = SequenceFormat.of(first);
+        }
+        if (format == SequenceFormat.RAW) {
+            startRecord();
+            state = State.SEQUENCE;
+            return i;
+        }
+        if (first != format.getHeaderSymbol()) {
+            throw new IllegalArgumentException("Malformed " + format + " record " + (recordCount + 1)
+                    + ": header line expected!");
+        }
+        name.setLength(0);
+        nameEnded = false;
+        state = State.HEADER;
+        return i + 1;
+    }
+
+    private int header(byte[] data, int i, int end) {
+        int from = i;
+        while (i < end && data[i] != '\n') {
+            i++;
+        }
+        appendName(data, from, i);
+        if (i < end) {
+            startRecord();
+            state = State.SEQUENCE;
+            lineStart = true;
+            i++;
+        }
+        return i;
+    }
+
+    private void appendName(byte[] data, int from, int to) {
+        for (int j = from; j < to && !nameEnded; j++) {
+            char symbol = (char) (data[j] & 0xFF);
+            if (Character.isWhitespace(symbol) && name.length() > 0 || name.length() == MAX_NAME_LENGTH) {
+                nameEnded = true;
+            } else if (!Character.isWhitespace(symbol)) {
+                name.append(symbol);
+            }
+        }
+    }
+
+    /* SEQUENCE: sequence lines until a line starts with the next header (FASTA) or the separator '+' (FASTQ) */
+    private int sequence(byte[] data, int i, int end) {
+        if (format == SequenceFormat.RAW) {
+            scan(data, i, end);
+            return end;
+        }
+        byte stop = format == SequenceFormat.FASTA ? (byte) '>' : (byte) '+';
+        int from = i;
+        for (; i < end; i++) {
+            byte symbol = data[i];
+            if (lineStart && symbol == stop) {
+                scan(data, from, i);
+                if (format == SequenceFormat.FASTA) {
+                    endRecord();
+                    name.setLength(0);
+                    nameEnded = false;
+                    state = State.HEADER;
+                } else {
+                    state = State.SEPARATOR;
+                }
+                return i + 1;
+            }
+            lineStart = symbol == '\n';
+        }
+        scan(data, from, end);
+        return end;
+    }
+
+    private void startRecord() {
+        if (positionWriter != null) {
+            positionWriter.startRecord(recordName());
+            matches = positionWriter;
+        } else {
+            tracker = new RepeatTracker(automaton, top);
+            matches = tracker;
+        }
+        registers = matcher == null ? null : matcher.newRegisters();
+    }
+
+    private void scan(byte[] data, int from, int to) {
+        if (matcher == null) {
+            automaton.scan(data, from, to, matches);
+        } else {
+            matcher.scan(data, from, to, registers, matches);
+        }
+    }
+
+    /* SEPARATOR: the rest of the FASTQ '+' line; the quality string has as many symbols as the sequence */
+    private int separator(byte[] data, int i, int end) {
+        while (i < end && data[i] != '\n') {
+            i++;
+        }
+        if (i < end) {
+            state = State.QUALITY;
+            qualityRemaining = matches.getPosition();
+            if (qualityRemaining == 0) {
+                endRecord();
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private int quality(byte[] data, int i, int end) {
+        while (i < end && qualityRemaining > 0) {
+            byte symbol = data[i++];
+            if (symbol != '\n' && symbol != '\r') {
+                qualityRemaining--;
+            }
+        }
+        if (qualityRemaining == 0) {
+            endRecord();
+        }
+        return i;
+    }
+
+    private void endRecord() {
+        recordCount++;
+        if (listener != null) {
+            listener.onRecord(recordName(), tracker);
+        }
+        tracker = null;
+        matches = null;
+        state = State.START;
+        lineStart = true;
+    }
+
+    /**
+     * Enum SequenceFormat is the format of a DNA Sequence input
+     */
+    public enum SequenceFormat {
+        RAW((byte) 0), FASTA((byte) '>'), FASTQ((byte) '@');
+
+        private final byte headerSymbol;
+
+        SequenceFormat(byte headerSymbol) {
+            this.headerSymbol = headerSymbol;
+        }
+
+        byte getHeaderSymbol() {
+            return headerSymbol;
+        }
+
+        /**
+         * of
+         *
+         * @return format of an input starting with the byte (line terminators excluded)
+         */
+        static SequenceFormat of(byte first) {
+            return first == '>' ? FASTA : first == '@' ? FASTQ : RAW;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.project.DiseaseDiagnosis;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Class RepeatRun is a tandem repeat run: repeats consecutive copies of keyword starting at base start
+ * (0-based, line terminators are not counted). In FASTA and FASTQ inputs, start is relative to the record
+ * named by record. Runs of a motif matched on both strands carry the strand ("+" or "-") they were found on.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RepeatRun {
+
+    private final String keyword;
+    private final long start;
+    private final long repeats;
+    private final String record;
+    private final String strand;
+
+    public RepeatRun(String keyword, long start, long repeats) {
+        this(keyword, start, repeats, null);
+    }
+
+    public RepeatRun(String keyword, long start, long repeats, String record) {
+        this(keyword, start, repeats, record, null);
+    }
+
+    public RepeatRun(String keyword, long start, long repeats, String record, String strand) {
+        this.keyword = keyword;
+        this.start = start;
+        this.repeats = repeats;
+        this.record = record;
+        this.strand = strand;
+    }
+
+    public String getKeyword() {
+        return keyword;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getRepeats() {
+        return repeats;
+    }
+
+    /**
+     * getRecord
+     *
+     * @return name of the FASTA or FASTQ record of the run, null for a raw sequence
+     */
+    public String getRecord() {
+        return record;
+    }
+
+    /**
+     * getStrand
+     *
+     * @return strand of the run, null if only the forward strand was scanned
+     */
+    public String getStrand() {
+        return strand;
+    }
+
+    @Override
+    public String toString() {
+        return "RepeatRun{" +
+                "keyword=" + keyword +
+                ", start=" + start +
+                ", repeats=" + repeats +
+                ", record=" + record +
+                ", strand=" + strand +
+                '}';
+    }
+}
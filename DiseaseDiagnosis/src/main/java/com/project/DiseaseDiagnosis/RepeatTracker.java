@@ -0,0 +1,306 @@
+package com.project.DiseaseDiagnosis;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Class RepeatTracker finds tandem repeat runs (consecutive copies of a keyword, e.g. CAGCAGCAG) in the stream
+ * of keyword occurrences produced by Automaton.scan, in the same pass that counts them. For every keyword it
+ * reports the number of occurrences and the top longest runs with their positions.
+ * <p>
+ * An occurrence continues a run if it starts right where the previous copy ended, i.e. exactly keyword length
+ * bases after the previous occurrence. Self-overlapping keywords (e.g. AAA) can have runs in several phases at
+ * the same time, so runs are tracked per phase (end position modulo keyword length).
+ * <p>
+ * In every phase slot the first run (head) and the current run (tail) are kept open, and every other run is
+ * closed into the top list. This makes trackers of consecutive chunks of a sequence mergeable with append:
+ * the tail of one chunk is joined with the head of the next one when they are contiguous.
+ */
+public final class RepeatTracker extends MatchListener {
+
+    public static final int DEFAULT_TOP = 5;
+
+    private final Automaton automaton;
+    private final int top;
+
+    private final int[] lengths;         // keyword -> keyword length
+    private final int[] slotOffsets;     // phase slots of keyword k are slotOffsets[k] ... slotOffsets[k + 1] - 1
+    private final long[] counts;
+
+    /* open runs per phase slot (count 0 = no run) */
+    private final long[] headStart, headCount, tailStart, tailCount;
+
+    /* closed runs, top longest per keyword, sorted by repeats (descending) and start */
+    private final long[] topStart, topCount;
+    private final int[] topSize;
+
+    public RepeatTracker(Automaton automaton) {
+        this(automaton, DEFAULT_TOP);
+    }
+
+    public RepeatTracker(Automaton automaton, int top) {
+        if (top <= 0) {
+            throw new IllegalArgumentException("Number of reported repeat runs must be positive!");
+        }
+        this.automaton = automaton;
+        this.top = top;
+        int keywordCount = automaton.getKeywordCount();
+        this.lengths = new int[keywordCount];
+        this.slotOffsets = new int[keywordCount + 1];
+        for (int k = 0; k < keywordCount; k++) {
+            lengths[k] = automaton.getKeywordLength(k);
+            slotOffsets[k + 1] = slotOffsets[k] + lengths[k];
+        }
+        int slots = slotOffsets[keywordCount];
+        this.counts = new long[keywordCount];
+        this.headStart = new long[slots];
+        this.headCount = new long[slots];
+        this.tailStart = new long[slots];
+        this.tailCount = new long[slots];
+        this.topStart = new long[keywordCount * top];
+        this.topCount = new long[keywordCount * top];
+        this.topSize = new int[keywordCount];
+    }
+
+    @Override
+    protected void onMatch(int keyword, long end) {
+        counts[keyword]++;
+        int length = lengths[keyword];
+        int slot = slotOffsets[keyword] + (int) (end % length);
+        long start = end - length + 1;
+        if (headCount[slot] == 0) {
+            headStart[slot] = start;
+            headCount[slot] = 1;
+        } else if (tailCount[slot] == 0) {
+            if (headStart[slot] + headCount[slot] * length == start) {
+                headCount[slot]++;
+            } else {
+                tailStart[slot] = start;
+                tailCount[slot] = 1;
+            }
+        } else if (tailStart[slot] + tailCount[slot] * length == start) {
+            tailCount[slot]++;
+        } else {
+            record(keyword, tailStart[slot], tailCount[slot]);
+            tailStart[slot] = start;
+            tailCount[slot] = 1;
+        }
+    }
+
+    /**
+     * append merges the tracker of the chunk that directly follows this tracker's part of the sequence. Positions
+     * of next are relative to its own chunk; they are shifted by the number of symbols tracked here. Runs that
+     * cross the chunk boundary are joined.
+     */
+    public void append(RepeatTracker next) {
+        long shift = position;
+        for (int k = 0; k < counts.length; k++) {
+            counts[k] += next.counts[k];
+            for (int i = 0; i < next.topSize[k]; i++) {
+                record(k, next.topStart[k * top + i] + shift, next.topCount[k * top + i]);
+            }
+            int length = lengths[k];
+            for (int q = 0; q < length; q++) {
+                int src = next.slotOffsets[k] + q;
+                if (next.headCount[src] == 0) {
+                    continue;
+                }
+                int dst = slotOffsets[k] + (int) ((q + shift) % length);
+                long nextHeadStart = next.headStart[src] + shift, nextHeadCount = next.headCount[src];
+                long nextTailStart = next.tailStart[src] + shift, nextTailCount = next.tailCount[src];
+                if (headCount[dst] == 0) {
+                    headStart[dst] = nextHeadStart;
+                    headCount[dst] = nextHeadCount;
+                    tailStart[dst] = nextTailStart;
+                    tailCount[dst] = nextTailCount;
+                    continue;
+                }
+                boolean hasTail = tailCount[dst] > 0;
+                long currentStart = hasTail ? tailStart[dst] : headStart[dst];
+                long currentCount = hasTail ? tailCount[dst] : headCount[dst];
+                if (currentStart + currentCount * length == nextHeadStart) {
+                    /* the current run continues in the next chunk */
+                    if (hasTail) {
+                        tailCount[dst] += nextHeadCount;
+                    } else {
+                        headCount[dst] += nextHeadCount;
+                    }
+                    if (nextTailCount > 0) {
+                        if (hasTail) {
+                            record(k, tailStart[dst], tailCount[dst]);
+                        }
+                        tailStart[dst] = nextTailStart;
+                        tailCount[dst] = nextTailCount;
+                    }
+                } else {
+                    if (hasTail) {
+                        record(k, tailStart[dst], tailCount[dst]);
+                    }
+                    if (nextTailCount > 0) {
+                        record(k, nextHeadStart, nextHeadCount);
+                        tailStart[dst] = nextTailStart;
+                        tailCount[dst] = nextTailCount;
+                    } else {
+                        tailStart[dst] = nextHeadStart;
+                        tailCount[dst] = nextHeadCount;
+                    }
+                }
+            }
+        }
+        position += next.position;
+        state = next.state;
+    }
+
+    /**
+     * record adds a closed run to the top list of the keyword if it is long enough
+     */
+    private void record(int keyword, long start, long repeats) {
+        int base = keyword * top;
+        int size = topSize[keyword];
+        int i = size;
+        while (i > 0 && (topCount[base + i - 1] < repeats
+                || (topCount[base + i - 1] == repeats && topStart[base + i - 1] > start))) {
+            i--;
+        }
+        if (i == top) {
+            return;
+        }
+        int last = Math.min(size, top - 1);
+        System.arraycopy(topStart, base + i, topStart, base + i + 1, last - i);
+        System.arraycopy(topCount, base + i, topCount, base + i + 1, last - i);
+        topStart[base + i] = start;
+        topCount[base + i] = repeats;
+        topSize[keyword] = Math.min(size + 1, top);
+    }
+
+    /**
+     * getTopRuns
+     *
+     * @return the longest tandem runs of the keyword (at most top), longest first
+     */
+    public List<RepeatRun> getTopRuns(int keyword) {
+        String name = automaton.getKeyword(keyword);
+        List<RepeatRun> runs = new ArrayList<>();
+        for (int i = 0; i < topSize[keyword]; i++) {
+            runs.add(new RepeatRun(name, topStart[keyword * top + i], topCount[keyword * top + i]));
+        }
+        for (int slot = slotOffsets[keyword]; slot < slotOffsets[keyword + 1]; slot++) {
+            if (headCount[slot] > 0) {
+                runs.add(new RepeatRun(name, headStart[slot], headCount[slot]));
+            }
+            if (tailCount[slot] > 0) {
+                runs.add(new RepeatRun(name, tailStart[slot], tailCount[slot]));
+            }
+        }
+        runs.sort(Comparator.comparingLong(RepeatRun::getRepeats).reversed().thenComparingLong(RepeatRun::getStart));
+        return runs.size() > top ? new ArrayList<>(runs.subList(0, top)) : runs;
+    }
+
+    /**
+     * getLongestRun
+     *
+     * @return the longest tandem run of the keyword, null if the keyword was not found
+     */
+    public RepeatRun getLongestRun(int keyword) {
+        List<RepeatRun> runs = getTopRuns(keyword);
+        return runs.isEmpty() ? null : runs.get(0);
+    }
+
+    /**
+     * getCounts
+     *
+     * @return count array (indexed like Automaton.getKeyword)
+     */
+    public long[] getCounts() {
+        return counts;
+    }
+
+    public Automaton getAutomaton() {
+        return automaton;
+    }
+
+    public int getTop() {
+        return top;
+    }
+
+    /**
+     * copy
+     *
+     * @return independent copy of this tracker, used for checkpoints
+     */
+    public RepeatTracker copy() {
+        RepeatTracker copy = new RepeatTracker(automaton, top);
+        copy.state = state;
+        copy.position = position;
+        copyArrays(this, copy);
+        return copy;
+    }
+
+    private static void copyArrays(RepeatTracker from, RepeatTracker to) {
+        System.arraycopy(from.counts, 0, to.counts, 0, from.counts.length);
+        System.arraycopy(from.headStart, 0, to.headStart, 0, from.headStart.length);
+        System.arraycopy(from.headCount, 0, to.headCount, 0, from.headCount.length);
+        System.arraycopy(from.tailStart, 0, to.tailStart, 0, from.tailStart.length);
+        System.arraycopy(from.tailCount, 0, to.tailCount, 0, from.tailCount.length);
+        System.arraycopy(from.topStart, 0, to.topStart, 0, from.topStart.length);
+        System.arraycopy(from.topCount, 0, to.topCount, 0, from.topCount.length);
+        System.arraycopy(from.topSize, 0, to.topSize, 0, from.topSize.length);
+    }
+
+    /**
+     * writeTo stores the complete tracker state (automaton state, position, counts and runs) in a stream
+     */
+    void writeTo(DataOutputStream output) throws IOException {
+        output.writeInt(top);
+        output.writeInt(state);
+        output.writeLong(position);
+        for (long[] array : new long[][]{counts, headStart, headCount, tailStart, tailCount, topStart, topCount}) {
+            output.writeInt(array.length);
+            for (long value : array) {
+                output.writeLong(value);
+            }
+        }
+        for (int size : topSize) {
+            output.writeInt(size);
+        }
+    }
+
+    /**
+     * readFrom reads a tracker stored by writeTo
+     *
+     * @throws IOException if the stored tracker does not belong to the automaton or is corrupted
+     */
+    static RepeatTracker readFrom(Automaton automaton, DataInputStream input) throws IOException {
+        int top = input.readInt();
+        if (top <= 0) {
+            throw new IOException("Stored repeat runs are corrupted (top " + top + ")!");
+        }
+        RepeatTracker tracker = new RepeatTracker(automaton, top);
+        tracker.state = input.readInt();
+        if (tracker.state < 0 || tracker.state % automaton.getRowBytes() != 0
+                || automaton.stateIndex(tracker.state) >= automaton.getStateCount()) {
+            throw new IOException("Stored automaton state " + tracker.state + " is not a state of this automaton!");
+        }
+        tracker.position = input.readLong();
+        for (long[] array : new long[][]{tracker.counts, tracker.headStart, tracker.headCount, tracker.tailStart,
+                tracker.tailCount, tracker.topStart, tracker.topCount}) {
+            if (input.readInt() != array.length) {
+                throw new IOException("Stored repeat runs do not belong to this automaton!");
+            }
+            for (int i = 0; i < array.length; i++) {
+                array[i] = input.readLong();
+            }
+        }
+        for (int k = 0; k < tracker.topSize.length; k++) {
+            tracker.topSize[k] = input.readInt();
+            if (tracker.topSize[k] < 0 || tracker.topSize[k] > top) {
+                throw new IOException("Stored repeat runs are corrupted (" + tracker.topSize[k] + " top runs)!");
+            }
+        }
+        return tracker;
+    }
+}
@@ -0,0 +1,333 @@
+package com.project.DiseaseDiagnosis;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class ResultCache keeps diagnosis reports of uploads that were already scanned, so a sample that is uploaded
+ * again is not scanned again. A report holds only what the content determines (the keywords, runs and diseases),
+ * not the times or memory of the scan that produced it. Entries are content addressed: the key is the hash of the
+ * uploaded bytes (computed by a DigestInputStream while the upload is staged, so a miss reads the upload only once)
+ * combined with the fingerprints of the automaton and of the disease ranges, so a change of any of them makes old
+ * entries unreachable. The engine is not part of the key: every engine finds the same diagnosis.
+ * <p>
+ * At most capacity reports are kept in memory. With a directory, reports are also written to disk, one file per
+ * key, up to maxDiskBytes; the least recently used entry of either tier is evicted first. The disk tier survives
+ * restarts: its files are indexed by their modification time, which a hit refreshes.
+ */
+public final class ResultCache {
+
+    static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * FORMAT is part of every key, so reports of an older format are never served
+     */
+    static final int FORMAT = 2;
+
+    private static final String SUFFIX = ".report";
+
+    private final int capacity;
+    private final Map<String, String> results;
+
+    /**
+     * files stores key -> file size of the disk tier in access order, guarded by itself; null without a directory
+     */
+    private final Path directory;
+    private final long maxDiskBytes;
+    private final Map<String, Long> files;
+    private long diskBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong diskEvictions = new AtomicLong();
+    private final AtomicLong diskFailures = new AtomicLong();
+
+    public ResultCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ResultCache(int capacity) {
+        this(capacity, null, 0);
+    }
+
+    /**
+     * @param directory    directory of the disk tier, created if it does not exist; null for memory only
+     * @param maxDiskBytes total size of the reports in the disk tier
+     */
+    public ResultCache(int capacity, Path directory, long maxDiskBytes) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive!");
+        }
+        this.capacity = capacity;
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                if (size() > ResultCache.this.capacity) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.directory = directory;
+        this.maxDiskBytes = maxDiskBytes;
+        this.files = directory != null ? new LinkedHashMap<>(16, 0.75f, true) : null;
+        if (directory != null) {
+            index();
+        }
+    }
+
+    /**
+     * newDigest
+     *
+     * @return digest of the uploaded content, to be passed to key after the upload is read
+     */
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * key
+     *
+     * @param content digest of the uploaded content (see newDigest)
+     * @param parts   everything else the report depends on, e.g. the automaton and disease ranges fingerprints
+     * @return hex SHA-256 hash of the content hash and the parts
+     */
+    public static String key(MessageDigest content, String... parts) {
+        MessageDigest digest = newDigest();
+        digest.update(content.digest());
+        digest.update((byte) FORMAT);
+        for (String part : parts) {
+            digest.update((byte) 0);
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * get looks the key up in memory, then on disk; a report found on disk is moved into memory
+     *
+     * @return the cached report, null on a miss
+     */
+    public String get(String key) {
+        synchronized (results) {
+            String report = results.get(key);
+            if (report != null) {
+                hits.incrementAndGet();
+                return report;
+            }
+        }
+        String report = directory != null ? read(key) : null;
+        if (report == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        diskHits.incrementAndGet();
+        synchronized (results) {
+            results.put(key, report);
+        }
+        return report;
+    }
+
+    /**
+     * put stores the report in memory and, with a directory, on disk. A report that cannot be written to disk is
+     * kept in memory only.
+     */
+    public void put(String key, String report) {
+        synchronized (results) {
+            results.put(key, report);
+        }
+        if (directory != null) {
+            try {
+                write(key, report);
+            } catch (IOException e) {
+                diskFailures.incrementAndGet();
+            }
+        }
+    }
+
+    private void index() {
+        List<Path> paths = new ArrayList<>();
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+                stream.forEach(paths::add);
+            }
+            Map<Path, FileTime> modified = new LinkedHashMap<>();
+            for (Path path : paths) {
+                modified.put(path, Files.getLastModifiedTime(path));
+            }
+            paths.sort(Comparator.comparing(modified::get));
+            synchronized (files) {
+                for (Path path : paths) {
+                    String name = path.getFileName().toString();
+                    long size = Files.size(path);
+                    files.put(name.substring(0, name.length() - SUFFIX.length()), size);
+                    diskBytes += size;
+                }
+                evictFiles();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * read looks the key up in files, which also marks it as recently used, and reads the report without holding
+     * the lock, so a slow disk does not block other lookups and writes
+     */
+    private String read(String key) {
+        synchronized (files) {
+            if (files.get(key) == null) {
+                return null;
+            }
+        }
+        Path path = directory.resolve(key + SUFFIX);
+        String report;
+        try {
+            report = Files.readString(path, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            synchronized (files) {
+                /* evicted meanwhile or removed from outside; a report written again meanwhile stays */
+                Long size = Files.exists(path) ? null : files.remove(key);
+                if (size != null) {
+                    diskBytes -= size;
+                }
+            }
+            return null;
+        }
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            /* evicted meanwhile, the report read is still valid */
+        }
+        return report;
+    }
+
+    private void write(String key, String report) throws IOException {
+        byte[] bytes = report.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > maxDiskBytes) {
+            return;
+        }
+        Path temporary = Files.createTempFile(directory, key, ".tmp");
+        try {
+            Files.write(temporary, bytes);
+            synchronized (files) {
+                Files.move(temporary, directory.resolve(key + SUFFIX), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                Long previous = files.put(key, (long) bytes.length);
+                diskBytes += bytes.length - (previous != null ? previous : 0);
+                evictFiles();
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * evictFiles deletes the least recently used files until the disk tier fits into maxDiskBytes, guarded by files
+     */
+    private void evictFiles() throws IOException {
+        Iterator<Map.Entry<String, Long>> eldest = files.entrySet().iterator();
+        while (diskBytes > maxDiskBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            Files.deleteIfExists(directory.resolve(entry.getKey() + SUFFIX));
+            diskBytes -= entry.getValue();
+            eldest.remove();
+            diskEvictions.incrementAndGet();
+        }
+    }
+
+    public int size() {
+        synchronized (results) {
+            return results.size();
+        }
+    }
+
+    /**
+     * getDiskSize
+     *
+     * @return number of reports in the disk tier
+     */
+    public int getDiskSize() {
+        if (files == null) {
+            return 0;
+        }
+        synchronized (files) {
+            return files.size();
+        }
+    }
+
+    /**
+     * getDiskBytes
+     *
+     * @return total size of the reports in the disk tier
+     */
+    public long getDiskBytes() {
+        if (files == null) {
+            return 0;
+        }
+        synchronized (files) {
+            return diskBytes;
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getMaxDiskBytes() {
+        return maxDiskBytes;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getDiskEvictions() {
+        return diskEvictions.get();
+    }
+
+    /**
+     * getDiskFailures
+     *
+     * @return number of reports that could not be written to the disk tier
+     */
+    public long getDiskFailures() {
+        return diskFailures.get();
+    }
+}
@@ -0,0 +1,42 @@
+package com.project.DiseaseDiagnosis;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Class SampleResult is the result of one sample of a batch (see BatchDiagnosis): the diagnosis result, or the
+ * reason why the sample could not be diagnosed
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SampleResult {
+
+    private final String sample;
+    private final DiagnosisResult result;
+    private final String error;
+
+    public SampleResult(String sample, DiagnosisResult result, String error) {
+        this.sample = sample;
+        this.result = result;
+        this.error = error;
+    }
+
+    public String getSample() {
+        return sample;
+    }
+
+    public DiagnosisResult getResult() {
+        return result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "SampleResult{" +
+                "sample=" + sample +
+                ", result=" + result +
+                ", error=" + error +
+                '}';
+    }
+}
@@ -0,0 +1,142 @@
+package com.project.DiseaseDiagnosis;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class ScanJob is one diagnosis running in the background (see ScanJobs). Its status (state and progress in
+ * bytes) can be polled while it runs, and its result is kept after it is done. State changes are synchronized,
+ * so a job that is cancelled never becomes DONE or FAILED afterwards.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class ScanJob {
+
+    public enum State {
+        QUEUED, RUNNING, DONE, FAILED, CANCELLED;
+
+        boolean isFinished() {
+            return this == DONE || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final String id;
+    private final long bytesTotal;
+    private final AtomicLong bytesProcessed = new AtomicLong();
+
+    private State state = State.QUEUED;
+    private DiagnosisResult result;
+    private String error;
+    private Future<?> future;
+    private long finishedAt;    // System.nanoTime() when the job was finished
+
+    ScanJob(String id, long bytesTotal) {
+        this.id = id;
+        this.bytesTotal = bytesTotal;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public long getBytesTotal() {
+        return bytesTotal;
+    }
+
+    /**
+     * getBytesProcessed
+     *
+     * @return number of bytes of the DNA Sequence scanned so far
+     */
+    public long getBytesProcessed() {
+        return bytesProcessed.get();
+    }
+
+    public synchronized String getError() {
+        return error;
+    }
+
+    /**
+     * getResult
+     *
+     * @return diagnosis result, null if the job is not DONE
+     */
+    @JsonIgnore
+    public synchronized DiagnosisResult getResult() {
+        return result;
+    }
+
+    AtomicLong progress() {
+        return bytesProcessed;
+    }
+
+    synchronized void setFuture(Future<?> future) {
+        this.future = future;
+        if (state == State.CANCELLED) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * start
+     *
+     * @return false if the job was cancelled before it started
+     */
+    synchronized boolean start() {
+        if (state != State.QUEUED) {
+            return false;
+        }
+        state = State.RUNNING;
+        return true;
+    }
+
+    synchronized void complete(DiagnosisResult result) {
+        if (state == State.RUNNING) {
+            this.result = result;
+            finish(State.DONE);
+        }
+    }
+
+    synchronized void fail(String error) {
+        if (state == State.RUNNING) {
+            this.error = error;
+            finish(State.FAILED);
+        }
+    }
+
+    /**
+     * cancel stops the job if it is queued or running; a running scan is interrupted
+     *
+     * @return false if the job was already finished
+     */
+    synchronized boolean cancel() {
+        if (state.isFinished()) {
+            return false;
+        }
+        finish(State.CANCELLED);
+        if (future != null) {
+            future.cancel(true);
+        }
+        return true;
+    }
+
+    private void finish(State state) {
+        this.state = state;
+        this.finishedAt = System.nanoTime();
+    }
+
+    /**
+     * isExpired
+     *
+     * @return true if the job was finished more than retentionNanos ago
+     */
+    synchronized boolean isExpired(long now, long retentionNanos) {
+        return state.isFinished() && now - finishedAt > retentionNanos;
+    }
+}
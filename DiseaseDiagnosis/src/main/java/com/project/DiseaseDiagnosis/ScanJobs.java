@@ -0,0 +1,147 @@
+package com.project.DiseaseDiagnosis;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class ScanJobs runs diagnoses as background jobs, so a request only stages the upload and returns a job id
+ * instead of blocking a servlet thread for the whole scan. Every job runs on its own virtual thread: a waiting
+ * or queued job holds no platform thread, so the number of jobs in flight is limited by the staged files on
+ * disk, not by a thread pool. The scan itself is CPU bound, so at most one scan per core runs at a time; the
+ * other jobs stay QUEUED until a scan is finished and start in the order they were submitted.
+ * <p>
+ * Finished jobs (and their results) are kept for RETENTION and removed by the next submit after that.
+ */
+public final class ScanJobs implements Closeable {
+
+    static final long RETENTION = TimeUnit.HOURS.toNanos(1);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, ScanJob> jobs = new ConcurrentHashMap<>();
+    private final AutomatonCache automatonCache;
+    private final DictionaryRegistry dictionaries;
+    private final DiagnosisMetrics metrics;
+
+    /**
+     * scans has one permit for every scan that may run at the same time
+     */
+    private final Semaphore scans;
+    private final long retentionNanos;
+
+    public ScanJobs(AutomatonCache automatonCache, DictionaryRegistry dictionaries, DiagnosisMetrics metrics) {
+        this(automatonCache, dictionaries, metrics, new Semaphore(Runtime.getRuntime().availableProcessors(), true), RETENTION);
+    }
+
+    ScanJobs(AutomatonCache automatonCache, DictionaryRegistry dictionaries, DiagnosisMetrics metrics,
+             Semaphore scans, long retentionNanos) {
+        this.automatonCache = automatonCache;
+        this.dictionaries = dictionaries;
+        this.metrics = metrics;
+        this.scans = scans;
+        this.retentionNanos = retentionNanos;
+    }
+
+    /**
+     * submit starts the diagnosis of a staged DNA Sequence. The job owns the staged file and deletes it when
+     * it is finished. The automaton is taken from the cache (or constructed) by the job, not by the caller.
+     *
+     * @return the new job
+     */
+    public ScanJob submit(File dnaSequence, String[] keywords) {
+        return submit(dnaSequence, keywords, 0);
+    }
+
+    /**
+     * Same as submit(dnaSequence, keywords), with keywords matched with up to mismatches substituted bases
+     * (see MismatchMatcher)
+     */
+    public ScanJob submit(File dnaSequence, String[] keywords, int mismatches) {
+        removeExpired();
+        ScanJob job = new ScanJob(UUID.randomUUID().toString(), dnaSequence.length());
+        jobs.put(job.getId(), job);
+        job.setFuture(executor.submit(() -> run(job, dnaSequence, keywords, mismatches)));
+        return job;
+    }
+
+    private void run(ScanJob job, File dnaSequence, String[] keywords, int mismatches) {
+        boolean acquired = false;
+        try {
+            /* a job cancelled while it waits for a permit is interrupted here */
+            scans.acquire();
+            acquired = true;
+            if (!job.start()) {
+                return;
+            }
+            Main main = new Main(automatonCache, dictionaries, metrics, EnginePlanner.GLOBAL);
+            boolean cached = automatonCache.contains(keywords);
+            String automatonStage = cached ? DiagnosisMetrics.DFA_CACHE_LOOKUP : DiagnosisMetrics.DFA_BUILD;
+            long startTime = System.nanoTime();
+            Automaton automaton = automatonCache.get(keywords);
+            long nanoTime = metrics.record(automatonStage, startTime);
+            DiagnosisResult result = mismatches == 0 ? main.diagnose(dnaSequence, automaton, job.progress())
+                    : main.diagnose(dnaSequence, new MismatchMatcher(automaton, mismatches), job.progress());
+            job.complete(result.addTiming(automatonStage, nanoTime));
+        } catch (InterruptedIOException | InterruptedException e) {
+            job.cancel();
+        } catch (Exception e) {
+            job.fail(e.getMessage());
+        } finally {
+            if (acquired) {
+                scans.release();
+            }
+            try {
+                Files.deleteIfExists(dnaSequence.toPath());
+            } catch (Exception e) {
+                dnaSequence.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * get
+     *
+     * @return the job, null if there is no job with this id
+     */
+    public ScanJob get(String id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * cancel stops a queued or running job; a finished job is removed with its result
+     *
+     * @return the job, null if there is no job with this id
+     */
+    public ScanJob cancel(String id) {
+        ScanJob job = jobs.get(id);
+        if (job != null && !job.cancel()) {
+            jobs.remove(id);
+        }
+        return job;
+    }
+
+    public int size() {
+        return jobs.size();
+    }
+
+    /**
+     * close stops all jobs: queued and running jobs are cancelled and delete their staged files
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void removeExpired() {
+        long now = System.nanoTime();
+        jobs.values().removeIf(job -> job.isExpired(now, retentionNanos));
+    }
+}
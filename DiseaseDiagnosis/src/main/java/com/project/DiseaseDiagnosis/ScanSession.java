@@ -0,0 +1,211 @@
+package com.project.DiseaseDiagnosis;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Class ScanSession finds all occurrences of keywords in a DNA Sequence that is fed piece by piece, e.g. reads
+ * arriving from a sequencer or the chunks of an upload. The automaton state, the number of bytes fed so far
+ * (global offset) and the partial counts and repeat runs are kept between calls, so keywords and runs spanning
+ * two pieces are found.
+ * snapshot() captures them in a Checkpoint, which can be written to disk and used to resume the scan later,
+ * e.g. after a crash, from the first byte after the checkpoint.
+ * <p>
+ * A session is used by one thread at a time; the automaton may be shared by many sessions.
+ */
+public final class ScanSession {
+
+    private static final int BUFFER_LENGTH = 1 << 16;
+
+    private final Automaton automaton;
+    private final RepeatTracker tracker;
+    private long offset;
+    private boolean finished;
+
+    public ScanSession(Automaton automaton) {
+        this(automaton, RepeatTracker.DEFAULT_TOP);
+    }
+
+    /**
+     * @param top number of longest repeat runs reported per keyword
+     */
+    public ScanSession(Automaton automaton, int top) {
+        this.automaton = automaton;
+        this.tracker = new RepeatTracker(automaton, top);
+    }
+
+    private ScanSession(Automaton automaton, Checkpoint checkpoint) {
+        if (!automaton.getFingerprint().equals(checkpoint.fingerprint)) {
+            throw new IllegalArgumentException("Checkpoint was taken with a different set of keywords!");
+        }
+        this.automaton = automaton;
+        this.tracker = checkpoint.tracker.copy();
+        this.offset = checkpoint.offset;
+    }
+
+    /**
+     * resume
+     *
+     * @return session that continues the scan where the checkpoint was taken
+     */
+    public static ScanSession resume(Automaton automaton, Checkpoint checkpoint) {
+        return new ScanSession(automaton, checkpoint);
+    }
+
+    /**
+     * feed scans the bytes data[off, off + len) as the continuation of everything fed before
+     */
+    public void feed(byte[] data, int off, int len) {
+        checkNotFinished();
+        automaton.scan(data, off, off + len, tracker);
+        offset += len;
+    }
+
+    /**
+     * feed scans the bytes buffer[off, off + len) as the continuation of everything fed before.
+     * The position of the buffer is not changed.
+     */
+    public void feed(ByteBuffer buffer, int off, int len) {
+        checkNotFinished();
+        automaton.scan(buffer, off, off + len, tracker);
+        offset += len;
+    }
+
+    /**
+     * feed scans the remaining bytes of the buffer and moves its position to the limit
+     */
+    public void feed(ByteBuffer buffer) {
+        feed(buffer, buffer.position(), buffer.remaining());
+        buffer.position(buffer.limit());
+    }
+
+    /**
+     * feed reads the stream until its end and scans the bytes while they arrive
+     *
+     * @return number of bytes read from the stream
+     */
+    public long feed(InputStream inputStream) throws IOException {
+        byte[] buffer = new byte[BUFFER_LENGTH];
+        long total = 0;
+        int bytesRead;
+        while ((bytesRead = inputStream.read(buffer, 0, buffer.length)) != -1) {
+            feed(buffer, 0, bytesRead);
+            total += bytesRead;
+        }
+        return total;
+    }
+
+    /**
+     * snapshot
+     *
+     * @return checkpoint holding the global offset and a copy of the automaton state, partial counts and runs
+     */
+    public Checkpoint snapshot() {
+        return new Checkpoint(automaton.getFingerprint(), offset, tracker.copy());
+    }
+
+    /**
+     * finish ends the session; no more data can be fed afterwards
+     *
+     * @return tracker holding the counts and the repeat runs of all keywords
+     */
+    public RepeatTracker finish() {
+        checkNotFinished();
+        finished = true;
+        return tracker;
+    }
+
+    /**
+     * getOffset
+     *
+     * @return number of bytes fed so far, including the bytes fed before the checkpoint the session was resumed from
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    public Automaton getAutomaton() {
+        return automaton;
+    }
+
+    private void checkNotFinished() {
+        if (finished) {
+            throw new IllegalStateException("Scan session is already finished!");
+        }
+    }
+
+    /**
+     * Class Checkpoint is an immutable snapshot of a scan session. The fingerprint of the automaton's keywords is
+     * stored with it, so a session can only be resumed with an automaton for the same keywords. A stored
+     * checkpoint starts with MAGIC and VERSION; VERSION changes whenever the meaning of the stored automaton
+     * state changes (it is the byte offset of the state's row, see Automaton), so an older checkpoint is never
+     * resumed in the wrong state.
+     */
+    public static final class Checkpoint {
+
+        static final int MAGIC = 0x44444350;      // "DDCP"
+        static final int VERSION = 1;
+
+        private final String fingerprint;
+        private final long offset;
+        private final RepeatTracker tracker;
+
+        private Checkpoint(String fingerprint, long offset, RepeatTracker tracker) {
+            this.fingerprint = fingerprint;
+            this.offset = offset;
+            this.tracker = tracker;
+        }
+
+        /**
+         * writeTo stores the checkpoint in a stream
+         */
+        public void writeTo(OutputStream outputStream) throws IOException {
+            DataOutputStream output = new DataOutputStream(outputStream);
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeUTF(fingerprint);
+            output.writeLong(offset);
+            tracker.writeTo(output);
+            output.flush();
+        }
+
+        /**
+         * readFrom reads a checkpoint stored by writeTo. The automaton is needed to rebuild the repeat runs.
+         *
+         * @throws IllegalArgumentException if the checkpoint was taken with a different set of keywords
+         * @throws IOException              if the stream does not hold a checkpoint, has an unsupported version or
+         *                                  is corrupted
+         */
+        public static Checkpoint readFrom(Automaton automaton, InputStream inputStream) throws IOException {
+            DataInputStream input = new DataInputStream(inputStream);
+            if (input.readInt() != MAGIC) {
+                throw new IOException("Stream does not hold a scan checkpoint!");
+            }
+            int version = input.readInt();
+            if (version != VERSION) {
+                throw new IOException("Scan checkpoint has unsupported version " + version + "!");
+            }
+            String fingerprint = input.readUTF();
+            if (!automaton.getFingerprint().equals(fingerprint)) {
+                throw new IllegalArgumentException("Checkpoint was taken with a different set of keywords!");
+            }
+            long offset = input.readLong();
+            if (offset < 0) {
+                throw new IOException("Scan checkpoint is corrupted (offset " + offset + ")!");
+            }
+            return new Checkpoint(fingerprint, offset, RepeatTracker.readFrom(automaton, input));
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+    }
+}
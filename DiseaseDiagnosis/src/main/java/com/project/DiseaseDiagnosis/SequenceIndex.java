@@ -0,0 +1,411 @@
+package com.project.DiseaseDiagnosis;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Class SequenceIndex is an FM-index of one DNA Sequence: the Burrows-Wheeler transform of the sequence with rank
+ * checkpoints and a sampled suffix array. It is built once per sample (see build) and answers count queries in
+ * time proportional to the keyword length and locate queries in time proportional to the number of occurrences,
+ * independent of the length of the sequence, so new keyword panels are matched against an indexed sample without
+ * scanning it again.
+ * <p>
+ * The text of the index are the symbols the automaton sees (see Nucleotides): bases A, C, G and T, and ESCAPE for
+ * every other byte; line terminators are skipped. Positions therefore are the positions reported by
+ * Automaton.scan (see MatchListener). In keywords, IUPAC codes stand for every base they represent.
+ * <p>
+ * All tables are stored off heap, in direct buffers after build and in the mapping of the index file after load,
+ * like the automaton table (see AutomatonFile). The index file is little endian:
+ * <pre>
+ * header   magic "DDFM", version, rows, sample, symbol counts (SYMBOLS + 1 ints),
+ *          CRC32 of the file with this field set to 0 (long), padded to BWT_OFFSET bytes
+ * payload  BWT (one byte per row, padded to 8 bytes), blocks (BLOCK_BYTES per BLOCK rows), samples (ints)
+ * </pre>
+ * A block holds the number of every symbol in the BWT before the block, the number of sampled rows before the
+ * block and a bit per row of the block that marks the sampled rows.
+ */
+public final class SequenceIndex {
+
+    static final int MAGIC = 0x4D464444;      // "DDFM" in little endian
+    static final int VERSION = 2;
+
+    /**
+     * Symbols of the indexed text: SENTINEL (end of text), the bases A, C, G, T (2-bit code + 1) and ESCAPE
+     */
+    static final int SENTINEL = 0;
+    static final int ESCAPE = Nucleotides.ESCAPE + 1;
+    static final int SYMBOLS = ESCAPE + 1;
+
+    /**
+     * BLOCK rows share one checkpoint; SAMPLE is the distance of sampled text positions, i.e. the maximal number
+     * of LF steps of a locate
+     */
+    static final int BLOCK = 64;
+    static final int SAMPLE = 32;
+
+    /**
+     * Layout of a block: SYMBOLS counts, the sampled row count and a padding int, then the bits of the sampled rows
+     */
+    static final int RANK_OFFSET = Integer.BYTES * SYMBOLS;
+    static final int MARKS_OFFSET = RANK_OFFSET + 2 * Integer.BYTES;
+    static final int BLOCK_BYTES = MARKS_OFFSET + Long.BYTES;
+
+    static final int BWT_OFFSET = 64;
+    static final int HEADER_SIZE = (4 + SYMBOLS + 1) * Integer.BYTES + Long.BYTES;
+    static final int CHECKSUM_OFFSET = HEADER_SIZE - Long.BYTES;
+
+    /**
+     * MAX_LENGTH is the maximal number of symbols: the construction holds the text and the suffix array in int
+     * arrays, and every region of the index must fit into one buffer
+     */
+    static final int MAX_LENGTH = Integer.MAX_VALUE / 2;
+
+    /**
+     * BUILD_BYTES_PER_BASE is the heap the construction needs per base (see build)
+     */
+    static final int BUILD_BYTES_PER_BASE = 10;
+
+    /**
+     * rows is the number of rows of the BWT (symbols + 1 for the sentinel), first[c] the first row of the rows
+     * that start with symbol c
+     */
+    private final int rows;
+    private final int[] first;
+    private final ByteBuffer bwt;
+    private final ByteBuffer blocks;
+    private final ByteBuffer samples;
+
+    private SequenceIndex(int rows, int[] first, ByteBuffer bwt, ByteBuffer blocks, ByteBuffer samples) {
+        this.rows = rows;
+        this.first = first;
+        this.bwt = bwt;
+        this.blocks = blocks;
+        this.samples = samples;
+    }
+
+    /**
+     * build reads a raw DNA Sequence and constructs its index. The construction needs about 10 bytes of heap per
+     * base for the text, the suffix array and the symbol types; the finished index takes about 1.75 bytes per
+     * base off heap.
+     *
+     * @throws IllegalArgumentException if the DNA Sequence is empty or longer than MAX_LENGTH bases
+     */
+    public static SequenceIndex build(Path dnaSequence) throws IOException {
+        return build(dnaSequence, MAX_LENGTH);
+    }
+
+    /**
+     * Same as build(dnaSequence) for a DNA Sequence of at most maxLength bytes, so the heap the construction
+     * needs is bounded
+     *
+     * @throws IllegalArgumentException if the DNA Sequence is empty or longer than maxLength or MAX_LENGTH bytes
+     */
+    public static SequenceIndex build(Path dnaSequence, long maxLength) throws IOException {
+        long size = Files.size(dnaSequence);
+        long limit = Math.min(maxLength, MAX_LENGTH);
+        if (size > limit) {
+            throw new IllegalArgumentException("DNA Sequence is too long to be indexed (at most " + limit + " bases)!");
+        }
+        int[] text = new int[(int) size + 1];
+        int length = 0;
+        try (InputStream inputStream = Files.newInputStream(dnaSequence)) {
+            byte[] buffer = new byte[1 << 16];
+            int read;
+            while ((read = inputStream.read(buffer)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    int code = Nucleotides.code(buffer[i]);
+                    if (code != Automaton.SKIP) {
+                        text[length++] = code + 1;
+                    }
+                }
+            }
+        }
+        if (length == 0) {
+            throw new IllegalArgumentException("DNA Sequence cannot be empty!");
+        }
+        text[length] = SENTINEL;
+        return build(text, length + 1);
+    }
+
+    /**
+     * build constructs the index of text[0, rows), which ends with the only SENTINEL
+     */
+    static SequenceIndex build(int[] text, int rows) {
+        int[] suffixArray = new int[rows];
+        SuffixArrays.sort(text, suffixArray, rows, SYMBOLS);
+
+        ByteBuffer bwt = ByteBuffer.allocateDirect(align(rows)).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer blocks = ByteBuffer.allocateDirect((rows / BLOCK + 1) * BLOCK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer samples = ByteBuffer.allocateDirect(((rows - 1) / SAMPLE + 1) * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        int[] occurrences = new int[SYMBOLS];
+        int sampled = 0;
+        long marks = 0;
+        for (int row = 0; row < rows; row++) {
+            if (row % BLOCK == 0) {
+                int base = row / BLOCK * BLOCK_BYTES;
+                for (int c = 0; c < SYMBOLS; c++) {
+                    blocks.putInt(base + Integer.BYTES * c, occurrences[c]);
+                }
+                blocks.putInt(base + RANK_OFFSET, sampled);
+                marks = 0;
+            }
+            int position = suffixArray[row];
+            int symbol = position > 0 ? text[position - 1] : SENTINEL;
+            bwt.put(row, (byte) symbol);
+            occurrences[symbol]++;
+            if (position % SAMPLE == 0) {
+                marks |= 1L << (row % BLOCK);
+                samples.putInt(Integer.BYTES * sampled++, position);
+                blocks.putLong(row / BLOCK * BLOCK_BYTES + MARKS_OFFSET, marks);
+            }
+        }
+        /* the checkpoint after the last row, which is read by rank(c, rows) */
+        if (rows % BLOCK == 0) {
+            int base = rows / BLOCK * BLOCK_BYTES;
+            for (int c = 0; c < SYMBOLS; c++) {
+                blocks.putInt(base + Integer.BYTES * c, occurrences[c]);
+            }
+            blocks.putInt(base + RANK_OFFSET, sampled);
+        }
+
+        int[] first = new int[SYMBOLS + 1];
+        for (int c = 0; c < SYMBOLS; c++) {
+            first[c + 1] = first[c] + occurrences[c];
+        }
+        return new SequenceIndex(rows, first, bwt, blocks, samples);
+    }
+
+    private static int align(int bytes) {
+        return (bytes + Long.BYTES - 1) & -Long.BYTES;
+    }
+
+    /**
+     * getLength
+     *
+     * @return number of indexed symbols, i.e. the position after the last symbol of the DNA Sequence
+     */
+    public long getLength() {
+        return rows - 1;
+    }
+
+    /**
+     * getIndexBytes
+     *
+     * @return size of the off-heap tables of the index
+     */
+    public long getIndexBytes() {
+        return (long) bwt.capacity() + blocks.capacity() + samples.capacity();
+    }
+
+    /**
+     * count
+     *
+     * @return number of occurrences of the keyword (IUPAC codes allowed), overlapping occurrences included
+     * @throws IllegalArgumentException if the keyword contains a symbol that is not an IUPAC code
+     */
+    public long count(String keyword) {
+        long[] count = new long[1];
+        search(keyword, keyword.length() - 1, 0, rows, (from, to) -> count[0] += to - from);
+        return count[0];
+    }
+
+    /**
+     * locate
+     *
+     * @return start positions of all occurrences of the keyword (IUPAC codes allowed), in ascending order
+     * @throws IllegalArgumentException if the keyword contains a symbol that is not an IUPAC code
+     */
+    public long[] locate(String keyword) {
+        long count = count(keyword);
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Keyword " + keyword + " has too many occurrences to be located!");
+        }
+        long[] starts = new long[(int) count];
+        int[] size = new int[1];
+        search(keyword, keyword.length() - 1, 0, rows, (from, to) -> {
+            for (int row = from; row < to; row++) {
+                starts[size[0]++] = position(row);
+            }
+        });
+        Arrays.sort(starts);
+        return starts;
+    }
+
+    /**
+     * locate reports every occurrence of the keywords of the automaton to the listener, like Automaton.scan over the
+     * indexed DNA Sequence would, but keyword by keyword: the occurrences of one keyword are reported in position
+     * order before those of the next keyword. Keywords tagged with REVERSE_STRAND are searched as their reverse
+     * complement. The listener's position is set to the length of the sequence.
+     */
+    public void locate(Automaton automaton, MatchListener listener) {
+        for (int k = 0; k < automaton.getKeywordCount(); k++) {
+            int length = automaton.getKeywordLength(k);
+            for (long start : locate(Nucleotides.pattern(automaton.getKeyword(k)))) {
+                listener.onMatch(k, start + length - 1);
+            }
+        }
+        listener.position = getLength();
+    }
+
+    private interface RowVisitor {
+        void visit(int from, int to);
+    }
+
+    /**
+     * search is the backward search of keyword[0, end] within the rows [from, to) that start with
+     * keyword[end + 1, ...]. An IUPAC code branches into one search per base, and the rows of different
+     * bases are disjoint, so every occurrence is visited once.
+     */
+    private void search(String keyword, int end, int from, int to, RowVisitor visitor) {
+        if (from >= to) {
+            return;
+        }
+        if (end < 0) {
+            visitor.visit(from, to);
+            return;
+        }
+        int mask = Nucleotides.mask(keyword.charAt(end));
+        if (mask == 0) {
+            throw new IllegalArgumentException("Keyword " + keyword + " contains non-nucleotide symbol '" + keyword.charAt(end) + "'");
+        }
+        for (int code = 0; code < Nucleotides.BASES; code++) {
+            if ((mask & (1 << code)) != 0) {
+                int symbol = code + 1;
+                search(keyword, end - 1, first[symbol] + rank(symbol, from), first[symbol] + rank(symbol, to), visitor);
+            }
+        }
+    }
+
+    /**
+     * rank
+     *
+     * @return number of rows before row whose BWT symbol is symbol
+     */
+    private int rank(int symbol, int row) {
+        int block = row / BLOCK;
+        int rank = blocks.getInt(block * BLOCK_BYTES + Integer.BYTES * symbol);
+        for (int i = block * BLOCK; i < row; i++) {
+            if (bwt.get(i) == symbol) {
+                rank++;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * position follows the LF mapping from row to the next sampled row
+     *
+     * @return text position of the suffix of the row
+     */
+    private long position(int row) {
+        int steps = 0;
+        while (true) {
+            int base = row / BLOCK * BLOCK_BYTES;
+            long marks = blocks.getLong(base + MARKS_OFFSET);
+            int bit = row % BLOCK;
+            if ((marks & (1L << bit)) != 0) {
+                int sample = blocks.getInt(base + RANK_OFFSET) + Long.bitCount(marks & ((1L << bit) - 1));
+                return (long) samples.getInt(Integer.BYTES * sample) + steps;
+            }
+            /* position 0 is sampled, so the row of the sentinel is never stepped over */
+            int symbol = bwt.get(row);
+            row = first[symbol] + rank(symbol, row);
+            steps++;
+        }
+    }
+
+    /**
+     * write stores the index in a file, replacing the file if it exists
+     */
+    public void write(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(BWT_OFFSET).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(SAMPLE);
+        for (int c = 0; c <= SYMBOLS; c++) {
+            header.putInt(first[c]);
+        }
+        header.putLong(0);
+        header.putLong(CHECKSUM_OFFSET, checksum(header, bwt, blocks, samples)).clear();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (ByteBuffer region : new ByteBuffer[]{header, bwt.duplicate().clear(), blocks.duplicate().clear(),
+                    samples.duplicate().clear()}) {
+                while (region.hasRemaining()) {
+                    channel.write(region);
+                }
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * load maps the file and creates the index stored in it
+     *
+     * @throws IOException if the file is not an index file, has an unsupported version or is corrupted
+     */
+    public static SequenceIndex load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < BWT_OFFSET) {
+                throw new IOException(file + " is not a sequence index file!");
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, BWT_OFFSET);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC) {
+                throw new IOException(file + " is not a sequence index file!");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Sequence index file " + file + " has unsupported version " + version + "!");
+            }
+            int rows = header.getInt();
+            int sample = header.getInt();
+            int[] first = new int[SYMBOLS + 1];
+            for (int c = 0; c <= SYMBOLS; c++) {
+                first[c] = header.getInt();
+            }
+            long checksum = header.getLong(CHECKSUM_OFFSET);
+            if (rows <= 0 || rows > MAX_LENGTH + 1 || sample != SAMPLE || first[SYMBOLS] != rows) {
+                throw new IOException("Sequence index file " + file + " is corrupted!");
+            }
+            long bwtBytes = align(rows);
+            long blockBytes = (long) (rows / BLOCK + 1) * BLOCK_BYTES;
+            long sampleBytes = (long) ((rows - 1) / SAMPLE + 1) * Integer.BYTES;
+            if (channel.size() != BWT_OFFSET + bwtBytes + blockBytes + sampleBytes) {
+                throw new IOException("Sequence index file " + file + " is corrupted!");
+            }
+            MappedByteBuffer bwt = channel.map(FileChannel.MapMode.READ_ONLY, BWT_OFFSET, bwtBytes);
+            MappedByteBuffer blocks = channel.map(FileChannel.MapMode.READ_ONLY, BWT_OFFSET + bwtBytes, blockBytes);
+            MappedByteBuffer samples = channel.map(FileChannel.MapMode.READ_ONLY, BWT_OFFSET + bwtBytes + blockBytes, sampleBytes);
+            if (checksum != checksum(header, bwt, blocks, samples)) {
+                throw new IOException("Sequence index file " + file + " is corrupted (checksum mismatch)!");
+            }
+            return new SequenceIndex(rows, first, bwt, blocks.order(ByteOrder.LITTLE_ENDIAN),
+                    samples.order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    /**
+     * checksum
+     *
+     * @return CRC32 of the whole file (header and all regions) with the checksum field read as 0, computed without
+     * changing the buffer positions
+     */
+    private static long checksum(ByteBuffer header, ByteBuffer bwt, ByteBuffer blocks, ByteBuffer samples) {
+        CRC32 crc = new CRC32();
+        crc.update(header.duplicate().clear().limit(CHECKSUM_OFFSET));
+        crc.update(new byte[Long.BYTES]);
+        crc.update(header.duplicate().clear().position(HEADER_SIZE));
+        crc.update(bwt.duplicate().clear());
+        crc.update(blocks.duplicate().clear());
+        crc.update(samples.duplicate().clear());
+        return crc.getValue();
+    }
+}
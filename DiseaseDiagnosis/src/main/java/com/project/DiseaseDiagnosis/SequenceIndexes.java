@@ -0,0 +1,151 @@
+package com.project.DiseaseDiagnosis;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Class SequenceIndexes stores the indexes of DNA Sequences (see SequenceIndex) in a directory, one file per
+ * sample, named by the id of the sample: the hex SHA-256 hash of its content. An index is built once per sample
+ * and survives restarts. At most capacity indexes are kept loaded (mapped); the least recently used one is
+ * dropped first and mapped again by its next query. Samples longer than maxBases are not indexed, so a build,
+ * which needs SequenceIndex.BUILD_BYTES_PER_BASE bytes of heap per base, cannot exhaust the heap.
+ */
+public final class SequenceIndexes {
+
+    static final int DEFAULT_CAPACITY = 4;
+
+    private static final Pattern ID = Pattern.compile("[0-9a-f]{64}");
+    private static final String SUFFIX = ".fmi";
+
+    private final Path directory;
+    private final int capacity;
+    private final long maxBases;
+    private final Map<String, SequenceIndex> indexes;
+
+    public SequenceIndexes(Path directory) {
+        this(directory, DEFAULT_CAPACITY);
+    }
+
+    public SequenceIndexes(Path directory, int capacity) {
+        this(directory, capacity, defaultMaxBases());
+    }
+
+    /**
+     * @param maxBases size of the longest DNA Sequence that is indexed
+     */
+    public SequenceIndexes(Path directory, int capacity, long maxBases) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive!");
+        }
+        if (maxBases <= 0) {
+            throw new IllegalArgumentException("Maximal number of bases must be positive!");
+        }
+        this.directory = directory;
+        this.capacity = capacity;
+        this.maxBases = maxBases;
+        this.indexes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SequenceIndex> eldest) {
+                return size() > SequenceIndexes.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * defaultMaxBases
+     *
+     * @return number of bases whose construction takes a quarter of the maximal heap
+     */
+    static long defaultMaxBases() {
+        return Math.min(SequenceIndex.MAX_LENGTH, Runtime.getRuntime().maxMemory() / 4 / SequenceIndex.BUILD_BYTES_PER_BASE);
+    }
+
+    /**
+     * build constructs and stores the index of a raw DNA Sequence, unless the sample is indexed already
+     *
+     * @param id hex SHA-256 hash of the content of the DNA Sequence
+     * @return the index of the sample
+     * @throws IllegalArgumentException if the DNA Sequence is not a raw sequence (FASTA, FASTQ and compressed
+     *                                  input cannot be indexed), is empty or longer than maxBases
+     */
+    public SequenceIndex build(String id, File dnaSequence) throws IOException {
+        checkId(id);
+        SequenceIndex index = get(id);
+        if (index != null) {
+            return index;
+        }
+        if (!SequenceInput.isRawSequence(dnaSequence.toPath())) {
+            throw new IllegalArgumentException("Only raw DNA Sequences can be indexed!");
+        }
+        index = SequenceIndex.build(dnaSequence.toPath(), maxBases);
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, id, ".tmp");
+        try {
+            index.write(temporary);
+            Files.move(temporary, file(id), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        synchronized (indexes) {
+            indexes.put(id, index);
+        }
+        return index;
+    }
+
+    /**
+     * get
+     *
+     * @return the index of the sample, null if the sample is not indexed or the id is not a valid id
+     * @throws IOException if the index file cannot be read or is corrupted
+     */
+    public SequenceIndex get(String id) throws IOException {
+        if (!ID.matcher(id).matches()) {
+            return null;
+        }
+        synchronized (indexes) {
+            SequenceIndex index = indexes.get(id);
+            if (index != null) {
+                return index;
+            }
+        }
+        Path file = file(id);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        SequenceIndex index = SequenceIndex.load(file);
+        synchronized (indexes) {
+            SequenceIndex loaded = indexes.putIfAbsent(id, index);
+            return loaded != null ? loaded : index;
+        }
+    }
+
+    /**
+     * getFileBytes
+     *
+     * @return size of the index file of the sample
+     */
+    public long getFileBytes(String id) throws IOException {
+        checkId(id);
+        return Files.size(file(id));
+    }
+
+    public long getMaxBases() {
+        return maxBases;
+    }
+
+    private Path file(String id) {
+        return directory.resolve(id + SUFFIX);
+    }
+
+    private static void checkId(String id) {
+        if (!ID.matcher(id).matches()) {
+            throw new IllegalArgumentException("Invalid sample id " + id + "!");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.project.DiseaseDiagnosis;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Class SequenceInput opens DNA Sequence inputs for RecordScanner: gzip compressed inputs are detected by their
+ * magic bytes and decompressed while they are read, BGZF inputs by several threads (see BgzfInputStream).
+ * It also tells whether a file is a plain raw sequence, which is scanned faster through memory mapping.
+ */
+public final class SequenceInput {
+
+    static final int BUFFER_LENGTH = 1 << 16;
+    static final int READ_AHEAD = 4 * Runtime.getRuntime().availableProcessors();
+
+    /**
+     * INFLATERS decompresses BGZF blocks; blocks are small and independent, so the common pool is used
+     */
+    private static final ExecutorService INFLATERS = ForkJoinPool.commonPool();
+
+    private SequenceInput() {
+    }
+
+    /**
+     * open
+     *
+     * @return the decompressed input
+     */
+    public static InputStream open(InputStream inputStream) throws IOException {
+        BufferedInputStream input = new BufferedInputStream(inputStream, BUFFER_LENGTH);
+        input.mark(BgzfInputStream.HEADER_SIZE);
+        byte[] header = input.readNBytes(BgzfInputStream.HEADER_SIZE);
+        input.reset();
+        if (BgzfInputStream.isBgzf(header, header.length)) {
+            return new BgzfInputStream(input, INFLATERS, READ_AHEAD);
+        }
+        if (isGzip(header, header.length)) {
+            return new GZIPInputStream(input, BUFFER_LENGTH);
+        }
+        return input;
+    }
+
+    /**
+     * open opens the file and counts the (compressed) bytes read from it in progress
+     *
+     * @return the decompressed input
+     */
+    public static InputStream open(Path file, AtomicLong progress) throws IOException {
+        InputStream counting = new FilterInputStream(Files.newInputStream(file)) {
+            @Override
+            public int read() throws IOException {
+                int value = super.read();
+                if (value != -1) {
+                    progress.incrementAndGet();
+                }
+                return value;
+            }
+
+            @Override
+            public int read(byte[] buffer, int off, int len) throws IOException {
+                int length = super.read(buffer, off, len);
+                if (length > 0) {
+                    progress.addAndGet(length);
+                }
+                return length;
+            }
+        };
+        return open(counting);
+    }
+
+    /**
+     * isRawSequence
+     *
+     * @return true if the file is neither compressed nor FASTA or FASTQ
+     */
+    public static boolean isRawSequence(Path file) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            byte[] header = input.readNBytes(BUFFER_LENGTH);
+            if (isGzip(header, header.length)) {
+                return false;
+            }
+            for (byte symbol : header) {
+                if (symbol != '\n' && symbol != '\r') {
+                    return RecordScanner.SequenceFormat.of(symbol) == RecordScanner.SequenceFormat.RAW;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static boolean isGzip(byte[] header, int length) {
+        return length >= 2 && (header[0] & 0xFF) == 0x1f && (header[1] & 0xFF) == 0x8b;
+    }
+}
@@ -0,0 +1,156 @@
+package com.project.DiseaseDiagnosis;
+
+import java.util.Arrays;
+
+/**
+ * Class SuffixArrays constructs suffix arrays with SA-IS (suffix array by induced sorting, Nong, Zhang and Chan),
+ * in time linear in the length of the text. The LMS substrings (the substrings between two left-most S-type
+ * positions) are sorted by induction, named by rank, and if some names repeat, the suffix array of the string of
+ * names is constructed recursively; its order induces the order of all suffixes.
+ */
+final class SuffixArrays {
+
+    private SuffixArrays() {
+    }
+
+    /**
+     * sort stores the suffix array of text[0, length) in suffixArray[0, length). The text must end with its only
+     * 0 symbol; all symbols are below alphabet.
+     */
+    static void sort(int[] text, int[] suffixArray, int length, int alphabet) {
+        if (length == 1) {
+            suffixArray[0] = 0;
+            return;
+        }
+        boolean[] smaller = new boolean[length];     // S-type: the suffix is smaller than the next one
+        smaller[length - 1] = true;
+        for (int i = length - 2; i >= 0; i--) {
+            smaller[i] = text[i] < text[i + 1] || (text[i] == text[i + 1] && smaller[i + 1]);
+        }
+        int lmsCount = 0;
+        for (int i = 1; i < length; i++) {
+            if (isLms(smaller, i)) {
+                lmsCount++;
+            }
+        }
+        int[] lms = new int[lmsCount];
+        for (int i = 1, j = 0; i < length; i++) {
+            if (isLms(smaller, i)) {
+                lms[j++] = i;
+            }
+        }
+
+        /* sort the LMS substrings */
+        int[] buckets = new int[alphabet];
+        Arrays.fill(suffixArray, 0, length, -1);
+        bucketEnds(text, length, buckets);
+        for (int j = lmsCount - 1; j >= 0; j--) {
+            suffixArray[--buckets[text[lms[j]]]] = lms[j];
+        }
+        induce(text, suffixArray, smaller, length, buckets);
+
+        /* name them by rank; names are stored at suffixArray[lmsCount + position / 2] (LMS positions are never adjacent) */
+        int sorted = 0;
+        for (int i = 0; i < length; i++) {
+            if (isLms(smaller, suffixArray[i])) {
+                suffixArray[sorted++] = suffixArray[i];
+            }
+        }
+        Arrays.fill(suffixArray, lmsCount, length, -1);
+        int names = 0;
+        int previous = -1;
+        for (int i = 0; i < lmsCount; i++) {
+            int position = suffixArray[i];
+            if (previous < 0 || !equalLmsSubstrings(text, smaller, position, previous)) {
+                names++;
+                previous = position;
+            }
+            suffixArray[lmsCount + position / 2] = names - 1;
+        }
+        int[] reduced = new int[lmsCount];
+        for (int i = lmsCount, j = 0; i < length; i++) {
+            if (suffixArray[i] >= 0) {
+                reduced[j++] = suffixArray[i];
+            }
+        }
+
+        /* order the LMS suffixes by the suffix array of the names */
+        int[] reducedArray = new int[lmsCount];
+        if (names < lmsCount) {
+            sort(reduced, reducedArray, lmsCount, names);
+        } else {
+            for (int i = 0; i < lmsCount; i++) {
+                reducedArray[reduced[i]] = i;
+            }
+        }
+
+        /* induce the order of all suffixes from the sorted LMS suffixes */
+        Arrays.fill(suffixArray, 0, length, -1);
+        bucketEnds(text, length, buckets);
+        for (int i = lmsCount - 1; i >= 0; i--) {
+            int position = lms[reducedArray[i]];
+            suffixArray[--buckets[text[position]]] = position;
+        }
+        induce(text, suffixArray, smaller, length, buckets);
+    }
+
+    private static boolean isLms(boolean[] smaller, int i) {
+        return i > 0 && smaller[i] && !smaller[i - 1];
+    }
+
+    private static boolean equalLmsSubstrings(int[] text, boolean[] smaller, int a, int b) {
+        for (int d = 0; ; d++) {
+            if (text[a + d] != text[b + d] || smaller[a + d] != smaller[b + d]) {
+                return false;
+            }
+            if (d > 0 && (isLms(smaller, a + d) || isLms(smaller, b + d))) {
+                return isLms(smaller, a + d) && isLms(smaller, b + d);
+            }
+        }
+    }
+
+    /**
+     * induce places the L-type suffixes from left to right behind the sorted suffixes in the array, then the
+     * S-type suffixes from right to left
+     */
+    private static void induce(int[] text, int[] suffixArray, boolean[] smaller, int length, int[] buckets) {
+        bucketStarts(text, length, buckets);
+        for (int i = 0; i < length; i++) {
+            int j = suffixArray[i] - 1;
+            if (j >= 0 && !smaller[j]) {
+                suffixArray[buckets[text[j]]++] = j;
+            }
+        }
+        bucketEnds(text, length, buckets);
+        for (int i = length - 1; i >= 0; i--) {
+            int j = suffixArray[i] - 1;
+            if (j >= 0 && smaller[j]) {
+                suffixArray[--buckets[text[j]]] = j;
+            }
+        }
+    }
+
+    private static void bucketStarts(int[] text, int length, int[] buckets) {
+        counts(text, length, buckets);
+        for (int c = 0, sum = 0; c < buckets.length; c++) {
+            int count = buckets[c];
+            buckets[c] = sum;
+            sum += count;
+        }
+    }
+
+    private static void bucketEnds(int[] text, int length, int[] buckets) {
+        counts(text, length, buckets);
+        for (int c = 0, sum = 0; c < buckets.length; c++) {
+            sum += buckets[c];
+            buckets[c] = sum;
+        }
+    }
+
+    private static void counts(int[] text, int length, int[] buckets) {
+        Arrays.fill(buckets, 0);
+        for (int i = 0; i < length; i++) {
+            buckets[text[i]]++;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.project.DiseaseDiagnosis;
+
+import java.util.Arrays;
+
+/**
+ * Class TransitionTable stores the transitions (state, symbol) -> state of the trie while FiniteStateAutomata
+ * constructs it. It is an open addressing hash table with linear probing over two primitive arrays, so a
+ * transition costs 12 bytes (at least half of the slots are free) instead of a HashMap entry with a Key and an
+ * Integer object, and large keyword sets do not fill the heap with small objects during construction.
+ */
+final class TransitionTable {
+
+    static final int ABSENT = -1;
+
+    private static final long EMPTY = -1L;
+
+    /**
+     * keys stores (state << 16) | symbol, values the target state of the same slot
+     */
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    TransitionTable() {
+        keys = new long[1 << 10];
+        values = new int[keys.length];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * get
+     *
+     * @return target state of the transition, ABSENT if it is not defined
+     */
+    int get(int state, char symbol) {
+        long key = key(state, symbol);
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            if (keys[slot] == EMPTY) {
+                return ABSENT;
+            }
+        }
+    }
+
+    /**
+     * put defines or replaces the transition
+     */
+    void put(int state, char symbol, int target) {
+        if (2 * (size + 1) > keys.length) {
+            resize();
+        }
+        long key = key(state, symbol);
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = target;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * forEach calls the visitor for every transition, in no particular order
+     */
+    void forEach(Visitor visitor) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                visitor.visit((int) (keys[slot] >>> 16), (char) keys[slot], values[slot]);
+            }
+        }
+    }
+
+    interface Visitor {
+        void visit(int state, char symbol, int target);
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[keys.length];
+        Arrays.fill(keys, EMPTY);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i], mask);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static long key(int state, char symbol) {
+        return ((long) state << 16) | symbol;
+    }
+
+    /**
+     * slot mixes the key (a multiplicative hash), so consecutive states do not probe into each other's slots
+     */
+    private static int slot(long key, int mask) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
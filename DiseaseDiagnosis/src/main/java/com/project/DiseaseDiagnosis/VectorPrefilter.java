@@ -0,0 +1,74 @@
+package com.project.DiseaseDiagnosis;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Class VectorPrefilter is the Prefilter implemented with the Vector API. It checks 16 positions at once:
+ * for every shift k, the bytes at positions i + k ... i + k + 15 are loaded, their nibbles are looked up in the
+ * tables of shift k with selectFrom (one byte shuffle each, e.g. PSHUFB on x86 and TBL on AArch64) and the
+ * bucket bits of all shifts are and-ed. Lanes with a bucket bit left are candidates, and so are lanes with a
+ * byte below skipLimit at some shift, which is found with the minimum of the bytes of all shifts.
+ * <p>
+ * This class is loaded only by Prefilter.of, after the Vector API module was found.
+ */
+final class VectorPrefilter extends Prefilter {
+
+    /**
+     * SPECIES has one lane per nibble table entry, so the lanes of a vector are valid shuffle indices
+     */
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_128;
+
+    private final ByteVector[] lowTables;
+    private final ByteVector[] highTables;
+
+    VectorPrefilter(Tables tables) {
+        super(tables);
+        if (VectorShape.preferredShape().vectorBitSize() < SPECIES.vectorBitSize()) {
+            throw new UnsupportedOperationException("128-bit vectors are not supported on this platform!");
+        }
+        this.lowTables = new ByteVector[low.length];
+        this.highTables = new ByteVector[high.length];
+        for (int k = 0; k < low.length; k++) {
+            lowTables[k] = ByteVector.fromArray(SPECIES, low[k], 0);
+            highTables[k] = ByteVector.fromArray(SPECIES, high[k], 0);
+        }
+    }
+
+    @Override
+    public int next(byte[] data, int from, int to) {
+        int shifts = lowTables.length;
+        int last = to - shifts + 1 - SPECIES.length();      // last i for which all loads are inside the range
+        int i = from;
+        for (; i <= last; i += SPECIES.length()) {
+            ByteVector bytes = ByteVector.fromArray(SPECIES, data, i);
+            ByteVector buckets = lookUp(bytes, lowTables[0], highTables[0]);
+            ByteVector minimum = bytes;
+            for (int k = 1; k < shifts; k++) {
+                bytes = ByteVector.fromArray(SPECIES, data, i + k);
+                buckets = buckets.and(lookUp(bytes, lowTables[k], highTables[k]));
+                minimum = minimum.min(bytes);
+            }
+            VectorMask<Byte> candidates = buckets.compare(VectorOperators.NE, (byte) 0)
+                    .or(minimum.compare(VectorOperators.LT, skipLimit));
+            if (candidates.anyTrue()) {
+                return i + candidates.firstTrue();
+            }
+        }
+        return Math.min(i, to);
+    }
+
+    /**
+     * lookUp
+     *
+     * @return the bucket bits of every byte: the entries of its low and its high nibble, and-ed
+     */
+    private static ByteVector lookUp(ByteVector bytes, ByteVector lowTable, ByteVector highTable) {
+        ByteVector lowNibbles = bytes.and((byte) 0x0F);
+        ByteVector highNibbles = bytes.lanewise(VectorOperators.LSHR, 4);
+        return lowNibbles.selectFrom(lowTable).and(highNibbles.selectFrom(highTable));
+    }
+}
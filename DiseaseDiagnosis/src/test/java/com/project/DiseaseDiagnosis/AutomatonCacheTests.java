@@ -0,0 +1,97 @@
+package com.project.DiseaseDiagnosis;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AutomatonCacheTests {
+
+	@Test
+	void equalPanelsShareOneFingerprint() {
+		String[] normalized = AutomatonCache.normalize(new String[]{" cag", "GCN ", "CAG", "", null, "attct"});
+		assertArrayEquals(new String[]{"CAG", "GCN", "ATTCT"}, normalized);
+		assertEquals(AutomatonCache.fingerprint(normalized),
+				AutomatonCache.fingerprint(AutomatonCache.normalize(new String[]{"GCN", "ATTCT", "CAG"})));
+		assertFalse(AutomatonCache.fingerprint(normalized).equals(
+				AutomatonCache.fingerprint(AutomatonCache.normalize(new String[]{"GCN", "CAG"}))));
+
+		AutomatonCache cache = new AutomatonCache();
+		Automaton automaton = cache.get(new String[]{"cag", " GCN", "ATTCT", "CAG"});
+		assertSame(automaton, cache.get(new String[]{"GCN", "ATTCT", "CAG"}));
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	void automatonKeepsTheOrderOfTheKeywords() {
+		Automaton automaton = new AutomatonCache().get(new String[]{"ctg", "CAG"});
+		assertEquals("CTG", automaton.getKeyword(0));
+		assertEquals("CAG", automaton.getKeyword(1));
+		assertFalse(automaton.getFingerprint().equals(Main.preprocessingStage(new String[]{"CAG", "CTG"}).getFingerprint()));
+
+		/* the canonical motif of CAG and CTG on both strands is the first of them in the keyword list */
+		Automaton bothStrands = Main.preprocessingStage(AutomatonCache.normalize(Nucleotides.withReverseStrand(new String[]{"CTG", "CAG"})));
+		RepeatTracker tracker = new RepeatTracker(bothStrands, 1);
+		byte[] data = "CAGCAGCAG".getBytes(StandardCharsets.US_ASCII);
+		bothStrands.scan(data, 0, data.length, tracker);
+		assertEquals("CTG", Main.diagnose(tracker, DiseaseRanges.EMPTY).get(0).getKeyword());
+	}
+
+	@Test
+	void leastRecentlyUsedAutomatonIsEvicted() {
+		AutomatonCache cache = new AutomatonCache(2);
+		Automaton cag = cache.get(new String[]{"CAG"});
+		cache.get(new String[]{"CTG"});
+		cache.get(new String[]{"CAG"});
+		cache.get(new String[]{"GAA"});
+
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictions());
+		assertTrue(cache.contains(new String[]{"CAG"}));
+		assertFalse(cache.contains(new String[]{"CTG"}));
+		assertSame(cag, cache.get(new String[]{"CAG"}));
+		assertNotSame(cag, new AutomatonCache().get(new String[]{"CAG"}));
+		assertEquals(3, cache.getMisses());
+		assertEquals(2, cache.getHits());
+		assertThrows(IllegalArgumentException.class, () -> new AutomatonCache(0));
+	}
+
+	@Test
+	void precompiledAutomatonIsServedFromTheCache() {
+		AutomatonCache cache = new AutomatonCache();
+		Automaton precompiled = Main.preprocessingStage(new String[]{"GGGGCC", "CAG"});
+		cache.put(precompiled);
+
+		assertTrue(cache.contains(new String[]{"cag", "GGGGCC"}));
+		assertSame(precompiled, cache.get(new String[]{"CAG", "GGGGCC"}));
+		assertEquals(0, cache.getMisses());
+		assertEquals(precompiled.getStateCount(), cache.getStateCount());
+		assertEquals(precompiled.getTableBytes(), cache.getTableBytes());
+	}
+
+	@Test
+	void prefilterIsCreatedOncePerCachedAutomaton() {
+		AutomatonCache cache = new AutomatonCache(1);
+		Automaton automaton = cache.get(new String[]{"CCCCGCCCCGCG", "GGCCTG", "GGGGCC"});
+		Prefilter prefilter = cache.prefilter(automaton);
+		assertNotNull(prefilter);
+		assertSame(prefilter, cache.prefilter(automaton));
+
+		/* short motifs have no prefilter, which is cached as well; the evicted automaton keeps none */
+		Automaton shortMotifs = cache.get(new String[]{"CAG", "CTG", "GCN", "GAA"});
+		assertNull(cache.prefilter(shortMotifs));
+		assertNull(cache.prefilter(shortMotifs));
+		assertNotSame(prefilter, cache.prefilter(automaton));
+	}
+}
@@ -0,0 +1,58 @@
+package com.project.DiseaseDiagnosis;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AutomatonFileTests {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void corruptedHeaderIsRejected() throws IOException {
+		Path file = tempDir.resolve("keywords.acdfa");
+		AutomatonFile.write(Main.preprocessingStage(new String[]{"CAG", "GCN"}), file);
+
+		/* every header field is covered by the checksum, e.g. the state count */
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer stateCount = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			channel.read(stateCount, 5 * Integer.BYTES);
+			stateCount.putInt(0, stateCount.getInt(0) - 1).clear();
+			channel.write(stateCount, 5 * Integer.BYTES);
+		}
+		IOException e = assertThrows(IOException.class, () -> AutomatonFile.load(file));
+		assertTrue(e.getMessage().contains("checksum"));
+	}
+
+	@Test
+	void rewritingTheFileKeepsLoadedAutomataIntact() throws IOException {
+		Path file = tempDir.resolve("keywords.acdfa");
+		AutomatonFile.write(Main.preprocessingStage(new String[]{"CAG"}), file);
+		Automaton loaded = AutomatonFile.load(file);
+
+		/* the new file replaces the old one, whose mapping stays valid */
+		AutomatonFile.write(Main.preprocessingStage(new String[]{"CTG", "GAA", "ATTCT"}), file);
+		byte[] data = "CAGCAGxCTG".getBytes(StandardCharsets.US_ASCII);
+		long[] counts = loaded.newCounts();
+		loaded.scan(data, 0, data.length, 0, counts);
+		assertArrayEquals(new long[]{2}, counts);
+		assertEquals(3, AutomatonFile.load(file).getKeywordCount());
+		try (var files = Files.list(tempDir)) {
+			assertEquals(1, files.count());
+		}
+	}
+}
@@ -0,0 +1,201 @@
+package com.project.DiseaseDiagnosis;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AutomatonTests {
+
+	private static final String[] KEYWORDS = {"ATTCT", "CAG", "CTG", "CCTG", "GCC", "GGCCTG", "GGGGCC", "CCCCGCCCGCG"};
+
+	private static Automaton compile(String... keywords) {
+		FiniteStateAutomata finiteStateAutomata = new FiniteStateAutomata();
+		finiteStateAutomata.gotoFunction(keywords);
+		finiteStateAutomata.failureFunction();
+		return finiteStateAutomata.compile();
+	}
+
+	private static long[] naiveCounts(String text, String[] keywords) {
+		long[] counts = new long[keywords.length];
+		for (int k = 0; k < keywords.length; k++) {
+			for (int i = text.indexOf(keywords[k]); i >= 0; i = text.indexOf(keywords[k], i + 1)) {
+				counts[k]++;
+			}
+		}
+		return counts;
+	}
+
+	@Test
+	void scanMatchesNaiveSearch() {
+		Automaton automaton = compile(KEYWORDS);
+		String text = TestSequences.random(50000, 42);
+		long[] counts = automaton.newCounts();
+		automaton.scan(text, 0, text.length(), 0, counts);
+		assertArrayEquals(naiveCounts(text, KEYWORDS), counts);
+	}
+
+	@Test
+	void stateCarriesAcrossChunksAndLines() {
+		Automaton automaton = compile(KEYWORDS);
+		String text = TestSequences.random(20000, 7);
+		StringBuilder lines = new StringBuilder();
+		for (int i = 0; i < text.length(); i += 70) {
+			lines.append(text, i, Math.min(i + 70, text.length())).append("\r\n");
+		}
+		long[] counts = automaton.newCounts();
+		int state = 0;
+		for (int i = 0; i < lines.length(); i += 1000) {
+			state = automaton.scan(lines, i, Math.min(i + 1000, lines.length()), state, counts);
+		}
+		assertArrayEquals(naiveCounts(text, KEYWORDS), counts);
+	}
+
+	@Test
+	void unknownSymbolsResetTheAutomaton() {
+		Automaton automaton = compile("CAG");
+		String text = "CAXGCAGCA*G";
+		long[] counts = automaton.newCounts();
+		automaton.scan(text, 0, text.length(), 0, counts);
+		assertArrayEquals(new long[]{1}, counts);
+	}
+
+	@Test
+	void automatonFileLoadsTheSameAutomaton() throws IOException {
+		Automaton automaton = compile(KEYWORDS);
+		Path file = Files.createTempFile("automaton", ".acdf");
+		try {
+			AutomatonFile.write(automaton, file);
+			Automaton loaded = AutomatonFile.load(file);
+			String text = TestSequences.random(20000, 11);
+			long[] counts = loaded.newCounts();
+			loaded.scan(text, 0, text.length(), 0, counts);
+			assertArrayEquals(naiveCounts(text, KEYWORDS), counts);
+			assertEquals(automaton.getStateCount(), loaded.getStateCount());
+			assertEquals(automaton.getFingerprint(), loaded.getFingerprint());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	void nucleotideAutomatonExpandsIupacCodes() {
+		FiniteStateAutomata finiteStateAutomata = FiniteStateAutomata.forNucleotides();
+		finiteStateAutomata.gotoFunction(new String[]{"GCN", "CAG"});
+		finiteStateAutomata.failureFunction();
+		Automaton automaton = finiteStateAutomata.compile();
+
+		/* GCA, GCT, gcg (soft-masked) match GCN; GCN in the input is an ambiguous base and does not */
+		byte[] data = "GCAxGCNxGC\nTxgcgxCAGxCNG".getBytes(StandardCharsets.US_ASCII);
+		long[] counts = automaton.newCounts();
+		automaton.scan(data, 0, data.length, 0, counts);
+		assertArrayEquals(new long[]{3, 1}, counts);
+
+		long[] bufferCounts = automaton.newCounts();
+		automaton.scan(ByteBuffer.wrap(data), 0, data.length, 0, bufferCounts);
+		assertArrayEquals(counts, bufferCounts);
+	}
+
+	@Test
+	void reverseStrandKeywordsAreAggregatedPerMotif() {
+		Automaton automaton = Main.preprocessingStage(Nucleotides.withReverseStrand(new String[]{"CAG", "CTG", "GAA"}));
+
+		/* CAGCAG on the forward strand, CTGCTGCTG is CAG and TTC is GAA on the reverse strand */
+		byte[] data = "CAGCAGxCTGCTGCTGxTTC".getBytes(StandardCharsets.US_ASCII);
+		RepeatTracker tracker = new RepeatTracker(automaton, 1);
+		automaton.scan(data, 0, data.length, tracker);
+		List<KeywordResult> results = Main.diagnose(tracker, DiseaseRanges.EMPTY);
+
+		assertEquals(2, results.size());
+		assertEquals("CAG", results.get(0).getKeyword());
+		assertEquals(5, results.get(0).getCount());
+		assertEquals(2, results.get(0).getForwardCount());
+		assertEquals(3, results.get(0).getReverseCount());
+		assertEquals("-", results.get(0).getLongestRun().getStrand());
+		assertEquals(3, results.get(0).getLongestRun().getRepeats());
+		assertEquals("GAA", results.get(1).getKeyword());
+		assertEquals(0, results.get(1).getForwardCount());
+		assertEquals(1, results.get(1).getReverseCount());
+	}
+
+	@Test
+	void mismatchMatcherMatchesNaiveHammingSearch() {
+		String[] keywords = {"ATTCT", "CAG", "GCN", "CCTG", "GGCCTG", "CAG(-)"};
+		Automaton automaton = Main.preprocessingStage(keywords);
+		String text = TestSequences.random(20000, 3);
+		for (int mismatches = 0; mismatches <= 2; mismatches++) {
+			long[] expected = automaton.newCounts();
+			for (int k = 0; k < automaton.getKeywordCount(); k++) {
+				String pattern = Nucleotides.pattern(automaton.getKeyword(k));
+				for (int i = 0; i + pattern.length() <= text.length(); i++) {
+					int distance = 0;
+					for (int j = 0; j < pattern.length(); j++) {
+						if ((Nucleotides.mask(pattern.charAt(j)) & (1 << Nucleotides.code(text.charAt(i + j)))) == 0) {
+							distance++;
+						}
+					}
+					if (distance <= mismatches) {
+						expected[k]++;
+					}
+				}
+			}
+			MismatchMatcher matcher = new MismatchMatcher(automaton, mismatches);
+			RepeatTracker tracker = new RepeatTracker(automaton, 1);
+			long[] registers = matcher.newRegisters();
+			byte[] data = text.getBytes(StandardCharsets.US_ASCII);
+			for (int from = 0; from < data.length; from += 1000) {
+				matcher.scan(data, from, from + 1000, registers, tracker);
+			}
+			assertArrayEquals(expected, tracker.getCounts());
+		}
+
+		/* one substituted base (CAT) splits the exact run, but not the run with one mismatch */
+		Automaton cag = Main.preprocessingStage(new String[]{"CAG"});
+		byte[] run = ("CAG".repeat(20) + "CAT" + "CAG".repeat(30)).getBytes(StandardCharsets.US_ASCII);
+		RepeatTracker exact = new RepeatTracker(cag, 1);
+		cag.scan(run, 0, run.length, exact);
+		assertEquals(30, exact.getLongestRun(0).getRepeats());
+		MismatchMatcher matcher = new MismatchMatcher(cag, 1);
+		RepeatTracker approximate = new RepeatTracker(cag, 1);
+		matcher.scan(run, 0, run.length, matcher.newRegisters(), approximate);
+		assertEquals(51, approximate.getLongestRun(0).getRepeats());
+	}
+
+	@Test
+	void prefilteredScanEqualsPlainScan() {
+		String[] keywords = {"CCCCGCCCCGCG", "GGCCTG", "GGGGCC", "CCCCGCCCGCG", "GGGGCC(-)"};
+		Automaton automaton = Main.preprocessingStage(keywords);
+		assertNull(Prefilter.of(Main.preprocessingStage(KEYWORDS)));
+
+		/* lines of 70 bases with GGGGCC runs, some of them across line ends; scanned in pieces of 1000 bytes */
+		StringBuilder text = new StringBuilder(TestSequences.random(50000, 11));
+		for (int i = 500; i + 60 < text.length(); i += 2500) {
+			text.replace(i, i + 60, "GGGGCC".repeat(10));
+		}
+		StringBuilder lines = new StringBuilder();
+		for (int i = 0; i < text.length(); i += 70) {
+			lines.append(text, i, Math.min(i + 70, text.length())).append("\r\n");
+		}
+		byte[] data = lines.toString().getBytes(StandardCharsets.US_ASCII);
+		RepeatTracker expected = new RepeatTracker(automaton, 3);
+		automaton.scan(data, 0, data.length, expected);
+		Prefilter prefilter = new VectorPrefilter(new Prefilter.Tables(automaton));
+		RepeatTracker tracker = new RepeatTracker(automaton, 3);
+		for (int from = 0; from < data.length; from += 1000) {
+			automaton.scan(data, from, Math.min(from + 1000, data.length), prefilter, tracker);
+		}
+		assertArrayEquals(expected.getCounts(), tracker.getCounts());
+		assertEquals(expected.getPosition(), tracker.getPosition());
+		for (int k = 0; k < automaton.getKeywordCount(); k++) {
+			assertEquals(expected.getTopRuns(k).toString(), tracker.getTopRuns(k).toString());
+		}
+	}
+}
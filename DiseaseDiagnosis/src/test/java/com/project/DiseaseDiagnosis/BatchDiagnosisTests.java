@@ -0,0 +1,111 @@
+package com.project.DiseaseDiagnosis;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchDiagnosisTests {
+
+	private static final byte[] SAMPLE = "CAGCAGCAGxATTCT\n".repeat(2000).getBytes(StandardCharsets.US_ASCII);
+
+	@TempDir
+	Path stagingDirectory;
+
+	private BatchDiagnosis batch(int maxInFlight) {
+		return new BatchDiagnosis(new Main(), Main.preprocessingStage(new String[]{"CAG", "ATTCT"}), maxInFlight,
+				stagingDirectory.toFile());
+	}
+
+	private int staged() throws IOException {
+		try (var files = Files.list(stagingDirectory)) {
+			return (int) files.count();
+		}
+	}
+
+	@Test
+	void atMostMaxInFlightSamplesAreStaged() throws IOException, InterruptedException {
+		AtomicInteger read = new AtomicInteger();
+		AtomicInteger maxStaged = new AtomicInteger();
+		List<SampleResult> results = new ArrayList<>();
+		int total = batch(2).run(() -> {
+			maxStaged.accumulateAndGet(staged(), Math::max);
+			return read.get() < 20 ? new BatchDiagnosis.Sample("sample" + read.incrementAndGet(), new ByteArrayInputStream(SAMPLE)) : null;
+		}, result -> {
+			results.add(result);
+			/* a sample is reported before the next one is staged, so at most 2 are staged or scanned */
+			assertTrue(read.get() - results.size() <= 2);
+		});
+
+		assertEquals(20, total);
+		assertEquals(20, results.size());
+		assertTrue(maxStaged.get() <= 2);
+		for (SampleResult result : results) {
+			assertEquals(6000, result.getResult().getKeywords().get(0).getCount());
+		}
+		assertEquals(0, staged());
+	}
+
+	@Test
+	void emptySampleIsReportedWithoutStoppingTheBatch() throws IOException, InterruptedException {
+		List<BatchDiagnosis.Sample> samples = new ArrayList<>(List.of(
+				new BatchDiagnosis.Sample("first", new ByteArrayInputStream(SAMPLE)),
+				new BatchDiagnosis.Sample("empty", InputStream.nullInputStream()),
+				new BatchDiagnosis.Sample("last", new ByteArrayInputStream(SAMPLE))));
+		List<SampleResult> results = new ArrayList<>();
+
+		/* one sample in flight, so the results come in input order */
+		assertEquals(3, batch(1).run(() -> samples.isEmpty() ? null : samples.remove(0), results::add));
+		assertEquals(3, results.size());
+		assertNull(results.get(1).getResult());
+		assertEquals("DNA Sequence cannot be empty!", results.get(1).getError());
+		assertNull(results.get(2).getError());
+		assertNotNull(results.get(2).getResult());
+		assertEquals(0, staged());
+	}
+
+	@Test
+	void stagedSamplesAreRemovedAfterAFailure() throws IOException {
+		/* the third sample fails while it is staged */
+		InputStream broken = new SequenceInputStream(new ByteArrayInputStream(SAMPLE), new InputStream() {
+			@Override
+			public int read() throws IOException {
+				throw new IOException("Upload broken");
+			}
+		});
+		List<BatchDiagnosis.Sample> samples = new ArrayList<>(List.of(
+				new BatchDiagnosis.Sample("1", new ByteArrayInputStream(SAMPLE)),
+				new BatchDiagnosis.Sample("2", new ByteArrayInputStream(SAMPLE)),
+				new BatchDiagnosis.Sample("3", broken)));
+		IOException e = assertThrows(IOException.class,
+				() -> batch(4).run(() -> samples.isEmpty() ? null : samples.remove(0), result -> {}));
+		assertEquals("Upload broken", e.getMessage());
+		assertEquals(0, staged());
+
+		/* the source fails after the fifth sample */
+		AtomicInteger read = new AtomicInteger();
+		e = assertThrows(IOException.class, () -> batch(4).run(() -> {
+			if (read.incrementAndGet() > 5) {
+				throw new IOException("Archive broken");
+			}
+			return new BatchDiagnosis.Sample(String.valueOf(read.get()), new ByteArrayInputStream(SAMPLE));
+		}, result -> {}));
+		assertEquals("Archive broken", e.getMessage());
+		assertEquals(0, staged());
+	}
+}
@@ -0,0 +1,131 @@
+package com.project.DiseaseDiagnosis;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BgzfInputStreamTests {
+
+	/**
+	 * BGZF block of the bytes data[from, to): a gzip member with the BC extra field holding the block size
+	 */
+	private static byte[] block(byte[] data, int from, int to) {
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		deflater.setInput(data, from, to - from);
+		deflater.finish();
+		byte[] deflated = new byte[to - from + 64];
+		int length = deflater.deflate(deflated);
+		deflater.end();
+
+		CRC32 crc = new CRC32();
+		crc.update(data, from, to - from);
+		int blockSize = BgzfInputStream.HEADER_SIZE + length + BgzfInputStream.TRAILER_SIZE;
+		ByteArrayOutputStream block = new ByteArrayOutputStream();
+		block.writeBytes(new byte[]{0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0, 'B', 'C', 2, 0,
+				(byte) (blockSize - 1), (byte) ((blockSize - 1) >>> 8)});
+		block.write(deflated, 0, length);
+		writeInt(block, (int) crc.getValue());
+		writeInt(block, to - from);
+		return block.toByteArray();
+	}
+
+	private static void writeInt(ByteArrayOutputStream output, int value) {
+		for (int i = 0; i < 4; i++) {
+			output.write(value >>> 8 * i);
+		}
+	}
+
+	private static byte[] read(byte[] bgzf, ExecutorService pool, int readAhead) throws IOException {
+		try (InputStream inputStream = new BgzfInputStream(new ByteArrayInputStream(bgzf), pool, readAhead)) {
+			return inputStream.readAllBytes();
+		}
+	}
+
+	@Test
+	void blocksAreReturnedInOrder() throws IOException {
+		Random random = new Random(11);
+		byte[] data = new byte[300000];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) "ACGT\n".charAt(random.nextInt(5));
+		}
+		/* many more blocks than are read ahead, of random sizes, with an empty block in the middle */
+		ByteArrayOutputStream bgzf = new ByteArrayOutputStream();
+		int blocks = 0;
+		for (int from = 0; from < data.length; blocks++) {
+			int to = Math.min(data.length, from + 1 + random.nextInt(BgzfInputStream.MAX_BLOCK_SIZE / 8));
+			bgzf.writeBytes(block(data, from, to));
+			if (blocks == 10) {
+				bgzf.writeBytes(block(data, to, to));
+			}
+			from = to;
+		}
+		bgzf.writeBytes(block(data, 0, 0));
+		assertTrue(blocks > 20);
+
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			for (int readAhead : new int[]{1, 3, 64}) {
+				assertArrayEquals(data, read(bgzf.toByteArray(), pool, readAhead));
+			}
+		} finally {
+			pool.shutdown();
+		}
+		try (InputStream inputStream = SequenceInput.open(new ByteArrayInputStream(bgzf.toByteArray()))) {
+			assertTrue(inputStream instanceof BgzfInputStream);
+			assertArrayEquals(data, inputStream.readAllBytes());
+		}
+	}
+
+	@Test
+	void endOfFileBlockIsEmpty() throws IOException {
+		byte[] eof = block(new byte[0], 0, 0);
+		/* the EOF marker written by bgzip */
+		assertEquals(28, eof.length);
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			assertEquals(0, read(eof, pool, 2).length);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void corruptedBlocksAreRejected() {
+		byte[] data = "CAGCAGCAGxATTCT\n".repeat(100).getBytes(StandardCharsets.US_ASCII);
+		byte[] block = block(data, 0, data.length);
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			byte[] crc = block.clone();
+			crc[crc.length - BgzfInputStream.TRAILER_SIZE] ^= 1;
+			assertTrue(assertThrows(ZipException.class, () -> read(crc, pool, 2)).getMessage().contains("checksum mismatch"));
+
+			byte[] size = block.clone();
+			size[size.length - 4] += 1;
+			assertTrue(assertThrows(ZipException.class, () -> read(size, pool, 2)).getMessage().contains("size mismatch"));
+
+			byte[] truncated = Arrays.copyOf(block, block.length - 1);
+			assertTrue(assertThrows(ZipException.class, () -> read(truncated, pool, 2)).getMessage().contains("Truncated"));
+
+			byte[] appended = Arrays.copyOf(block, block.length + BgzfInputStream.HEADER_SIZE);
+			assertTrue(assertThrows(ZipException.class, () -> read(appended, pool, 2)).getMessage().contains("Not a BGZF block"));
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package com.project.DiseaseDiagnosis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DiagnosisMetricsTests {
+
+	@TempDir
+	Path tempDir;
+
+	private static long stageCount(SimpleMeterRegistry registry, String stage) {
+		return registry.get("diagnosis.stage").tag("stage", stage).timer().count();
+	}
+
+	@Test
+	void stagesOfADiagnosisAreRecordedIntoTheInjectedMetrics() throws IOException, InterruptedException {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		DiagnosisMetrics metrics = new DiagnosisMetrics(registry);
+		Main main = new Main(new AutomatonCache(), DictionaryRegistry.DEFAULT, metrics, new EnginePlanner(2));
+		byte[] data = "CAGCAGCAGxATTCTATTCT\nGGGGCC".repeat(100).getBytes(StandardCharsets.US_ASCII);
+		Path file = Files.write(tempDir.resolve("dna.txt"), data);
+
+		String[] keywords = {"CAG", "ATTCT", "GGGGCC"};
+		main.diagnose(file.toFile(), keywords, new ParallelScanner(64, 2, metrics), DiagnosisMetrics.PARALLEL);
+		main.diagnose(file.toFile(), keywords, new ParallelScanner(64, 2, metrics), DiagnosisMetrics.SEQUENTIAL);
+		for (String stage : new String[]{DiagnosisMetrics.BLOCK_DIVISION, DiagnosisMetrics.PARALLEL_SCAN,
+				DiagnosisMetrics.PARALLEL_MERGE, DiagnosisMetrics.DFA_BUILD, DiagnosisMetrics.DFA_CACHE_LOOKUP,
+				DiagnosisMetrics.SEQUENTIAL_SCAN}) {
+			assertEquals(1, stageCount(registry, stage));
+		}
+		assertEquals(2, stageCount(registry, DiagnosisMetrics.DIAGNOSIS));
+		assertEquals(data.length, registry.get("diagnosis.bytes.scanned").tag("engine", DiagnosisMetrics.PARALLEL).counter().count());
+		assertEquals(600, registry.get("diagnosis.matches").tag("engine", DiagnosisMetrics.SEQUENTIAL).counter().count());
+
+		/* the samples of a batch are staged by the Main of the batch, so staging is recorded into the same metrics */
+		Iterator<BatchDiagnosis.Sample> samples = List.of(
+				new BatchDiagnosis.Sample("a", new ByteArrayInputStream(data)),
+				new BatchDiagnosis.Sample("b", new ByteArrayInputStream(data))).iterator();
+		List<SampleResult> results = new ArrayList<>();
+		new BatchDiagnosis(main, Main.preprocessingStage(keywords)).run(() -> samples.hasNext() ? samples.next() : null, results::add);
+		assertEquals(2, results.size());
+		assertNull(results.get(0).getError());
+		assertEquals(2, stageCount(registry, DiagnosisMetrics.FILE_STAGING));
+	}
+}
@@ -0,0 +1,42 @@
+package com.project.DiseaseDiagnosis;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class DiagnosisResultTests {
+
+	@Test
+	void resultIsSerializedWithoutUnsetFields() throws Exception {
+		DiagnosisResult result = new DiagnosisResult(DiagnosisMetrics.SEQUENTIAL, 100, List.of(
+				new KeywordResult("CAG", 3, List.of(new RepeatRun("CAG", 4, 3)),
+						List.of(new DiseaseClassification("Huntington", Classification.NORMAL_RANGE)))))
+				.addTiming(DiagnosisMetrics.DFA_BUILD, 1000000)
+				.addTiming(DiagnosisMetrics.DFA_BUILD, 500000);
+
+		JsonNode json = new ObjectMapper().readTree(new ObjectMapper().writeValueAsString(result));
+		assertEquals("sequential", json.get("engine").asText());
+		assertEquals(100, json.get("bytesScanned").asLong());
+		assertEquals(1.5, json.get("timings").get("dfa_build").asDouble());
+		JsonNode keyword = json.get("keywords").get(0);
+		assertEquals("CAG", keyword.get("keyword").asText());
+		assertEquals(3, keyword.get("count").asLong());
+		assertEquals(4, keyword.get("longestRun").get("start").asLong());
+		assertEquals(3, keyword.get("topRuns").get(0).get("repeats").asLong());
+		assertEquals("Huntington", keyword.get("diseases").get(0).get("disease").asText());
+		assertEquals("NormalRange", keyword.get("diseases").get(0).get("result").asText());
+
+		/* fields of other inputs, engines and requests are left out instead of written as null */
+		for (String field : new String[]{"engineReason", "format", "recordCount", "records", "mismatches", "panelCount"}) {
+			assertFalse(json.has(field));
+		}
+		assertFalse(keyword.has("forwardCount"));
+		assertFalse(keyword.get("longestRun").has("record"));
+		assertFalse(keyword.get("longestRun").has("strand"));
+	}
+}
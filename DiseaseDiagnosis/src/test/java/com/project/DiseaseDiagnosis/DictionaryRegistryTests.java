@@ -0,0 +1,64 @@
+package com.project.DiseaseDiagnosis;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DictionaryRegistryTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void dictionaryRegistryKeepsTheLastGoodVersion() throws IOException {
+		Path keywordsFile = Files.writeString(directory.resolve("keywords.txt"), "CAG,GAA");
+		Path rangesFile = Files.writeString(directory.resolve("ranges"), "HD,CAG,6-29,29-37,38-180\n");
+		try (DictionaryRegistry registry = new DictionaryRegistry(keywordsFile, rangesFile, new AutomatonCache(2))) {
+			Dictionary first = registry.current();
+			assertEquals(1, first.getVersion());
+			assertEquals(Classification.DISEASE_AFFECTED, first.getRanges().classify("CAG", 40).get(0).getResult());
+
+			Files.writeString(rangesFile, "HD,CAG,6-29,29-inf\n");
+			assertThrows(IOException.class, registry::load);
+			assertSame(first, registry.current());
+
+			Files.writeString(keywordsFile, "CTG");
+			Files.writeString(rangesFile, "DM1,CTG,5-34,35-49,50-inf\n");
+			Dictionary second = registry.load();
+			assertEquals(2, second.getVersion());
+			assertSame(second, registry.current());
+			assertArrayEquals(new String[]{"CTG"}, second.getKeywords());
+			assertTrue(second.getRanges().classify("CAG", 40).isEmpty());
+			/* the old version is unchanged for scans that still use it */
+			assertEquals(2, first.getAutomaton().getKeywordCount());
+		}
+	}
+
+	@Test
+	void classpathResourcesAreReadUnlessAFileIsGiven() throws IOException {
+		Path keywordsFile = Files.writeString(directory.resolve("keywords.txt"), "CTG,,CTG");
+		try (DictionaryRegistry registry = new DictionaryRegistry(keywordsFile, null, new AutomatonCache(2))) {
+			Dictionary dictionary = registry.load();
+			assertArrayEquals(new String[]{"CTG"}, dictionary.getKeywords());
+			/* the ranges come from the resource, there is no file to watch for them */
+			assertTrue(dictionary.getRanges().getDiseaseCount() > 0);
+			registry.watch();
+		}
+		try (DictionaryRegistry registry = new DictionaryRegistry(null, null, new AutomatonCache(2))) {
+			Dictionary dictionary = registry.load();
+			assertTrue(dictionary.getKeywords().length > 0);
+			assertEquals(dictionary.getAutomaton().getKeywordCount(), dictionary.getKeywords().length);
+			/* nothing to watch */
+			registry.watch();
+		}
+	}
+}
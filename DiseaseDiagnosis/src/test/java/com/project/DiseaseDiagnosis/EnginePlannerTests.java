@@ -0,0 +1,87 @@
+package com.project.DiseaseDiagnosis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class EnginePlannerTests {
+
+	private static final String[] KEYWORDS = "ATTCT,CAG,GCN,CTG,CCTG,GCC,GAA,CGG,CGC,GGC,CCCCGCCCCGCG,GGCCTG,GGGGCC,CCCCGCCCGCG".split(",");
+
+	private static final String[] LONG_MOTIFS = {"CCCCGCCCCGCG", "GGCCTG", "GGGGCC", "CCCCGCCCGCG"};
+
+	private static Automaton compile(String[] keywords) {
+		FiniteStateAutomata finiteStateAutomata = FiniteStateAutomata.forNucleotides();
+		finiteStateAutomata.gotoFunction(keywords);
+		finiteStateAutomata.failureFunction();
+		return finiteStateAutomata.compile();
+	}
+
+	@Test
+	void plannerUsesParallelEngineOnlyWithFreeCoresAndLargeInput() {
+		Automaton automaton = compile(KEYWORDS);
+		EnginePlanner planner = new EnginePlanner(8);
+		ForkJoinPool pool = new ForkJoinPool(8);
+		try {
+			ParallelScanner parallelScanner = new ParallelScanner(pool, ParallelScanner.DEFAULT_BLOCK_SIZE, 8);
+			assertEquals(DiagnosisMetrics.SEQUENTIAL, planner.plan(EnginePlanner.AUTO, 1 << 16, automaton, null, parallelScanner).getEngine());
+			assertEquals(DiagnosisMetrics.PARALLEL, planner.plan(EnginePlanner.AUTO, 1 << 30, automaton, null, parallelScanner).getEngine());
+			for (int i = 0; i < 8; i++) {
+				planner.enter();
+			}
+			assertEquals(DiagnosisMetrics.SEQUENTIAL, planner.plan(EnginePlanner.AUTO, 1 << 30, automaton, null, parallelScanner).getEngine());
+			assertEquals(DiagnosisMetrics.PARALLEL, planner.plan(DiagnosisMetrics.PARALLEL, 1 << 30, automaton, null, parallelScanner).getEngine());
+		} finally {
+			pool.close();
+		}
+	}
+
+	@Test
+	void plannerUsesVectorEngineOnlyWithAPrefilter() {
+		Automaton automaton = compile(LONG_MOTIFS);
+		Prefilter prefilter = new VectorPrefilter(new Prefilter.Tables(automaton));
+		EnginePlanner planner = new EnginePlanner(1);
+		ParallelScanner parallelScanner = new ParallelScanner();
+
+		EnginePlanner.Plan plan = planner.plan(EnginePlanner.AUTO, 1 << 30, automaton, prefilter, parallelScanner);
+		assertEquals(DiagnosisMetrics.VECTOR, plan.getEngine());
+		assertSame(prefilter, plan.getPrefilter());
+		plan = planner.plan(EnginePlanner.AUTO, 1 << 30, automaton, null, parallelScanner);
+		assertEquals(DiagnosisMetrics.SEQUENTIAL, plan.getEngine());
+		assertNull(plan.getPrefilter());
+
+		plan = planner.plan(DiagnosisMetrics.VECTOR, 1 << 30, automaton, prefilter, parallelScanner);
+		assertEquals(DiagnosisMetrics.VECTOR, plan.getEngine());
+		assertSame(prefilter, plan.getPrefilter());
+		plan = planner.plan(DiagnosisMetrics.VECTOR, 1 << 30, automaton, null, parallelScanner);
+		assertEquals(DiagnosisMetrics.SEQUENTIAL, plan.getEngine());
+		assertNull(plan.getPrefilter());
+		assertEquals("vector requested, but no prefilter is available", plan.getReason());
+	}
+
+	@Test
+	void observedScansCalibrateTheRates() {
+		Automaton automaton = compile(LONG_MOTIFS);
+		Prefilter prefilter = new VectorPrefilter(new Prefilter.Tables(automaton));
+		EnginePlanner planner = new EnginePlanner(1);
+
+		planner.observe(DiagnosisMetrics.SEQUENTIAL, 1_000_000, 1, automaton, 1_000_000);
+		double sequential = (1 - EnginePlanner.WEIGHT) * EnginePlanner.SEQUENTIAL_RATE + EnginePlanner.WEIGHT;
+		assertEquals(sequential, planner.rate(DiagnosisMetrics.SEQUENTIAL), 1e-9);
+
+		// the start-up cost is not part of the throughput of a parallel scan, and the rate is per lane
+		planner.observe(DiagnosisMetrics.PARALLEL, 1_000_000, 2, automaton, EnginePlanner.PARALLEL_OVERHEAD + 1_000_000);
+		double parallel = (1 - EnginePlanner.WEIGHT) * EnginePlanner.PARALLEL_RATE + EnginePlanner.WEIGHT * 0.5;
+		assertEquals(parallel, planner.rate(DiagnosisMetrics.PARALLEL), 1e-9);
+		planner.observe(DiagnosisMetrics.PARALLEL, 1_000_000, 2, automaton, EnginePlanner.PARALLEL_OVERHEAD);
+		assertEquals(parallel, planner.rate(DiagnosisMetrics.PARALLEL), 1e-9);
+
+		// once the sequential scan is observed to be faster than the vector scan, it is chosen instead
+		assertEquals(DiagnosisMetrics.SEQUENTIAL, planner.plan(EnginePlanner.AUTO, 1 << 30, automaton, prefilter, new ParallelScanner()).getEngine());
+		assertEquals(EnginePlanner.VECTOR_RATE, planner.rate(DiagnosisMetrics.VECTOR), 1e-9);
+	}
+}
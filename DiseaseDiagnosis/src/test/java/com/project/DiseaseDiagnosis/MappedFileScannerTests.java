@@ -0,0 +1,52 @@
+package com.project.DiseaseDiagnosis;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MappedFileScannerTests {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void windowsCarryTheStateAcrossKeywordsAndLineEnds() throws IOException {
+		Automaton automaton = Main.preprocessingStage(new String[]{"CAG", "ATTCT", "GGGGCC", "GCN"});
+		/* CAG runs and keywords cross the CRLF line ends, which cross the windows of the small sizes */
+		StringBuilder sequence = new StringBuilder(TestSequences.random(5000, 13));
+		for (int i = sequence.length() - 7; i > 0; i -= 7 + i % 5) {
+			sequence.insert(i, i % 2 == 0 ? "\r\n" : "CA\r\nGATT\nCT");
+		}
+		byte[] data = sequence.toString().getBytes(StandardCharsets.US_ASCII);
+		Path file = Files.write(tempDir.resolve("dna.txt"), data);
+
+		long[] expected = automaton.newCounts();
+		int expectedState = automaton.scan(data, 0, data.length, 0, expected);
+		RepeatTracker expectedRuns = new RepeatTracker(automaton, 3);
+		automaton.scan(data, 0, data.length, expectedRuns);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			for (int windowSize : new int[]{1, 2, 3, 5, 64, 1000, MappedFileScanner.WINDOW_SIZE}) {
+				long[] counts = automaton.newCounts();
+				assertEquals(expectedState, MappedFileScanner.scan(automaton, channel, 0, data.length, 0, counts, windowSize));
+				assertArrayEquals(expected, counts);
+
+				RepeatTracker runs = new RepeatTracker(automaton, 3);
+				MappedFileScanner.scan(automaton, channel, 0, data.length, runs, windowSize);
+				assertArrayEquals(expectedRuns.getCounts(), runs.getCounts());
+				assertEquals(expectedRuns.getPosition(), runs.getPosition());
+				for (int k = 0; k < automaton.getKeywordCount(); k++) {
+					assertEquals(expectedRuns.getTopRuns(k).toString(), runs.getTopRuns(k).toString());
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package com.project.DiseaseDiagnosis;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PanelBatcherTests {
+
+	private static final byte[] DATA = (TestSequences.random(20000, 7) + "CAG".repeat(40) + "TTC".repeat(12)).getBytes(StandardCharsets.US_ASCII);
+
+	private static final PanelBatcher.PanelScan SCAN = (dnaSequence, panelSet) -> {
+		Automaton merged = panelSet.getAutomaton();
+		RepeatTracker tracker = new RepeatTracker(merged, 3);
+		merged.scan(DATA, 0, DATA.length, tracker);
+		List<DiagnosisResult> results = new ArrayList<>();
+		for (int p = 0; p < panelSet.getPanelCount(); p++) {
+			results.add(new DiagnosisResult("test", DATA.length, panelSet.diagnose(p, tracker, DiseaseRanges.EMPTY)));
+		}
+		return results;
+	};
+
+	@Test
+	void mergedPanelsAreDemultiplexedLikeSeparateScans() throws Exception {
+		List<String[]> panels = List.of(new String[]{"CAG", "GCN"}, Nucleotides.withReverseStrand(new String[]{"CTG", "GAA"}),
+				new String[]{"cag", "ATTCT"});
+
+		/* two concurrent requests for the same sample share one scan */
+		PanelBatcher batcher = new PanelBatcher(new AutomatonCache(), 500);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		Future<List<DiagnosisResult>> first = executor.submit(() -> batcher.diagnose("sample", null, panels.subList(0, 2), SCAN));
+		Future<List<DiagnosisResult>> second = executor.submit(() -> batcher.diagnose("sample", null, panels.subList(2, 3), SCAN));
+		List<DiagnosisResult> results = new ArrayList<>(first.get());
+		results.addAll(second.get());
+		executor.shutdown();
+		assertEquals(1, batcher.getScans());
+		assertEquals(3, batcher.getPanels());
+
+		for (int p = 0; p < panels.size(); p++) {
+			Automaton automaton = Main.preprocessingStage(AutomatonCache.normalize(panels.get(p)));
+			RepeatTracker tracker = new RepeatTracker(automaton, 3);
+			automaton.scan(DATA, 0, DATA.length, tracker);
+			assertEquals(Main.diagnose(tracker, DiseaseRanges.EMPTY).toString(), results.get(p).getKeywords().toString());
+		}
+		assertThrows(IllegalArgumentException.class, () -> batcher.diagnose("sample", null, List.<String[]>of(new String[]{"CAX"}), SCAN));
+	}
+
+	@Test
+	void interruptedFirstRequestFailsAlone() throws Exception {
+		PanelBatcher batcher = new PanelBatcher(new AutomatonCache(), 300);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<List<DiagnosisResult>> first = executor.submit(() -> batcher.diagnose("sample", null,
+					List.<String[]>of(new String[]{"CAG"}), SCAN));
+			Thread.sleep(50);
+			Future<List<DiagnosisResult>> second = executor.submit(() -> batcher.diagnose("sample", null,
+					List.<String[]>of(new String[]{"ATTCT"}), SCAN));
+			Thread.sleep(50);
+			/* the first request is interrupted while it waits for the window */
+			first.cancel(true);
+			assertTrue(first.isCancelled());
+
+			/* the second request opens the next batch and scans on its own */
+			List<DiagnosisResult> results = second.get();
+			assertEquals(1, results.size());
+			assertEquals("ATTCT", results.get(0).getKeywords().get(0).getKeyword());
+			assertEquals(1, batcher.getScans());
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
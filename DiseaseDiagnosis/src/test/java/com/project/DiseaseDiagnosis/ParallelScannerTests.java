@@ -0,0 +1,75 @@
+package com.project.DiseaseDiagnosis;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelScannerTests {
+
+	private static final String[] KEYWORDS = "ATTCT,CAG,GCN,CTG,CCTG,GCC,GAA,CGG,CGC,GGC,CCCCGCCCCGCG,GGCCTG,GGGGCC,CCCCGCCCGCG".split(",");
+
+	@TempDir
+	Path tempDir;
+
+	private static Automaton compile() {
+		FiniteStateAutomata finiteStateAutomata = FiniteStateAutomata.forNucleotides();
+		finiteStateAutomata.gotoFunction(KEYWORDS);
+		finiteStateAutomata.failureFunction();
+		return finiteStateAutomata.compile();
+	}
+
+	/**
+	 * Random GC-rich sequence with lines of random length and occasional runs of empty lines,
+	 * so that chunk boundaries fall inside keywords and inside line terminators.
+	 */
+	private Path writeSequence(int length) throws Exception {
+		Random random = new Random(1);
+		StringBuilder sequence = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			sequence.append("ACGGC".charAt(random.nextInt(5)));
+			int lineBreak = random.nextInt(100);
+			if (lineBreak == 0) {
+				sequence.append("\r\n".repeat(20));
+			} else if (lineBreak < 5) {
+				sequence.append('\n');
+			}
+		}
+		Path file = tempDir.resolve("dna.txt");
+		Files.writeString(file, sequence);
+		return file;
+	}
+
+	@Test
+	void parallelCountsEqualSequentialCounts() throws Exception {
+		Automaton automaton = compile();
+		Path file = writeSequence(100000);
+		long[] sequential = MappedFileScanner.scan(automaton, file);
+		for (int blockSize : new int[]{1, 17, 4096, ParallelScanner.DEFAULT_BLOCK_SIZE}) {
+			for (int parallelism : new int[]{1, 3, 8}) {
+				assertArrayEquals(sequential, new ParallelScanner(blockSize, parallelism).scan(automaton, file));
+			}
+		}
+	}
+
+	@Test
+	void parallelRepeatRunsEqualSequentialRepeatRuns() throws Exception {
+		Automaton automaton = compile();
+		Path file = writeSequence(100000);
+		RepeatTracker sequential = MappedFileScanner.scanRepeats(automaton, file, 3);
+		for (int blockSize : new int[]{1, 17, 4096}) {
+			for (int parallelism : new int[]{1, 3, 8}) {
+				RepeatTracker parallel = new ParallelScanner(blockSize, parallelism).scanRepeats(automaton, file, 3);
+				assertArrayEquals(sequential.getCounts(), parallel.getCounts());
+				for (int k = 0; k < automaton.getKeywordCount(); k++) {
+					assertEquals(sequential.getTopRuns(k).toString(), parallel.getTopRuns(k).toString());
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package com.project.DiseaseDiagnosis;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PositionWriterTests {
+
+	@Test
+	void everyOccurrenceIsOneLineOfNdjson() throws IOException {
+		Automaton automaton = Main.preprocessingStage(new String[]{"CAG", "GCC"});
+		/* the GCC occurrence crosses the line end, which is not counted as a base */
+		byte[] data = "CAGG\nCCAG".getBytes(StandardCharsets.US_ASCII);
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		try (PositionWriter positionWriter = new PositionWriter(automaton, output)) {
+			automaton.scan(data, 0, data.length, positionWriter);
+			assertEquals(3, positionWriter.getWritten());
+		}
+		assertEquals("""
+				{"keyword":"CAG","start":0,"end":2}
+				{"keyword":"GCC","start":3,"end":5}
+				{"keyword":"CAG","start":5,"end":7}
+				""", output.toString(StandardCharsets.UTF_8));
+
+		/* no occurrences, no lines */
+		ByteArrayOutputStream empty = new ByteArrayOutputStream();
+		try (PositionWriter positionWriter = new PositionWriter(automaton, empty)) {
+			automaton.scan(new byte[]{'A', 'T'}, 0, 2, positionWriter);
+		}
+		assertEquals("", empty.toString(StandardCharsets.UTF_8));
+	}
+}
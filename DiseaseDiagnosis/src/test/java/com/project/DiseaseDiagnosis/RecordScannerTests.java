@@ -0,0 +1,83 @@
+package com.project.DiseaseDiagnosis;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RecordScannerTests {
+
+	private static final String[] KEYWORDS = {"CAG", "ATTCT"};
+
+	private static final String FASTQ = "@read1 CAGCAG\nCAGCAG\nCA\n+\n@+CAG@CA\n@read2\nATTCT\n+read2\n+++++\n";
+
+	/**
+	 * Feeds the input one byte at a time, so every state of the scanner is split between two feeds
+	 */
+	private static List<String> scan(String input, boolean byteByByte) {
+		Automaton automaton = Main.preprocessingStage(KEYWORDS);
+		List<String> records = new ArrayList<>();
+		RecordScanner recordScanner = new RecordScanner(automaton, 1, (name, tracker) ->
+				records.add(name + ":" + tracker.getPosition() + ":" + tracker.getCounts()[0] + ":" + tracker.getCounts()[1]));
+		byte[] bytes = input.getBytes(StandardCharsets.US_ASCII);
+		if (byteByByte) {
+			for (int i = 0; i < bytes.length; i++) {
+				recordScanner.feed(bytes, i, 1);
+			}
+		} else {
+			recordScanner.feed(bytes, 0, bytes.length);
+		}
+		recordScanner.finish();
+		return records;
+	}
+
+	@Test
+	void headersAndQualityStringsAreSkipped() {
+		for (boolean byteByByte : new boolean[]{false, true}) {
+			assertEquals(List.of("r1:15:4:0", "r2:10:0:2"), scan(">r1 CAGCAG\nCAGCAGCAG\r\nCAGAAA\n>r2\nATTCTATTCT", byteByByte));
+			assertEquals(List.of("read1:8:2:0", "read2:5:0:1"), scan(FASTQ, byteByByte));
+			assertEquals(List.of("null:9:3:0"), scan("CAGCA\nGCAG\n", byteByByte));
+		}
+	}
+
+	@Test
+	void gzipInputIsDecompressed() throws Exception {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed)) {
+			gzipOutputStream.write(FASTQ.getBytes(StandardCharsets.US_ASCII));
+		}
+		Automaton automaton = Main.preprocessingStage(KEYWORDS);
+		RecordDiagnosis recordDiagnosis = new RecordDiagnosis(automaton, 1, DiseaseRanges.EMPTY);
+		RecordScanner recordScanner = new RecordScanner(automaton, 1, recordDiagnosis);
+		try (InputStream inputStream = SequenceInput.open(new ByteArrayInputStream(compressed.toByteArray()))) {
+			assertEquals(FASTQ.length(), recordScanner.feed(inputStream));
+		}
+		assertEquals(2, recordScanner.finish());
+		assertEquals(RecordScanner.SequenceFormat.FASTQ, recordScanner.getFormat());
+		assertEquals("read1", recordDiagnosis.getResults().get(0).getLongestRun().getRecord());
+	}
+
+	@Test
+	void positionsAreWrittenRelativeToTheirRecord() throws Exception {
+		Automaton automaton = Main.preprocessingStage(KEYWORDS);
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		try (PositionWriter positionWriter = new PositionWriter(automaton, output)) {
+			RecordScanner recordScanner = new RecordScanner(automaton, positionWriter);
+			byte[] bytes = FASTQ.getBytes(StandardCharsets.US_ASCII);
+			recordScanner.feed(bytes, 0, bytes.length);
+			assertEquals(2, recordScanner.finish());
+		}
+		assertEquals("""
+				{"record":"read1","keyword":"CAG","start":0,"end":2}
+				{"record":"read1","keyword":"CAG","start":3,"end":5}
+				{"record":"read2","keyword":"ATTCT","start":0,"end":4}
+				""", output.toString(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,79 @@
+package com.project.DiseaseDiagnosis;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResultCacheTests {
+
+	@TempDir
+	Path directory;
+
+	private static String key(String sample) {
+		MessageDigest content = ResultCache.newDigest();
+		content.update(sample.getBytes(StandardCharsets.US_ASCII));
+		return ResultCache.key(content, "automaton", "ranges");
+	}
+
+	@Test
+	void resultCacheEvictsLeastRecentlyUsedReportsFromDisk() {
+		ResultCache resultCache = new ResultCache(1, directory, 10);
+		String[] keys = new String[3];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = key("sample" + i);
+		}
+		resultCache.put(keys[0], "report");
+		resultCache.put(keys[1], "1234");
+		assertEquals("report", resultCache.get(keys[0]));
+		assertEquals(1, resultCache.getDiskHits());
+		/* the least recently used report (keys[1]) makes room on disk */
+		resultCache.put(keys[2], "5678");
+		assertEquals(2, resultCache.getDiskSize());
+		assertEquals(10, resultCache.getDiskBytes());
+
+		ResultCache restarted = new ResultCache(1, directory, 10);
+		assertNull(restarted.get(keys[1]));
+		assertEquals("report", restarted.get(keys[0]));
+		assertEquals("5678", restarted.get(keys[2]));
+	}
+
+	@Test
+	void onlyTheDiagnosisOfAReportIsCachedForEveryEngine() throws IOException, InterruptedException {
+		File dnaSequence = Files.writeString(directory.resolve("dna.txt"), "CAGCAGCAGxATTCT\n".repeat(100)).toFile();
+		AtomicReference<String> diagnosis = new AtomicReference<>();
+		String report = new Main().mainFunc(dnaSequence, new String[]{"CAG", "ATTCT"}, new ParallelScanner(),
+				DiagnosisMetrics.SEQUENTIAL, diagnosis::set);
+		assertTrue(report.contains(diagnosis.get()));
+		assertTrue(diagnosis.get().contains("Keyword"));
+		for (String line : new String[]{" ms.", "Engine: ", "Total memory used"}) {
+			assertTrue(report.contains(line));
+			assertFalse(diagnosis.get().contains(line));
+		}
+		/* the key leaves out the engine, as every engine finds the same diagnosis */
+		AtomicReference<String> parallel = new AtomicReference<>();
+		new Main().mainFunc(dnaSequence, new String[]{"CAG", "ATTCT"}, new ParallelScanner(64, 3),
+				DiagnosisMetrics.PARALLEL, parallel::set);
+		assertEquals(diagnosis.get(), parallel.get());
+
+		/* a removed report is a miss and leaves the disk tier */
+		ResultCache resultCache = new ResultCache(1, directory, 1 << 20);
+		String first = key("first");
+		resultCache.put(first, diagnosis.get());
+		resultCache.put(key("second"), diagnosis.get());
+		Files.delete(directory.resolve(first + ".report"));
+		assertNull(resultCache.get(first));
+		assertEquals(1, resultCache.getDiskSize());
+	}
+}
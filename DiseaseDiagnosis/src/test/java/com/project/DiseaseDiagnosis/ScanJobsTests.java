@@ -0,0 +1,100 @@
+package com.project.DiseaseDiagnosis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ScanJobsTests {
+
+	private static final String[] KEYWORDS = {"CAG", "ATTCT"};
+
+	@TempDir
+	Path tempDir;
+
+	private File stage(String name, String dnaSequence) throws IOException {
+		return Files.writeString(tempDir.resolve(name), dnaSequence, StandardCharsets.US_ASCII).toFile();
+	}
+
+	private static ScanJobs scanJobs(Semaphore scans, long retentionNanos) {
+		return new ScanJobs(new AutomatonCache(), DictionaryRegistry.DEFAULT,
+				new DiagnosisMetrics(new SimpleMeterRegistry()), scans, retentionNanos);
+	}
+
+	private static void awaitFinished(ScanJob job) throws InterruptedException {
+		for (int i = 0; i < 10000 && !job.getState().isFinished(); i++) {
+			Thread.sleep(1);
+		}
+	}
+
+	@Test
+	void jobsWaitQueuedForAScanPermit() throws IOException, InterruptedException {
+		Semaphore scans = new Semaphore(1, true);
+		try (ScanJobs scanJobs = scanJobs(scans, ScanJobs.RETENTION)) {
+			/* the only permit is taken, as if another scan were running */
+			scans.acquire();
+			File dnaSequence = stage("dna.txt", "CAGCAGCAGxATTCT\n".repeat(1000));
+			ScanJob job = scanJobs.submit(dnaSequence, KEYWORDS);
+			File cancelled = stage("cancelled.txt", "CAG");
+			ScanJob queued = scanJobs.submit(cancelled, KEYWORDS);
+			Thread.sleep(50);
+			assertEquals(ScanJob.State.QUEUED, job.getState());
+			assertEquals(0, job.getBytesProcessed());
+			assertSame(job, scanJobs.get(job.getId()));
+
+			/* a queued job is cancelled without scanning and deletes its staged file */
+			assertSame(queued, scanJobs.cancel(queued.getId()));
+			awaitFinished(queued);
+			assertEquals(ScanJob.State.CANCELLED, queued.getState());
+			assertNull(queued.getResult());
+
+			scans.release();
+			awaitFinished(job);
+			assertEquals(ScanJob.State.DONE, job.getState());
+			assertEquals(job.getBytesTotal(), job.getBytesProcessed());
+			for (KeywordResult keyword : job.getResult().getKeywords()) {
+				assertEquals(keyword.getKeyword().equals("CAG") ? 3000 : 1000, keyword.getCount());
+			}
+			for (int i = 0; i < 1000 && (dnaSequence.exists() || cancelled.exists()); i++) {
+				Thread.sleep(1);
+			}
+			assertFalse(dnaSequence.exists());
+			assertFalse(cancelled.exists());
+			assertEquals(1, scans.availablePermits());
+
+			/* a finished job is removed when it is cancelled */
+			scanJobs.cancel(job.getId());
+			assertNull(scanJobs.get(job.getId()));
+		}
+	}
+
+	@Test
+	void failedJobReportsTheErrorAndExpires() throws IOException, InterruptedException {
+		try (ScanJobs scanJobs = scanJobs(new Semaphore(1), 0)) {
+			ScanJob job = scanJobs.submit(stage("empty.txt", ""), KEYWORDS);
+			awaitFinished(job);
+			assertEquals(ScanJob.State.FAILED, job.getState());
+			assertEquals("DNA Sequence cannot be empty!", job.getError());
+			assertEquals(1, scanJobs.size());
+
+			/* finished jobs older than the retention are removed by the next submit */
+			Thread.sleep(1);
+			ScanJob next = scanJobs.submit(stage("dna.txt", "ATTCT"), KEYWORDS);
+			assertNull(scanJobs.get(job.getId()));
+			assertSame(next, scanJobs.get(next.getId()));
+			awaitFinished(next);
+			assertEquals(ScanJob.State.DONE, next.getState());
+		}
+	}
+}
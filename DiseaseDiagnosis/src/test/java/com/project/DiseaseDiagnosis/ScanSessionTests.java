@@ -0,0 +1,111 @@
+package com.project.DiseaseDiagnosis;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScanSessionTests {
+
+	private static final String[] KEYWORDS = {"CAG", "CTG", "GCN", "GGGGCC", "ATTCT"};
+
+	@TempDir
+	Path tempDir;
+
+	/**
+	 * DNA Sequence with lines of 61 units and CAG runs, some of them across line ends
+	 */
+	private static byte[] sequence(long seed) {
+		return TestSequences.withCagRuns(30000, seed, 61, "\n", "\r\n").getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private static void assertSameRuns(RepeatTracker expected, RepeatTracker actual) {
+		assertArrayEquals(expected.getCounts(), actual.getCounts());
+		assertEquals(expected.getPosition(), actual.getPosition());
+		for (int k = 0; k < expected.getAutomaton().getKeywordCount(); k++) {
+			assertEquals(expected.getTopRuns(k).toString(), actual.getTopRuns(k).toString());
+		}
+	}
+
+	@Test
+	void streamFedInArbitraryChunksEqualsMappedScan() throws IOException {
+		Automaton automaton = Main.preprocessingStage(KEYWORDS);
+		byte[] data = sequence(3);
+		Path file = Files.write(tempDir.resolve("dna.txt"), data);
+		RepeatTracker expected = MappedFileScanner.scanRepeats(automaton, file, RepeatTracker.DEFAULT_TOP, new AtomicLong());
+
+		for (long seed = 0; seed < 5; seed++) {
+			Random random = new Random(seed);
+			int maxChunk = seed == 0 ? 1 : 1 << random.nextInt(14);
+			/* the stream returns chunks of 1 ... maxChunk bytes, like the pieces of an upload */
+			InputStream chunked = new FilterInputStream(new ByteArrayInputStream(data)) {
+				@Override
+				public int read(byte[] buffer, int off, int len) throws IOException {
+					return super.read(buffer, off, Math.min(len, 1 + random.nextInt(maxChunk)));
+				}
+			};
+			ScanSession scanSession = new ScanSession(automaton);
+			assertEquals(data.length, scanSession.feed(chunked));
+			assertSameRuns(expected, scanSession.finish());
+		}
+	}
+
+	@Test
+	void sessionResumedFromAStoredCheckpointEqualsASingleScan() throws IOException {
+		Automaton automaton = Main.preprocessingStage(Nucleotides.withReverseStrand(KEYWORDS));
+		byte[] data = sequence(5);
+		RepeatTracker expected = new RepeatTracker(automaton);
+		automaton.scan(data, 0, data.length, expected);
+
+		/* the checkpoint is taken in the middle of a CAG run and of a line */
+		int split = new String(data, StandardCharsets.US_ASCII).indexOf("CAGCAGCAG", data.length / 2) + 4;
+		ScanSession scanSession = new ScanSession(automaton);
+		scanSession.feed(data, 0, split);
+		ByteArrayOutputStream stored = new ByteArrayOutputStream();
+		scanSession.snapshot().writeTo(stored);
+		/* the session goes on after the snapshot, which does not change the checkpoint */
+		scanSession.feed(data, split, 1000);
+
+		ScanSession.Checkpoint checkpoint = ScanSession.Checkpoint.readFrom(automaton,
+				new ByteArrayInputStream(stored.toByteArray()));
+		assertEquals(split, checkpoint.getOffset());
+		ScanSession resumed = ScanSession.resume(automaton, checkpoint);
+		resumed.feed(data, split, data.length - split);
+		assertEquals(data.length, resumed.getOffset());
+		assertSameRuns(expected, resumed.finish());
+
+		assertThrows(IllegalArgumentException.class, () -> ScanSession.Checkpoint.readFrom(
+				Main.preprocessingStage(new String[]{"CAG"}), new ByteArrayInputStream(stored.toByteArray())));
+	}
+
+	@Test
+	void corruptedCheckpointsAreRejected() throws IOException {
+		Automaton automaton = Main.preprocessingStage(KEYWORDS);
+		ScanSession scanSession = new ScanSession(automaton);
+		byte[] data = sequence(7);
+		scanSession.feed(data, 0, 5000);
+		ByteArrayOutputStream stored = new ByteArrayOutputStream();
+		scanSession.snapshot().writeTo(stored);
+
+		/* magic, version, fingerprint (2 + 64 bytes), offset and top precede the automaton state */
+		int stateOffset = 2 * Integer.BYTES + 2 + 64 + Long.BYTES + Integer.BYTES;
+		for (int[] corruption : new int[][]{{0, 0x7F}, {Integer.BYTES + 3, 0}, {stateOffset + 3, 1}, {stateOffset, 0x7F}}) {
+			byte[] corrupted = stored.toByteArray();
+			corrupted[corruption[0]] = (byte) corruption[1];
+			assertThrows(IOException.class, () -> ScanSession.Checkpoint.readFrom(automaton, new ByteArrayInputStream(corrupted)));
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package com.project.DiseaseDiagnosis;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SequenceIndexTests {
+
+	private static final String[] KEYWORDS = "CAG,GCN,AAA,CCGG,TTAGGG,ATTCT".split(",");
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void suffixArrayEqualsNaiveSuffixSort() {
+		Random random = new Random(3);
+		for (int test = 0; test < 500; test++) {
+			int length = 1 + random.nextInt(test < 400 ? 40 : 3000);
+			int alphabet = 2 + random.nextInt(5);
+			int[] text = new int[length + 1];
+			for (int i = 0; i < length; i++) {
+				/* every other text is periodic, which gives many equal LMS substrings */
+				text[i] = test % 2 == 0 ? 1 + random.nextInt(alphabet - 1) : 1 + (i % 3 == 0 ? 0 : (alphabet - 1) / 2);
+			}
+			int[] suffixArray = new int[length + 1];
+			SuffixArrays.sort(text, suffixArray, length + 1, alphabet);
+
+			Integer[] expected = new Integer[length + 1];
+			for (int i = 0; i <= length; i++) {
+				expected[i] = i;
+			}
+			Arrays.sort(expected, (a, b) -> {
+				int i = a, j = b;
+				while (text[i] == text[j]) {
+					i++;
+					j++;
+				}
+				return Integer.compare(text[i], text[j]);
+			});
+			for (int i = 0; i <= length; i++) {
+				assertEquals((int) expected[i], suffixArray[i]);
+			}
+		}
+	}
+
+	@Test
+	void indexFindsTheSameRepeatsAsTheAutomaton() throws Exception {
+		Path file = Files.writeString(tempDir.resolve("dna.txt"), TestSequences.withCagRuns(50000, 5, 60, "\r\n"));
+		Automaton automaton = Main.preprocessingStage(Nucleotides.withReverseStrand(KEYWORDS));
+		RepeatTracker expected = MappedFileScanner.scanRepeats(automaton, file, RepeatTracker.DEFAULT_TOP, new AtomicLong());
+
+		SequenceIndex built = SequenceIndex.build(file);
+		built.write(tempDir.resolve("dna.fmi"));
+		for (SequenceIndex index : new SequenceIndex[]{built, SequenceIndex.load(tempDir.resolve("dna.fmi"))}) {
+			RepeatTracker tracker = new RepeatTracker(automaton, RepeatTracker.DEFAULT_TOP);
+			index.locate(automaton, tracker);
+			assertArrayEquals(expected.getCounts(), tracker.getCounts());
+			assertEquals(expected.getPosition(), tracker.getPosition());
+			for (int k = 0; k < automaton.getKeywordCount(); k++) {
+				assertEquals(expected.getTopRuns(k).toString(), tracker.getTopRuns(k).toString());
+			}
+			assertEquals(expected.getCounts()[Arrays.asList(KEYWORDS).indexOf("GCN")], index.count("GCN"));
+		}
+	}
+
+	@Test
+	void corruptedHeadersAndTooLongSamplesAreRejected() throws Exception {
+		Path file = Files.writeString(tempDir.resolve("dna.txt"), "CAGCAGCAGxATTCT\n".repeat(100));
+		Path indexFile = tempDir.resolve("dna.fmi");
+		SequenceIndex.build(file).write(indexFile);
+		byte[] stored = Files.readAllBytes(indexFile);
+		/* first[1] lies in the header; the size checks of load still pass */
+		byte[] corrupted = stored.clone();
+		corrupted[5 * Integer.BYTES] ^= 1;
+		Files.write(indexFile, corrupted);
+		assertTrue(assertThrows(IOException.class, () -> SequenceIndex.load(indexFile)).getMessage().contains("checksum mismatch"));
+
+		SequenceIndexes sequenceIndexes = new SequenceIndexes(tempDir.resolve("indexes"), 1, 1000);
+		String id = "0".repeat(64);
+		assertThrows(IllegalArgumentException.class, () -> sequenceIndexes.build(id, file.toFile()));
+		assertNull(sequenceIndexes.get(id));
+		assertEquals(1500, new SequenceIndexes(tempDir.resolve("indexes"), 1, 1600).build(id, file.toFile()).getLength());
+	}
+}
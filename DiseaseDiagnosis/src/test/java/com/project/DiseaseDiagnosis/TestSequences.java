@@ -0,0 +1,44 @@
+package com.project.DiseaseDiagnosis;
+
+import java.util.Random;
+
+/**
+ * Class TestSequences generates the random DNA Sequences the tests scan
+ */
+final class TestSequences {
+
+	private TestSequences() {
+	}
+
+	/**
+	 * random
+	 *
+	 * @return length random bases A, C, G and T
+	 */
+	static String random(int length, long seed) {
+		Random random = new Random(seed);
+		StringBuilder sequence = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			sequence.append("ACGT".charAt(random.nextInt(4)));
+		}
+		return sequence.toString();
+	}
+
+	/**
+	 * withCagRuns
+	 *
+	 * @param lineEnds the line ends, used in turn after every lineLength units
+	 * @return units random units, each a CAG (3 in 10) or one of A, C, G, T and N, so CAG runs of many lengths form
+	 */
+	static String withCagRuns(int units, long seed, int lineLength, String... lineEnds) {
+		Random random = new Random(seed);
+		StringBuilder sequence = new StringBuilder();
+		for (int i = 0; i < units; i++) {
+			sequence.append(random.nextInt(10) < 3 ? "CAG" : String.valueOf("ACGTN".charAt(random.nextInt(5))));
+			if (i % lineLength == lineLength - 1) {
+				sequence.append(lineEnds[i / lineLength % lineEnds.length]);
+			}
+		}
+		return sequence.toString();
+	}
+}
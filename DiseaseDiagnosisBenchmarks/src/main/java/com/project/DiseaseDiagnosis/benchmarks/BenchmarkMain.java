@@ -0,0 +1,30 @@
+package com.project.DiseaseDiagnosis.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Class BenchmarkMain runs the benchmarks like org.openjdk.jmh.Main (all JMH command line options are accepted),
+ * but always with the GC profiler, so the allocation rate (gc.alloc.rate.norm, bytes per operation) and the
+ * GC count are reported next to every result and allocation regressions show up in the same run.
+ * Usage: java -jar target/benchmarks.jar [JMH options] [benchmark regexp]
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(commandLineOptions)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
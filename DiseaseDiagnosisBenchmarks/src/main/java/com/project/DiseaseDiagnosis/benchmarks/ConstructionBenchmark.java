@@ -0,0 +1,68 @@
+package com.project.DiseaseDiagnosis.benchmarks;
+
+import com.project.DiseaseDiagnosis.Automaton;
+import com.project.DiseaseDiagnosis.AutomatonFile;
+import com.project.DiseaseDiagnosis.FiniteStateAutomata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class ConstructionBenchmark measures the time to build the automaton (goto function, failure function and
+ * compilation into the transition table) for keyword sets of growing size, and the time to load the same
+ * automaton from a precompiled AutomatonFile instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConstructionBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int keywordCount;
+
+    private String[] keywords;
+    private Path automatonFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        keywords = SyntheticGenome.keywords(keywordCount, SyntheticGenome.DEFAULT_SEED);
+        automatonFile = Files.createTempFile("keywords", ".acdfa");
+        AutomatonFile.write(build(), automatonFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(automatonFile);
+    }
+
+    @Benchmark
+    public Automaton build() {
+        FiniteStateAutomata finiteStateAutomata = FiniteStateAutomata.forNucleotides();
+        finiteStateAutomata.gotoFunction(keywords);
+        finiteStateAutomata.failureFunction();
+        return finiteStateAutomata.compile();
+    }
+
+    @Benchmark
+    public Automaton loadPrecompiled() throws IOException {
+        return AutomatonFile.load(automatonFile);
+    }
+}
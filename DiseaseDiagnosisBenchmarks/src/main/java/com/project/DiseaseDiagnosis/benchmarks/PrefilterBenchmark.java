@@ -0,0 +1,77 @@
+package com.project.DiseaseDiagnosis.benchmarks;
+
+import com.project.DiseaseDiagnosis.Automaton;
+import com.project.DiseaseDiagnosis.FiniteStateAutomata;
+import com.project.DiseaseDiagnosis.MappedFileScanner;
+import com.project.DiseaseDiagnosis.Prefilter;
+import com.project.DiseaseDiagnosis.RepeatTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class PrefilterBenchmark measures the speedup of the vector engine (the sequential scan with the Vector API
+ * prefilter, see Prefilter) over the plain sequential scan: the ratio of the scores of vectorRepeats and
+ * sequentialRepeats for the same panel and genome size. The forks run with the Vector API module. Panel
+ * "default" is the default panel, whose short motifs start almost everywhere, so Prefilter.of declines it and
+ * vectorRepeats runs the plain scan like the service would; "long" are its motifs of 6 bases and more.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class PrefilterBenchmark {
+
+    static final String[] LONG_MOTIFS = {"CCCCGCCCCGCG", "GGCCTG", "GGGGCC", "CCCCGCCCGCG"};
+
+    @Param({"64MB", "1GB"})
+    public String genomeSize;
+
+    @Param({"default", "long"})
+    public String panel;
+
+    private Automaton automaton;
+    private Prefilter prefilter;
+    private Path genome;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        FiniteStateAutomata finiteStateAutomata = FiniteStateAutomata.forNucleotides();
+        finiteStateAutomata.gotoFunction(panel.equals("long") ? LONG_MOTIFS : SyntheticGenome.KEYWORDS);
+        finiteStateAutomata.failureFunction();
+        automaton = finiteStateAutomata.compile();
+        prefilter = Prefilter.of(automaton);
+        Path directory = Path.of(System.getProperty("benchmark.genomes",
+                Path.of(System.getProperty("java.io.tmpdir"), "disease-diagnosis-genomes").toString()));
+        genome = SyntheticGenome.get(directory, SyntheticGenome.parseSize(genomeSize), SyntheticGenome.DEFAULT_SEED);
+    }
+
+    @Benchmark
+    public RepeatTracker sequentialRepeats() throws IOException {
+        return MappedFileScanner.scanRepeats(automaton, genome, RepeatTracker.DEFAULT_TOP, new AtomicLong());
+    }
+
+    @Benchmark
+    public RepeatTracker vectorRepeats() throws IOException {
+        if (prefilter == null) {
+            return MappedFileScanner.scanRepeats(automaton, genome, RepeatTracker.DEFAULT_TOP, new AtomicLong());
+        }
+        return MappedFileScanner.scanRepeats(automaton, prefilter, genome, RepeatTracker.DEFAULT_TOP, new AtomicLong());
+    }
+}
@@ -0,0 +1,117 @@
+package com.project.DiseaseDiagnosis.benchmarks;
+
+import com.project.DiseaseDiagnosis.Automaton;
+import com.project.DiseaseDiagnosis.FiniteStateAutomata;
+import com.project.DiseaseDiagnosis.MappedFileScanner;
+import com.project.DiseaseDiagnosis.MismatchMatcher;
+import com.project.DiseaseDiagnosis.ParallelScanner;
+import com.project.DiseaseDiagnosis.RepeatTracker;
+import com.project.DiseaseDiagnosis.ScanSession;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class ScanBenchmark measures the scan throughput of every engine on synthetic genomes (see SyntheticGenome).
+ * Besides operations per second, every benchmark reports the secondary result "megabytes", which is the scan
+ * throughput in MB/s. Genomes are written once to the directory given by the system property
+ * benchmark.genomes (default: java.io.tmpdir/disease-diagnosis-genomes) and reused afterwards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ScanBenchmark {
+
+    @Param({"1MB", "64MB", "1GB"})
+    public String genomeSize;
+
+    private Automaton automaton;
+    private MismatchMatcher mismatchMatcher;
+    private ParallelScanner parallelScanner;
+    private Path genome;
+    private long size;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        FiniteStateAutomata finiteStateAutomata = FiniteStateAutomata.forNucleotides();
+        finiteStateAutomata.gotoFunction(SyntheticGenome.KEYWORDS);
+        finiteStateAutomata.failureFunction();
+        automaton = finiteStateAutomata.compile();
+        mismatchMatcher = new MismatchMatcher(automaton, 1);
+        parallelScanner = new ParallelScanner();
+        size = SyntheticGenome.parseSize(genomeSize);
+        Path directory = Path.of(System.getProperty("benchmark.genomes",
+                Path.of(System.getProperty("java.io.tmpdir"), "disease-diagnosis-genomes").toString()));
+        genome = SyntheticGenome.get(directory, size, SyntheticGenome.DEFAULT_SEED);
+    }
+
+    /**
+     * Class Bytes counts the scanned megabytes; JMH reports the counter per second, i.e. in MB/s
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+
+        public double megabytes;
+    }
+
+    @Benchmark
+    public long[] sequential(Bytes bytes) throws IOException {
+        bytes.megabytes += size / 1e6;
+        return MappedFileScanner.scan(automaton, genome);
+    }
+
+    @Benchmark
+    public RepeatTracker sequentialRepeats(Bytes bytes) throws IOException {
+        bytes.megabytes += size / 1e6;
+        return MappedFileScanner.scanRepeats(automaton, genome, RepeatTracker.DEFAULT_TOP);
+    }
+
+    @Benchmark
+    public long[] parallel(Bytes bytes) throws IOException, InterruptedException {
+        bytes.megabytes += size / 1e6;
+        return parallelScanner.scan(automaton, genome);
+    }
+
+    @Benchmark
+    public RepeatTracker parallelRepeats(Bytes bytes) throws IOException, InterruptedException {
+        bytes.megabytes += size / 1e6;
+        return parallelScanner.scanRepeats(automaton, genome, RepeatTracker.DEFAULT_TOP);
+    }
+
+    @Benchmark
+    public RepeatTracker stream(Bytes bytes) throws IOException {
+        bytes.megabytes += size / 1e6;
+        ScanSession scanSession = new ScanSession(automaton);
+        try (InputStream inputStream = Files.newInputStream(genome)) {
+            scanSession.feed(inputStream);
+        }
+        return scanSession.finish();
+    }
+
+    @Benchmark
+    public RepeatTracker mismatchRepeats(Bytes bytes) throws IOException {
+        bytes.megabytes += size / 1e6;
+        return MappedFileScanner.scanRepeats(mismatchMatcher, genome, RepeatTracker.DEFAULT_TOP, new AtomicLong());
+    }
+}
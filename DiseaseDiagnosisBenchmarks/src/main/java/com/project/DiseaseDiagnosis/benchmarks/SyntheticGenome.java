@@ -0,0 +1,140 @@
+package com.project.DiseaseDiagnosis.benchmarks;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashSet;
+import java.util.Random;
+
+/**
+ * Class SyntheticGenome writes reproducible DNA Sequence files for the benchmarks: random bases in lines of
+ * LINE_LENGTH bases, with tandem repeat expansions of disease motifs (e.g. CAG x 120) seeded at random positions.
+ * The same size and seed always produce the same file, so generated files are kept in a directory and reused
+ * by later forks and runs.
+ */
+public final class SyntheticGenome {
+
+    static final int LINE_LENGTH = 60;
+    static final long DEFAULT_SEED = 42;
+
+    /**
+     * MOTIFS are the repeat units of nucleotide repeat diseases (see NucleotideRepeatDiseaseRanges)
+     */
+    static final String[] MOTIFS = {"CAG", "CTG", "CCTG", "GAA", "CGG", "ATTCT", "GGCCTG", "GGGGCC", "GCN"};
+
+    /**
+     * KEYWORDS is the default panel scanned by ScanBenchmark, the same as src/main/resources/keywords.txt
+     */
+    static final String[] KEYWORDS = "ATTCT,CAG,GCN,CTG,CCTG,GCC,GAA,CGG,CGC,GGC,CCCCGCCCCGCG,GGCCTG,GGGGCC,CCCCGCCCGCG".split(",");
+
+    /**
+     * EXPANSION_RATE is the average number of bases between two repeat expansions
+     */
+    private static final int EXPANSION_RATE = 20000;
+    private static final byte[] BASES = {'A', 'C', 'G', 'T'};
+
+    private SyntheticGenome() {
+    }
+
+    /**
+     * parseSize
+     *
+     * @return number of bytes of a size like "1MB", "64MB" or "1GB"
+     */
+    static long parseSize(String size) {
+        String value = size.trim().toUpperCase();
+        if (value.endsWith("GB")) {
+            return Long.parseLong(value.substring(0, value.length() - 2)) << 30;
+        }
+        if (value.endsWith("MB")) {
+            return Long.parseLong(value.substring(0, value.length() - 2)) << 20;
+        }
+        if (value.endsWith("KB")) {
+            return Long.parseLong(value.substring(0, value.length() - 2)) << 10;
+        }
+        return Long.parseLong(value);
+    }
+
+    /**
+     * get returns the genome of the given size and seed from the directory, writing it first if it does not exist
+     */
+    static Path get(Path directory, long size, long seed) throws IOException {
+        Path file = directory.resolve("genome-" + size + "-" + seed + ".txt");
+        if (Files.isRegularFile(file) && Files.size(file) == size) {
+            return file;
+        }
+        Files.createDirectories(directory);
+        Path partial = Files.createTempFile(directory, "genome", ".part");
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(partial), 1 << 16)) {
+            write(outputStream, size, seed);
+        }
+        return Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * write writes exactly size bytes of the genome
+     */
+    static void write(OutputStream outputStream, long size, long seed) throws IOException {
+        Random random = new Random(seed);
+        byte[] line = new byte[LINE_LENGTH + 1];
+        line[LINE_LENGTH] = '\n';
+        String expansion = "";
+        int expansionIndex = 0;
+        for (long written = 0; written < size; ) {
+            for (int i = 0; i < LINE_LENGTH; i++) {
+                if (expansionIndex < expansion.length()) {
+                    line[i] = (byte) expansion.charAt(expansionIndex++);
+                } else if (random.nextInt(EXPANSION_RATE) == 0) {
+                    expansion = expansion(random);
+                    expansionIndex = 0;
+                    line[i] = (byte) expansion.charAt(expansionIndex++);
+                } else {
+                    line[i] = BASES[random.nextInt(BASES.length)];
+                }
+            }
+            int length = (int) Math.min(line.length, size - written);
+            outputStream.write(line, 0, length);
+            written += length;
+        }
+    }
+
+    /**
+     * expansion
+     *
+     * @return tandem run of a random motif with 5 to 200 repeats, IUPAC codes replaced by random bases
+     */
+    private static String expansion(Random random) {
+        String motif = MOTIFS[random.nextInt(MOTIFS.length)];
+        int repeats = 5 + random.nextInt(196);
+        StringBuilder run = new StringBuilder(motif.length() * repeats);
+        for (int r = 0; r < repeats; r++) {
+            for (int i = 0; i < motif.length(); i++) {
+                char symbol = motif.charAt(i);
+                run.append(symbol == 'N' ? (char) BASES[random.nextInt(BASES.length)] : symbol);
+            }
+        }
+        return run.toString();
+    }
+
+    /**
+     * keywords
+     *
+     * @return count distinct random nucleotide keywords of 3 to 20 bases
+     */
+    static String[] keywords(int count, long seed) {
+        Random random = new Random(seed);
+        LinkedHashSet<String> keywords = new LinkedHashSet<>();
+        while (keywords.size() < count) {
+            int length = 3 + random.nextInt(18);
+            StringBuilder keyword = new StringBuilder(length);
+            for (int i = 0; i < length; i++) {
+                keyword.append((char) BASES[random.nextInt(BASES.length)]);
+            }
+            keywords.add(keyword.toString());
+        }
+        return keywords.toArray(new String[0]);
+    }
+}